@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("org.graalvm.buildtools.native") version "0.10.6" // Spring AOT processing + optional native image (./gradlew nativeCompile)
 }
 
 group = "ca.gbc.comp3095"
@@ -28,7 +29,10 @@ extra["springCloudVersion"] = "2025.0.0"
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus scrape endpoint
+    implementation(project(":tracing-support")) // W3C trace context, spans and their export (see ca.gbc.comp3095.tracing.TracingConfig)
     implementation("org.springframework.cloud:spring-cloud-starter-gateway-server-webmvc")
+    implementation("org.springframework.boot:spring-boot-starter-data-redis") // Optional shared backing for the response cache
     compileOnly("org.projectlombok:lombok")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
     annotationProcessor("org.projectlombok:lombok")
@@ -45,4 +49,44 @@ dependencyManagement {
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // Opt-in benchmarks (e.g. Http2TransportBenchmarkTests): ./gradlew test -Dbenchmark=true
+    systemProperty("benchmark", System.getProperty("benchmark") ?: "false")
+}
+
+// Tests tagged "small-heap" (routes.StreamingProxyTests) prove that memory stays flat by proxying bodies far
+// larger than the heap they run with - they get their own JVM, run with (and skipped by -x) the test task
+val smallHeapTest by tasks.registering(Test::class) {
+    description = "Runs the tests tagged small-heap with a 128 MB heap."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform { includeTags("small-heap") }
+    maxHeapSize = "128m"
+}
+
+tasks.named<Test>("test") {
+    useJUnitPlatform { excludeTags("small-heap") }
+    dependsOn(smallHeapTest)
+}
+
+// Fast startup (see Dockerfile, Dockerfile.native and ../startup-comparison.sh)
+//  - processAot runs on every build and adds the AOT-generated bean definitions to the boot jar;
+//    the JVM only uses them when started with -Dspring.aot.enabled=true
+//  - AOT settles @ConditionalOnProperty/@Profile at BUILD time, so the image is processed with the
+//    profile it runs with: ./gradlew build -PaotProfiles=docker
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    (findProperty("aotProfiles") as String?)?.let { args("--spring.profiles.active=$it") }
+}
+
+// Fixed file names - the Dockerfiles and ../startup-comparison.sh copy the jar (and native image) by name
+tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
+    archiveFileName = "api-gateway.jar"
+}
+
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "api-gateway"
+        }
+    }
 }
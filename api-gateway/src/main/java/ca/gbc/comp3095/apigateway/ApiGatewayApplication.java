@@ -1,9 +1,12 @@
 package ca.gbc.comp3095.apigateway;
 
+import ca.gbc.comp3095.apigateway.aot.ApiGatewayRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ApiGatewayRuntimeHints.class) // reflection hints for the native image
 public class ApiGatewayApplication {
 
     public static void main(String[] args) {
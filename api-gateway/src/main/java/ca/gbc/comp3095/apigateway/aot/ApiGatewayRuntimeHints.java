@@ -0,0 +1,18 @@
+package ca.gbc.comp3095.apigateway.aot;
+
+import ca.gbc.comp3095.apigateway.cache.CachedResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What Spring AOT cannot work out from the bean definitions alone (only used by the native image):
+ *  - CachedResponse: stored in Redis as JSON by RedisResponseCacheStore's own ObjectMapper
+ */
+public class ApiGatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), CachedResponse.class);
+    }
+}
@@ -0,0 +1,77 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * The parts of a Cache-Control header a shared cache cares about (RFC 9111).
+ * Spring's CacheControl class only builds headers, it does not parse them.
+ */
+public record CacheDirectives(
+        boolean noStore,
+        boolean noCache,
+        boolean isPrivate,
+        Duration maxAge,
+        Duration sharedMaxAge) {
+
+    public static final CacheDirectives NONE = new CacheDirectives(false, false, false, null, null);
+
+    public static CacheDirectives of(HttpHeaders headers) {
+        return parse(headers.getFirst(HttpHeaders.CACHE_CONTROL));
+    }
+
+    public static CacheDirectives parse(String header) {
+        if (header == null || header.isBlank()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+
+        for (String token : header.split(",")) {
+            String directive = token.trim().toLowerCase(Locale.ROOT);
+            if (directive.equals("no-store")) {
+                noStore = true;
+            } else if (directive.startsWith("no-cache")) {
+                noCache = true;
+            } else if (directive.startsWith("private")) {
+                isPrivate = true;
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            } else if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(directive.substring("s-maxage=".length()));
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, maxAge, sharedMaxAge);
+    }
+
+    /**
+     * A shared cache may not keep private or no-store responses at all.
+     */
+    public boolean isStorable() {
+        return !noStore && !isPrivate;
+    }
+
+    /**
+     * s-maxage wins over max-age for shared caches; otherwise fall back to the gateway default.
+     */
+    public Duration ttl(Duration defaultTtl) {
+        if (sharedMaxAge != null) {
+            return sharedMaxAge;
+        }
+        return maxAge != null ? maxAge : defaultTtl;
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            // Malformed delta-seconds must be treated as already stale
+            return Duration.ZERO;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of an upstream response held by the gateway cache.
+ * Headers are kept as a plain map so the record can be written to Redis as JSON.
+ */
+public record CachedResponse(
+        int status,
+        Map<String, List<String>> headers,
+        byte[] body,
+        String etag,
+        Instant storedAt,
+        Instant expiresAt,
+        boolean mustRevalidate) {
+
+    public boolean isFresh(Instant now) {
+        return !mustRevalidate && now.isBefore(expiresAt);
+    }
+
+    public long ageSeconds(Instant now) {
+        return Math.max(0, now.getEpochSecond() - storedAt.getEpochSecond());
+    }
+
+    public int sizeInBytes() {
+        return body == null ? 0 : body.length;
+    }
+
+    /**
+     * Same response, re-validated by the upstream (304) - only the freshness window moves.
+     */
+    public CachedResponse refreshed(Instant now, Instant newExpiry) {
+        return new CachedResponse(status, headers, body, etag, now, newExpiry, mustRevalidate);
+    }
+}
@@ -0,0 +1,71 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU store. Both the number of entries and the total body bytes are capped,
+ * so one huge listing cannot push the gateway out of heap.
+ */
+public class InMemoryResponseCacheStore implements ResponseCacheStore {
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // accessOrder = true -> iteration order is least recently used first
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    public InMemoryResponseCacheStore(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized Optional<CachedResponse> get(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public synchronized void put(String key, CachedResponse response) {
+        if (response.sizeInBytes() > maxBytes) {
+            return; // would evict everything else and still not fit
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            currentBytes -= previous.sizeInBytes();
+        }
+        currentBytes += response.sizeInBytes();
+        evict();
+    }
+
+    @Override
+    public synchronized int removeByPrefix(String prefix) {
+        int removed = 0;
+        Iterator<Map.Entry<String, CachedResponse>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentBytes -= entry.getValue().sizeInBytes();
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, CachedResponse>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+            currentBytes -= it.next().getValue().sizeInBytes();
+            it.remove();
+        }
+    }
+}
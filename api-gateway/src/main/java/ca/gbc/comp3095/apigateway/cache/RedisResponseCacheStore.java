@@ -0,0 +1,104 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-level store: the bounded in-memory store is consulted first, Redis is shared by every
+ * gateway instance. Redis failures are logged and treated as misses - the cache must never
+ * take the gateway down.
+ */
+@Slf4j
+public class RedisResponseCacheStore implements ResponseCacheStore {
+
+    private static final String KEY_PREFIX = "gateway-cache:";
+
+    private final ResponseCacheStore local;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration staleRetention;
+
+    public RedisResponseCacheStore(ResponseCacheStore local, StringRedisTemplate redisTemplate,
+                                   ObjectMapper objectMapper, Duration staleRetention) {
+        this.local = local;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.staleRetention = staleRetention;
+    }
+
+    @Override
+    public Optional<CachedResponse> get(String key) {
+        Optional<CachedResponse> hit = local.get(key);
+        if (hit.isPresent()) {
+            return hit;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (json == null) {
+                return Optional.empty();
+            }
+            CachedResponse response = objectMapper.readValue(json, CachedResponse.class);
+            local.put(key, response);
+            return Optional.of(response);
+        } catch (Exception e) {
+            log.warn("Redis cache read failed for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        local.put(key, response);
+        try {
+            // Keep the entry a little past its freshness so it can still be revalidated with its ETag
+            Duration ttl = Duration.between(Instant.now(), response.expiresAt()).plus(staleRetention);
+            if (ttl.isNegative() || ttl.isZero()) {
+                return;
+            }
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(response), ttl);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize cached response for {}: {}", key, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Redis cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public int removeByPrefix(String prefix) {
+        int removed = local.removeByPrefix(prefix);
+        try {
+            List<String> keys = redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+                List<String> found = new ArrayList<>();
+                ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + prefix + "*").count(500).build();
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    cursor.forEachRemaining(k -> found.add(new String(k, StandardCharsets.UTF_8)));
+                }
+                return found;
+            });
+            if (keys != null && !keys.isEmpty()) {
+                Long deleted = redisTemplate.delete(keys);
+                removed = Math.max(removed, deleted == null ? 0 : deleted.intValue());
+            }
+        } catch (Exception e) {
+            log.warn("Redis cache purge failed for prefix {}: {}", prefix, e.getMessage());
+        }
+        return removed;
+    }
+
+    @Override
+    public long size() {
+        return local.size();
+    }
+}
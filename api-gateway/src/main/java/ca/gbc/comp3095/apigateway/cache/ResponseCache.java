@@ -0,0 +1,291 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import ca.gbc.comp3095.apigateway.routes.ProxyHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP cache for idempotent GET routes in the gateway.
+ *  - Fresh entries are served without calling the upstream service
+ *  - Stale entries with an ETag are revalidated with If-None-Match (a 304 only refreshes the TTL)
+ *  - Concurrent misses for the same key are coalesced into ONE upstream fetch - its response is only handed to
+ *    the other callers if it could have been stored, anything else (private, no-store, Vary, errors) is fetched
+ *    again by each of them
+ *  - Cache-Control from the upstream decides whether and for how long we store
+ *  - Responses with a Vary header are neither stored nor shared: the key does not include request headers
+ *  - Bodies larger than max-entry-size are never held in memory: they are streamed through to the one caller
+ *    that asked, neither stored nor shared. A body without Content-Length is read up to the cap, and streamed
+ *    (what was read, then the rest) once it turns out to be larger
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheStore store;
+    private final RestClient restClient;
+    private final boolean enabled;
+    private final Duration defaultTtl;
+    private final Duration coalesceTimeout;
+    private final int maxEntrySize;
+
+    // One future per key that is currently being fetched from the upstream
+    private final ConcurrentHashMap<String, CompletableFuture<Fetched>> inFlight = new ConcurrentHashMap<>();
+
+    public ResponseCache(ResponseCacheStore store,
+                         RestClient.Builder restClientBuilder,
+                         @Value("${gateway.cache.enabled:true}") boolean enabled,
+                         @Value("${gateway.cache.default-ttl:30s}") Duration defaultTtl,
+                         @Value("${gateway.cache.coalesce-timeout:10s}") Duration coalesceTimeout,
+                         @Value("${gateway.cache.max-entry-size:1MB}") DataSize maxEntrySize) {
+        this.store = store;
+        this.restClient = restClientBuilder.build();
+        this.enabled = enabled;
+        this.defaultTtl = defaultTtl;
+        this.coalesceTimeout = coalesceTimeout;
+        this.maxEntrySize = Math.toIntExact(maxEntrySize.toBytes());
+    }
+
+    /**
+     * Only anonymous GETs are shared between users - a request with credentials (Authorization or a Cookie)
+     * may get an answer meant for that user alone. A client asking for no-store bypasses us entirely.
+     */
+    public boolean isCacheable(ServerRequest request) {
+        if (!enabled || request.method() != HttpMethod.GET) {
+            return false;
+        }
+        HttpHeaders headers = request.headers().asHttpHeaders();
+        return !headers.containsKey(HttpHeaders.AUTHORIZATION)
+                && !headers.containsKey(HttpHeaders.COOKIE)
+                && !CacheDirectives.of(headers).noStore();
+    }
+
+    public ServerResponse handle(String routeId, String baseUrl, ServerRequest request) throws Exception {
+
+        String key = key(routeId, request);
+        Instant now = Instant.now();
+        Optional<CachedResponse> cached = store.get(key);
+
+        // Client "Cache-Control: no-cache" / "max-age=0" forces a trip to the origin
+        CacheDirectives clientDirectives = CacheDirectives.of(request.headers().asHttpHeaders());
+        boolean clientWantsOrigin = clientDirectives.noCache() || Duration.ZERO.equals(clientDirectives.maxAge());
+
+        if (cached.isPresent() && cached.get().isFresh(now) && !clientWantsOrigin) {
+            return toServerResponse(cached.get(), request, "HIT", now);
+        }
+
+        Fetched fetched = fetchCoalesced(key, baseUrl, request, cached.orElse(null));
+        if (fetched.streamed() != null) {
+            return fetched.streamed();
+        }
+        return toServerResponse(fetched.response(), request, fetched.cacheStatus(), Instant.now());
+    }
+
+    public int purge(String prefix) {
+        int removed = store.removeByPrefix(prefix);
+        log.info("Purged {} cached responses with key prefix '{}'", removed, prefix);
+        return removed;
+    }
+
+    public static String key(String routeId, ServerRequest request) {
+        URI uri = request.uri();
+        String query = uri.getRawQuery();
+        return routeId + ":" + request.method().name() + ":" + uri.getRawPath() + (query == null ? "" : "?" + query);
+    }
+
+    private Fetched fetchCoalesced(String key, String baseUrl, ServerRequest request, CachedResponse stale) throws Exception {
+        CompletableFuture<Fetched> mine = new CompletableFuture<>();
+        CompletableFuture<Fetched> leader = inFlight.putIfAbsent(key, mine);
+
+        if (leader != null) {
+            // Someone else is already fetching this key - wait for their result instead of hitting the upstream
+            try {
+                Fetched shared = leader.get(coalesceTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (shared.shareable()) {
+                    return new Fetched(shared.response(), null, "COALESCED", true);
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+            // The leader's answer was for the leader only (e.g. Cache-Control: private, or streamed) - ask for our own
+            return fetch(key, baseUrl, request, stale);
+        }
+
+        try {
+            Fetched fetched = fetch(key, baseUrl, request, stale);
+            mine.complete(fetched);
+            return fetched;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Fetched fetch(String key, String baseUrl, ServerRequest request, CachedResponse stale) {
+        URI target = UriComponentsBuilder.fromUriString(baseUrl)
+                .path(request.uri().getRawPath())
+                .query(request.uri().getRawQuery())
+                .build(true)
+                .toUri();
+
+        return restClient.get()
+                .uri(target)
+                .headers(headers -> {
+                    copyRequestHeaders(request.headers().asHttpHeaders(), headers);
+                    if (stale != null && stale.etag() != null) {
+                        headers.setIfNoneMatch(stale.etag());
+                    }
+                })
+                // Not closed by the RestClient - a streamed body is still being read after exchange() returns
+                .exchange((clientRequest, clientResponse) -> {
+                    try {
+                        Fetched fetched = read(key, clientResponse, stale);
+                        if (fetched.streamed() == null) {
+                            clientResponse.close();
+                        }
+                        return fetched;
+                    } catch (IOException | RuntimeException e) {
+                        clientResponse.close();
+                        throw e;
+                    }
+                }, false);
+    }
+
+    private Fetched read(String key, ClientHttpResponse clientResponse, CachedResponse stale) throws IOException {
+        Instant now = Instant.now();
+        HttpHeaders upstreamHeaders = clientResponse.getHeaders();
+        CacheDirectives directives = CacheDirectives.of(upstreamHeaders);
+
+        if (clientResponse.getStatusCode().value() == 304 && stale != null) {
+            CachedResponse refreshed = stale.refreshed(now, now.plus(directives.ttl(defaultTtl)));
+            store.put(key, refreshed);
+            return new Fetched(refreshed, null, "REVALIDATED", true);
+        }
+
+        if (upstreamHeaders.getContentLength() > maxEntrySize) {
+            return new Fetched(null, streamed(clientResponse, clientResponse.getBody()), "MISS", false);
+        }
+        InputStream in = clientResponse.getBody();
+        byte[] body = in.readNBytes(maxEntrySize + 1);
+        if (body.length > maxEntrySize) {
+            // No Content-Length and larger than the cap - hand on what was read, then the rest as it arrives
+            InputStream whole = new SequenceInputStream(new ByteArrayInputStream(body), in);
+            return new Fetched(null, streamed(clientResponse, whole), "MISS", false);
+        }
+
+        String etag = upstreamHeaders.getETag();
+        Duration ttl = directives.ttl(defaultTtl);
+        CachedResponse response = new CachedResponse(
+                clientResponse.getStatusCode().value(),
+                copyResponseHeaders(upstreamHeaders),
+                body,
+                etag,
+                now,
+                now.plus(ttl),
+                directives.noCache());
+
+        boolean storable = response.status() == 200
+                && directives.isStorable()
+                && !upstreamHeaders.containsKey(HttpHeaders.VARY)
+                && (ttl.isPositive() || etag != null);
+        if (storable) {
+            store.put(key, response);
+        }
+        return new Fetched(response, null, "MISS", storable);
+    }
+
+    /**
+     * The upstream response as it arrives - the upstream connection is released once the body is copied.
+     */
+    private static ServerResponse streamed(ClientHttpResponse clientResponse, InputStream body) throws IOException {
+        HttpHeaders upstreamHeaders = clientResponse.getHeaders();
+        return ServerResponse.status(clientResponse.getStatusCode())
+                .headers(headers -> copyResponseHeaders(upstreamHeaders).forEach(headers::addAll))
+                .headers(headers -> {
+                    if (upstreamHeaders.getContentLength() >= 0) {
+                        headers.setContentLength(upstreamHeaders.getContentLength());
+                    }
+                })
+                .header(CACHE_STATUS_HEADER, "MISS")
+                .build((request, servletResponse) -> {
+                    try (clientResponse; body) {
+                        body.transferTo(servletResponse.getOutputStream());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                });
+    }
+
+    private ServerResponse toServerResponse(CachedResponse cached, ServerRequest request, String cacheStatus, Instant now) {
+        List<String> ifNoneMatch = request.headers().header(HttpHeaders.IF_NONE_MATCH);
+
+        if (cached.status() == 200 && cached.etag() != null && ifNoneMatch.contains(cached.etag())) {
+            return ServerResponse.status(304)
+                    .eTag(cached.etag())
+                    .header(CACHE_STATUS_HEADER, cacheStatus)
+                    .build();
+        }
+
+        ServerResponse.BodyBuilder builder = ServerResponse.status(cached.status())
+                .headers(headers -> cached.headers().forEach(headers::addAll))
+                .header(CACHE_STATUS_HEADER, cacheStatus)
+                .header(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(now)));
+
+        return cached.sizeInBytes() == 0 ? builder.build() : builder.body(cached.body());
+    }
+
+    private static void copyRequestHeaders(HttpHeaders from, HttpHeaders to) {
+        from.forEach((name, values) -> {
+            // Conditional headers belong to the individual client, the upstream fetch is shared
+            if (!ProxyHeaders.isHopByHop(name)
+                    && !name.equalsIgnoreCase(HttpHeaders.IF_NONE_MATCH)
+                    && !name.equalsIgnoreCase(HttpHeaders.IF_MODIFIED_SINCE)) {
+                to.addAll(name, values);
+            }
+        });
+    }
+
+    private static Map<String, List<String>> copyResponseHeaders(HttpHeaders from) {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        from.forEach((name, values) -> {
+            if (!ProxyHeaders.isHopByHop(name)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    // shareable: what a stored entry would be - the same answer is right for every caller of the key
+    // streamed: set instead of response when the body was too large to read into memory
+    private record Fetched(CachedResponse response, ServerResponse streamed, String cacheStatus, boolean shareable) { }
+}
@@ -0,0 +1,39 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@Slf4j
+public class ResponseCacheConfig {
+
+    /**
+     * The in-memory store is always there (L1). When gateway.cache.redis.enabled=true
+     * it is put in front of Redis so every gateway instance shares the same entries.
+     */
+    @Bean
+    public ResponseCacheStore responseCacheStore(
+            @Value("${gateway.cache.max-entries:1000}") int maxEntries,
+            @Value("${gateway.cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gateway.cache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${gateway.cache.redis.stale-retention:5m}") Duration staleRetention,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            ObjectMapper objectMapper) {
+
+        ResponseCacheStore local = new InMemoryResponseCacheStore(maxEntries, maxSize.toBytes());
+        if (!redisEnabled) {
+            log.info("Gateway response cache: in-memory store ({} entries / {})", maxEntries, maxSize);
+            return local;
+        }
+        log.info("Gateway response cache: in-memory store backed by Redis");
+        return new RedisResponseCacheStore(local, redisTemplate.getObject(), objectMapper, staleRetention);
+    }
+}
@@ -0,0 +1,21 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import java.util.Optional;
+
+/**
+ * Storage behind the gateway response cache.
+ * Keys are built as "{routeId}:{method}:{path}?{query}" so purging a route is a prefix purge.
+ */
+public interface ResponseCacheStore {
+
+    Optional<CachedResponse> get(String key);
+
+    void put(String key, CachedResponse response);
+
+    /**
+     * @return the number of entries removed
+     */
+    int removeByPrefix(String prefix);
+
+    long size();
+}
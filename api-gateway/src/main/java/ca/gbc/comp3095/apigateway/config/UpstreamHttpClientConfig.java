@@ -0,0 +1,29 @@
+package ca.gbc.comp3095.apigateway.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+
+@Configuration
+@Slf4j
+public class UpstreamHttpClientConfig {
+
+    /**
+     * Every upstream call made by the gateway goes through this builder:
+     * the gateway proxy (HandlerFunctions.http) and the RestClient used by the response cache.
+     * With HTTP_2 the JDK client talks h2c to the services and multiplexes concurrent
+     * requests over a handful of connections instead of one connection per in-flight request.
+     */
+    @Bean
+    public ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder(
+            @Value("${gateway.upstream.http-version:HTTP_2}") HttpClient.Version version) {
+
+        log.info("Gateway upstream transport: {}", version);
+        return ClientHttpRequestFactoryBuilder.jdk()
+                .withHttpClientCustomizer(builder -> builder.version(version));
+    }
+}
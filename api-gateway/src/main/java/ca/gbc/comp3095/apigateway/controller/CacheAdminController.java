@@ -0,0 +1,39 @@
+package ca.gbc.comp3095.apigateway.controller;
+
+import ca.gbc.comp3095.apigateway.cache.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/cache")
+@RequiredArgsConstructor
+// Unauthenticated and on the public port - off unless a deployment turns it on (gateway.cache.admin.enabled)
+@ConditionalOnProperty(name = "gateway.cache.admin.enabled", havingValue = "true")
+public class CacheAdminController {
+
+    private final ResponseCache responseCache;
+
+    /**
+     * Purge cached gateway responses.
+     *  DELETE /admin/cache?route=product_service        -> everything cached for that route
+     *  DELETE /admin/cache?prefix=product_service:GET:/api/product -> raw key prefix
+     * One of the two parameters is required so nobody wipes the cache by accident.
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> purge(@RequestParam(required = false) String route,
+                                                     @RequestParam(required = false) String prefix) {
+        if ((route == null || route.isBlank()) && (prefix == null || prefix.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Either 'route' or 'prefix' is required"));
+        }
+        String keyPrefix = (route != null && !route.isBlank()) ? route + ":" : prefix;
+        int removed = responseCache.purge(keyPrefix);
+        return ResponseEntity.ok(Map.of("prefix", keyPrefix, "removed", removed));
+    }
+}
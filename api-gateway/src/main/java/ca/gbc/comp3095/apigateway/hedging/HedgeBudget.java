@@ -0,0 +1,31 @@
+package ca.gbc.comp3095.apigateway.hedging;
+
+/**
+ * Token bucket that caps hedges to a fraction of the primary traffic.
+ * Every primary request deposits {@code ratio} tokens, every hedge spends one, so with
+ * ratio = 0.05 hedging can never add more than ~5% extra load on the upstream - even when
+ * the whole upstream is slow (which is exactly when hedging everything would hurt most).
+ */
+class HedgeBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    HedgeBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+    }
+
+    synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+}
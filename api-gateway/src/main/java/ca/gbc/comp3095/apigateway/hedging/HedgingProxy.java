@@ -0,0 +1,270 @@
+package ca.gbc.comp3095.apigateway.hedging;
+
+import ca.gbc.comp3095.apigateway.routes.ProxyHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedged requests for idempotent routes.
+ *  1. Send the request to one upstream instance (round robin)
+ *  2. If it has not answered within the route's recent pN latency, or it already failed (connection refused, 5xx),
+ *     send the SAME request to the next instance
+ *  3. Whichever answers first without a 5xx wins, the other exchange is cancelled
+ * A per-route {@link HedgeBudget} caps how much extra load hedging may add.
+ *
+ * Metrics (tagged by route):
+ *  gateway.hedge.requests  - requests eligible for hedging
+ *  gateway.hedge.sent      - hedges actually sent      (hedge rate = sent / requests)
+ *  gateway.hedge.wins      - hedges that answered before the primary
+ *  gateway.hedge.budget.exhausted - hedges skipped because the budget was empty
+ */
+@Component
+@Slf4j
+public class HedgingProxy {
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double quantile;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final double budgetRatio;
+    private final Duration requestTimeout;
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+
+    public HedgingProxy(MeterRegistry meterRegistry,
+                        ObjectProvider<Tracer> tracer,
+                        ObjectProvider<Propagator> propagator,
+                        @Value("${gateway.hedging.enabled:false}") boolean enabled,
+                        @Value("${gateway.hedging.delay-percentile:0.95}") double quantile,
+                        @Value("${gateway.hedging.min-delay:10ms}") Duration minDelay,
+                        @Value("${gateway.hedging.max-delay:500ms}") Duration maxDelay,
+                        @Value("${gateway.hedging.budget-ratio:0.05}") double budgetRatio,
+                        @Value("${gateway.hedging.request-timeout:10s}") Duration requestTimeout,
+                        @Value("${gateway.upstream.http-version:HTTP_2}") HttpClient.Version httpVersion) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.quantile = quantile;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.budgetRatio = budgetRatio;
+        this.requestTimeout = requestTimeout;
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+        this.httpClient = HttpClient.newBuilder()
+                .version(httpVersion)
+                .connectTimeout(Duration.ofSeconds(2))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Only safe, bodiless methods may be sent twice.
+     */
+    public boolean isHedgeable(ServerRequest request, List<String> upstreams) {
+        return enabled
+                && upstreams.size() > 1
+                && (request.method() == HttpMethod.GET || request.method() == HttpMethod.HEAD);
+    }
+
+    public ServerResponse handle(String routeId, List<String> upstreams, ServerRequest request) throws Exception {
+
+        RouteState route = routes.computeIfAbsent(routeId, RouteState::new);
+        route.requests.increment();
+        route.budget.onRequest();
+
+        int first = Math.floorMod(route.nextInstance.getAndIncrement(), upstreams.size());
+        long start = System.nanoTime();
+
+        CompletableFuture<HttpResponse<byte[]>> primary = send(upstreams.get(first), request);
+        primary.whenComplete((response, error) -> {
+            // A cancelled primary lost to a hedge - its elapsed time is still a (lower bound) sample of a slow call
+            if (error == null || error instanceof CancellationException) {
+                route.latency.record(System.nanoTime() - start);
+            }
+        });
+
+        try {
+            HttpResponse<byte[]> response = primary.get(hedgeDelay(route).toNanos(), TimeUnit.NANOSECONDS);
+            if (!isServerError(response)) {
+                return toServerResponse(response);
+            }
+            // fall through - a 5xx from the primary is a failed attempt, the other instance may do better
+        } catch (TimeoutException slow) {
+            // fall through - the primary is slower than usual, consider a hedge
+        } catch (ExecutionException failed) {
+            // fall through - e.g. connection refused: hedge right away instead of failing the request
+        }
+
+        if (!route.budget.tryAcquire()) {
+            route.budgetExhausted.increment();
+            return await(primary, null, route);
+        }
+
+        route.hedgesSent.increment();
+        String second = upstreams.get((first + 1) % upstreams.size());
+        log.debug("Hedging {} {} to {}", routeId, request.uri().getRawPath(), second);
+        CompletableFuture<HttpResponse<byte[]>> hedge = send(second, request);
+
+        return await(primary, hedge, route);
+    }
+
+    /**
+     * Waits for the first SUCCESSFUL answer (a failed instance should not beat a slow healthy one) and cancels
+     * whatever is still running - cancelling a JDK HttpClient future aborts the exchange.
+     * Failed = an exception or a 5xx. If every attempt failed, the client gets a 5xx one of them answered
+     * (the upstream's own error beats a gateway-made one), otherwise the primary's exception.
+     */
+    private ServerResponse await(CompletableFuture<HttpResponse<byte[]>> primary,
+                                 CompletableFuture<HttpResponse<byte[]>> hedge,
+                                 RouteState route) throws Exception {
+
+        CompletableFuture<HttpResponse<byte[]>> winner = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<byte[]>>> contenders = hedge == null ? List.of(primary) : List.of(primary, hedge);
+        AtomicBoolean decided = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<HttpResponse<byte[]>> serverError = new AtomicReference<>();
+
+        for (CompletableFuture<HttpResponse<byte[]>> candidate : contenders) {
+            candidate.whenComplete((response, error) -> {
+                if (error == null && !isServerError(response)) {
+                    // Counted before completing, so the metric is up to date when the request returns
+                    if (decided.compareAndSet(false, true)) {
+                        if (candidate == hedge) {
+                            route.hedgeWins.increment();
+                        }
+                        winner.complete(response);
+                    }
+                    return;
+                }
+                if (response != null) {
+                    serverError.compareAndSet(null, response);
+                }
+                if (failures.incrementAndGet() == contenders.size()) {
+                    HttpResponse<byte[]> answered = serverError.get();
+                    if (answered != null) {
+                        winner.complete(answered);
+                    } else {
+                        // both exceptions - report the primary's, it is the one the request would have got without hedging
+                        winner.completeExceptionally(primary.isCompletedExceptionally() ? primary.exceptionNow() : error);
+                    }
+                }
+            });
+        }
+
+        try {
+            return toServerResponse(winner.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private static boolean isServerError(HttpResponse<?> response) {
+        return response.statusCode() >= 500;
+    }
+
+    private Duration hedgeDelay(RouteState route) {
+        long percentile = route.latency.percentileNanos();
+        if (percentile < 0) {
+            return maxDelay; // not warmed up yet - be conservative
+        }
+        long clamped = Math.max(minDelay.toNanos(), Math.min(maxDelay.toNanos(), percentile));
+        return Duration.ofNanos(clamped);
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(String baseUrl, ServerRequest request) {
+        URI uri = request.uri();
+        String target = baseUrl + uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target))
+                .timeout(requestTimeout)
+                .method(request.method().name(), HttpRequest.BodyPublishers.noBody());
+        List<String> traceHeaders = propagator.fields();
+        request.headers().asHttpHeaders().forEach((name, values) -> {
+            // The inbound trace headers are replaced by this attempt's own span below
+            if (!ProxyHeaders.isHopByHop(name) && traceHeaders.stream().noneMatch(name::equalsIgnoreCase)) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+
+        // Raw JDK client, not an observed RestClient - one client span per attempt, so primary and hedge show up side by side
+        Span span = tracer.nextSpan().name("hedged " + request.method().name()).tag("upstream", baseUrl).start();
+        propagator.inject(span.context(), builder, HttpRequest.Builder::header);
+
+        // Return the client's own future - cancelling it is what aborts the losing exchange
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        exchange.whenComplete((response, error) -> {
+            if (error instanceof CancellationException) {
+                span.tag("cancelled", "true"); // lost the race - not a failure
+            } else if (error != null) {
+                span.error(error);
+            } else {
+                span.tag("http.status_code", String.valueOf(response.statusCode()));
+            }
+            span.end();
+        });
+        return exchange;
+    }
+
+    private static ServerResponse toServerResponse(HttpResponse<byte[]> response) {
+        ServerResponse.BodyBuilder builder = ServerResponse.status(response.statusCode())
+                .headers(headers -> response.headers().map().forEach((name, values) -> {
+                    if (!ProxyHeaders.isHopByHop(name) && !name.startsWith(":")) {
+                        headers.addAll(name, values);
+                    }
+                }));
+        byte[] body = response.body();
+        return body == null || body.length == 0 ? builder.build() : builder.body(body);
+    }
+
+    private final class RouteState {
+        private final LatencyTracker latency = new LatencyTracker(1024, quantile);
+        private final HedgeBudget budget = new HedgeBudget(budgetRatio, 10);
+        private final AtomicInteger nextInstance = new AtomicInteger();
+        private final Counter requests;
+        private final Counter hedgesSent;
+        private final Counter hedgeWins;
+        private final Counter budgetExhausted;
+
+        private RouteState(String routeId) {
+            this.requests = meterRegistry.counter("gateway.hedge.requests", "route", routeId);
+            this.hedgesSent = meterRegistry.counter("gateway.hedge.sent", "route", routeId);
+            this.hedgeWins = meterRegistry.counter("gateway.hedge.wins", "route", routeId);
+            this.budgetExhausted = meterRegistry.counter("gateway.hedge.budget.exhausted", "route", routeId);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ca.gbc.comp3095.apigateway.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window of the most recent primary-request latencies for one route.
+ * The percentile is recomputed every {@link #RECOMPUTE_EVERY} samples, so reading it on the
+ * request path is a single volatile read.
+ */
+class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final int MIN_SAMPLES = 32;
+
+    private final long[] samples;
+    private final double quantile;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(int windowSize, double quantile) {
+        this.samples = new long[windowSize];
+        this.quantile = quantile;
+    }
+
+    void record(long latencyNanos) {
+        long n = count.getAndIncrement();
+        // Lost or torn updates between threads only blur the window a little - acceptable for an estimate
+        samples[(int) (n % samples.length)] = latencyNanos;
+        if (n >= MIN_SAMPLES && n % RECOMPUTE_EVERY == 0) {
+            recompute(n + 1);
+        }
+    }
+
+    /**
+     * @return the configured latency percentile in nanos, or -1 while there is not enough data yet
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(long seen) {
+        int size = (int) Math.min(seen, samples.length);
+        long[] copy = Arrays.copyOf(samples, size);
+        Arrays.sort(copy);
+        int index = (int) Math.min(size - 1, Math.ceil(quantile * size) - 1);
+        percentileNanos = copy[Math.max(0, index)];
+    }
+}
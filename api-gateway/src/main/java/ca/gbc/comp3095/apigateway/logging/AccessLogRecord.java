@@ -0,0 +1,76 @@
+package ca.gbc.comp3095.apigateway.logging;
+
+import java.time.Instant;
+
+/**
+ * One line of the gateway access log - everything we need to investigate a request
+ * without logging on the request thread.
+ */
+public record AccessLogRecord(
+        Instant timestamp,
+        String routeId,
+        String method,
+        String path,
+        String upstream,
+        int status,
+        long latencyMicros,
+        long bytesIn,
+        long bytesOut,
+        Throwable error) {
+
+    public boolean isError() {
+        return error != null || status >= 500;
+    }
+
+    /**
+     * key=value format so the line is both greppable and easy to parse by log shippers.
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder(192)
+                .append("ts=").append(timestamp)
+                .append(" route=").append(routeId)
+                .append(" method=").append(method)
+                .append(" path=").append(path)
+                .append(" upstream=").append(upstream)
+                .append(" status=").append(status)
+                .append(" latency_ms=").append(latencyMicros / 1000).append('.').append(String.format("%03d", latencyMicros % 1000))
+                .append(" bytes_in=").append(bytesIn)
+                .append(" bytes_out=").append(bytesOut);
+        if (error != null) {
+            sb.append(" error=").append(error.getClass().getName())
+              .append(" error_message=");
+            quote(sb, error.getMessage());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The message is free text - quoted, with quotes, backslashes and control characters escaped,
+     * so one record is always one line and error_message always ends at its closing quote.
+     */
+    static void quote(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == 0x7f) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,133 @@
+package ca.gbc.comp3095.apigateway.logging;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous access log for the gateway hot path.
+ *  - Request threads only do a non-blocking offer() into a bounded ring buffer
+ *  - A single background thread drains the buffer in batches and does the actual log I/O
+ *  - When the buffer is full the record is DROPPED (and counted) - request threads never wait on logging
+ *  - Successful requests are sampled, errors are always kept
+ */
+@Component
+@Slf4j
+public class AccessLogger {
+
+    // Separate logger name so the access log can be routed/levelled independently of application logs
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final int BATCH_SIZE = 256;
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final BlockingQueue<AccessLogRecord> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final Consumer<AccessLogRecord> sink;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AccessLogger(@Value("${gateway.access-log.enabled:true}") boolean enabled,
+                        @Value("${gateway.access-log.sample-rate:1.0}") double sampleRate,
+                        @Value("${gateway.access-log.buffer-size:8192}") int bufferSize) {
+        this(enabled, sampleRate, bufferSize, AccessLogger::write);
+    }
+
+    // sink = what the writer thread does with each record (tests capture them instead of logging)
+    AccessLogger(boolean enabled, double sampleRate, int bufferSize, Consumer<AccessLogRecord> sink) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sink = sink;
+        this.writer = Thread.ofPlatform().name("access-log-writer").daemon(true).unstarted(this::drain);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public void log(AccessLogRecord record) {
+        if (!enabled) {
+            return;
+        }
+        if (!record.isError() && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.incrementAndGet();
+            return;
+        }
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long sampledOutCount() {
+        return sampledOut.get();
+    }
+
+    private void drain() {
+        List<AccessLogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        long reportedDrops = 0;
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                AccessLogRecord first = buffer.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                for (AccessLogRecord record : batch) {
+                    sink.accept(record);
+                }
+                batch.clear();
+
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    log.warn("Access log buffer full - {} records dropped so far", drops);
+                    reportedDrops = drops;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // A broken appender must not kill the writer thread
+                log.error("Failed to write access log batch", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private static void write(AccessLogRecord record) {
+        if (record.error() != null) {
+            // Keep the full stack trace for failures - this is what the old catch block threw away
+            ACCESS_LOG.warn(record.format(), record.error());
+        } else if (record.isError()) {
+            ACCESS_LOG.warn(record.format());
+        } else {
+            ACCESS_LOG.info(record.format());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(2)); // flush what is left, but do not hold shutdown hostage
+    }
+}
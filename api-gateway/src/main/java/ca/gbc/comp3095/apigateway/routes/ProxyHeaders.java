@@ -0,0 +1,22 @@
+package ca.gbc.comp3095.apigateway.routes;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Header rules shared by every handler that talks to an upstream itself (cache, hedging, streaming).
+ */
+public final class ProxyHeaders {
+
+    // Connection-level headers must never be replayed from the cache or forwarded upstream
+    private static final Set<String> HOP_BY_HOP = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authorization", "proxy-authenticate", "content-length", "host", "expect");
+
+    private ProxyHeaders() {
+    }
+
+    public static boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+}
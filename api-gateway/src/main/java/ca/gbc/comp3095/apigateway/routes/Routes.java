@@ -1,19 +1,58 @@
 package ca.gbc.comp3095.apigateway.routes;
 
+import ca.gbc.comp3095.apigateway.cache.ResponseCache;
+import ca.gbc.comp3095.apigateway.hedging.HedgingProxy;
+import ca.gbc.comp3095.apigateway.logging.AccessLogRecord;
+import ca.gbc.comp3095.apigateway.logging.AccessLogger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.server.mvc.handler.GatewayRouterFunctions;
 import org.springframework.cloud.gateway.server.mvc.handler.HandlerFunctions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.function.HandlerFunction;
 import org.springframework.web.servlet.function.RequestPredicates;
 import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerRequest;
 import org.springframework.web.servlet.function.ServerResponse;
 
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration // Life Cycle is managed by our springboot container
 @Slf4j // Wrapper for our logging
+@RequiredArgsConstructor
 public class Routes {
 
+    // Key prefix of every cached product GET - listings and single products (see ResponseCache.key)
+    private static final String PRODUCT_READS = "product_service:GET:/api/product";
+
+    // Shared HTTP cache for idempotent GETs (see ca.gbc.comp3095.apigateway.cache)
+    private final ResponseCache responseCache;
+
+    // Structured, sampled, non-blocking access log (replaces per-request INFO logging)
+    private final AccessLogger accessLogger;
+
+    // Sends a second copy of slow idempotent requests to another instance (tail-latency reduction)
+    private final HedgingProxy hedgingProxy;
+
+    // Pass-through proxy that streams bodies instead of buffering them (large listings, bulk uploads)
+    private final StreamingProxy streamingProxy;
+
+    // gateway.upstream.requests - time per routed request, by route/method/status class/cache outcome
+    private final MeterRegistry meterRegistry;
+
     // These are coming from the application.properties file
     // Want to be able to change the property, have that picked up
     // Instead of changing the source code, because then you need to rebuild
@@ -26,9 +65,13 @@ public class Routes {
     @Value("${service.order-url}")
     private String orderServiceUrl;
 
+    // All product-service instances a GET may be hedged across (defaults to the single product-url)
+    @Value("${service.product-urls:${service.product-url}}")
+    private List<String> productServiceUrls;
+
     /**
      * Defines the routing configuration for product-service
-     * Routes request with the path "/api/product" to the product URL (service.product-url)
+     * Routes requests under the path "/api/product" to the product URL (service.product-url)
      * @return RouterFunction that handles the product service request
      */
     @Bean // Bean annotation alos comes from spring boot
@@ -38,19 +81,11 @@ public class Routes {
 
         return GatewayRouterFunctions.route("product_service")
                 .route(
-                        RequestPredicates.path("/api/product"),
-                        request -> {
-                            log.info("Received a request for product-service: {}", request.uri()); // Want to log all incoming requests, for security, this is the first step of investigation
-                            try{
-                                ServerResponse response =
-                                        HandlerFunctions.http(productServiceUrl).handle(request);
-                                log.info("Response status {}: ", response.statusCode());
-                                return response;
-                            }catch(Exception e){
-                                log.error("Error occurred while routing received");
-                                return ServerResponse.status(500).body("An error occurred while routing received");
-                            }
-                        }
+                        // "/**" also matches "/api/product" itself, plus the /api/product/{productId} reads and writes
+                        RequestPredicates.path("/api/product/**"),
+                        // Every request is still recorded (for security, this is the first step of investigation),
+                        // but through the async access log instead of a synchronous INFO line per request/response
+                        request -> proxy("product_service", productServiceUrl, request, productHandler(request))
                 ).build();
     }
 
@@ -60,19 +95,115 @@ public class Routes {
 
         return GatewayRouterFunctions.route("order_service")
                 .route(
-                        RequestPredicates.path("/api/order"),
-                        request -> {
-                            log.info("Received a request for order-service: {}", request.uri());
-                            try{
-                                ServerResponse response = HandlerFunctions.http(orderServiceUrl).handle(request);
-                                log.info("Response status {}:", response.statusCode());
-                                return response;
-                            }catch(Exception e){
-                                log.error("Error occurred while routing received: {}", e.getMessage());
-                                return ServerResponse.status(500).body("An error occurred while routing received");
-                            }
-                        }).build();
+                        // "/**" also matches "/api/order" itself, plus the /api/order/{orderNumber} lookups
+                        RequestPredicates.path("/api/order/**"),
+                        request -> proxy("order_service", orderServiceUrl, request, passThrough(orderServiceUrl))
+                ).build();
+    }
+
+    /**
+     * Product listings and single products are the same for every user - serve them from the gateway cache when we can
+     * (keyed by path and query, so every id has its own entry).
+     * Requests that bypass the cache may still be hedged across product-service instances.
+     * A successful write (POST/PUT/DELETE) drops every cached product GET - a changed product also changes the listings.
+     */
+    private HandlerFunction<ServerResponse> productHandler(ServerRequest request) {
+        if (responseCache.isCacheable(request)) {
+            return req -> responseCache.handle("product_service", productServiceUrl, req);
+        }
+        if (hedgingProxy.isHedgeable(request, productServiceUrls)) {
+            return req -> hedgingProxy.handle("product_service", productServiceUrls, req);
+        }
+        if (isWrite(request)) {
+            HandlerFunction<ServerResponse> write = passThrough(productServiceUrl);
+            return req -> {
+                ServerResponse response = write.handle(req);
+                if (response.statusCode().is2xxSuccessful()) {
+                    responseCache.purge(PRODUCT_READS);
+                }
+                return response;
+            };
+        }
+        return passThrough(productServiceUrl);
+    }
+
+    private static boolean isWrite(ServerRequest request) {
+        HttpMethod method = request.method();
+        return method == HttpMethod.POST || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+    }
+
+    /**
+     * Everything else is proxied as is - streamed (gateway.streaming.enabled) or through the gateway's default proxy.
+     */
+    private HandlerFunction<ServerResponse> passThrough(String upstreamUrl) {
+        if (streamingProxy.isEnabled()) {
+            return req -> streamingProxy.handle(upstreamUrl, req);
+        }
+        return HandlerFunctions.http(upstreamUrl);
+    }
+
+    /**
+     * Runs the upstream call and hands one access-log record per request to the async logger.
+     * For a streamed response the time recorded is the time to the response headers - the body is written after.
+     * Failures keep their real cause (logged with stack trace) and map to a meaningful status
+     * instead of a generic 500.
+     */
+    private ServerResponse proxy(String routeId, String upstreamUrl, ServerRequest request,
+                                 HandlerFunction<ServerResponse> handler) {
+        long start = System.nanoTime();
+        int status = 500;
+        long bytesOut = -1;
+        String cacheStatus = "NONE";
+        Throwable error = null;
+        try {
+            ServerResponse response = handler.handle(request);
+            status = response.statusCode().value();
+            bytesOut = response.headers().getContentLength();
+            String xCache = response.headers().getFirst(ResponseCache.CACHE_STATUS_HEADER);
+            if (xCache != null) {
+                cacheStatus = xCache;
+            }
+            return response;
+        } catch (Exception e) {
+            error = e;
+            HttpStatus errorStatus = errorStatus(e);
+            status = errorStatus.value();
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(errorStatus,
+                    "Error routing request to " + routeId + ": " + e.getClass().getSimpleName());
+            return ServerResponse.status(status).contentType(MediaType.APPLICATION_PROBLEM_JSON).body(problem);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            // Every tag has a small fixed set of values - never the path, which would explode the series count
+            Timer.builder("gateway.upstream.requests")
+                    .tag("route", routeId)
+                    .tag("method", request.method().name())
+                    .tag("status", (status / 100) + "xx")
+                    .tag("cache", cacheStatus)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            accessLogger.log(new AccessLogRecord(
+                    Instant.now(),
+                    routeId,
+                    request.method().name(),
+                    request.uri().getRawPath(),
+                    upstreamUrl,
+                    status,
+                    elapsed / 1_000,
+                    Math.max(0, request.headers().asHttpHeaders().getContentLength()),
+                    Math.max(0, bytesOut),
+                    error));
+        }
     }
 
+    private static HttpStatus errorStatus(Exception e) {
+        if (e instanceof ResourceAccessException) {
+            Throwable cause = e.getCause();
+            boolean timedOut = cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException;
+            // Upstream unreachable or too slow - the gateway itself is fine
+            return timedOut ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
 
 }
@@ -0,0 +1,183 @@
+package ca.gbc.comp3095.apigateway.routes;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Pass-through proxy that never holds a whole body in gateway memory.
+ *  - Request body: read from the servlet input stream as the upstream connection asks for more (the JDK client
+ *    pulls one buffer at a time), forwarded with its Content-Length, or chunked when its length is not known
+ *  - Response body: copied from the upstream in buffer-size pieces straight into the servlet output stream.
+ *    Blocking on either side is the backpressure - a slow client stops the reads from the upstream
+ *  - No upstream Content-Length -> none towards the client either, Tomcat sends the body chunked, and every
+ *    piece is flushed as soon as the upstream has nothing more buffered, so streamed responses stay streamed
+ * Memory per in-flight request is one copy buffer plus the client's own fixed-size buffers, whatever the size.
+ *
+ * Used for everything that is not served by the response cache or hedging (hedging needs the whole body, the
+ * cache only streams the bodies it is not allowed to hold, see gateway.cache.max-entry-size).
+ * Errors before the response starts surface as ResourceAccessException, which Routes maps to 502/504;
+ * after that the status is already sent and a failure can only abort the connection.
+ */
+@Component
+@Slf4j
+public class StreamingProxy {
+
+    private final HttpClient httpClient;
+    private final boolean enabled;
+    private final int bufferSize;
+    private final Duration responseTimeout;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public StreamingProxy(ObjectProvider<Tracer> tracer,
+                          ObjectProvider<Propagator> propagator,
+                          @Value("${gateway.streaming.enabled:true}") boolean enabled,
+                          @Value("${gateway.streaming.buffer-size:16KB}") DataSize bufferSize,
+                          @Value("${gateway.streaming.response-timeout:30s}") Duration responseTimeout,
+                          @Value("${gateway.upstream.http-version:HTTP_2}") HttpClient.Version httpVersion) {
+        this.enabled = enabled;
+        this.bufferSize = (int) bufferSize.toBytes();
+        this.responseTimeout = responseTimeout;
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+        this.httpClient = HttpClient.newBuilder()
+                .version(httpVersion)
+                .connectTimeout(Duration.ofSeconds(2))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ServerResponse handle(String baseUrl, ServerRequest request) {
+        URI uri = request.uri();
+        URI target = URI.create(baseUrl + uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery()));
+        HttpServletRequest servletRequest = request.servletRequest();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(responseTimeout) // until the response headers arrive - a long body may take as long as it needs
+                .method(request.method().name(), requestBody(request, servletRequest));
+        List<String> traceHeaders = propagator.fields();
+        request.headers().asHttpHeaders().forEach((name, values) -> {
+            if (!ProxyHeaders.isHopByHop(name) && traceHeaders.stream().noneMatch(name::equalsIgnoreCase)) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        forwardedHeaders(request, servletRequest, builder);
+
+        Span span = tracer.nextSpan().name("proxy " + request.method().name()).tag("upstream", baseUrl).start();
+        propagator.inject(span.context(), builder, HttpRequest.Builder::header);
+
+        HttpResponse<InputStream> upstream;
+        try {
+            upstream = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            span.error(e).end();
+            throw new ResourceAccessException("I/O error on " + request.method().name() + " " + target + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            span.error(e).end();
+            throw new ResourceAccessException("Interrupted while proxying to " + target);
+        }
+        span.tag("status", String.valueOf(upstream.statusCode()));
+
+        return ServerResponse.status(upstream.statusCode())
+                .headers(headers -> upstream.headers().map().forEach((name, values) -> {
+                    // ":status" is the HTTP/2 pseudo header
+                    if (!ProxyHeaders.isHopByHop(name) && !name.startsWith(":")) {
+                        headers.addAll(name, values);
+                    }
+                }))
+                .headers(headers -> upstream.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH)
+                        .ifPresent(headers::setContentLength))
+                .build((req, servletResponse) -> {
+                    try (InputStream body = upstream.body()) {
+                        copy(body, servletResponse.getOutputStream());
+                    } catch (IOException e) {
+                        // Client went away or upstream broke mid-body - closing the body above aborts the upstream exchange
+                        span.error(e);
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        span.end();
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * A body of unknown length is not always announced: over HTTP/2 a streamed upload has neither Content-Length
+     * nor Transfer-Encoding, only DATA frames. So without a length, any method that may carry a body is streamed.
+     */
+    private HttpRequest.BodyPublisher requestBody(ServerRequest request, HttpServletRequest servletRequest) {
+        long contentLength = servletRequest.getContentLengthLong();
+        boolean chunked = contentLength < 0 && (request.headers().firstHeader(HttpHeaders.TRANSFER_ENCODING) != null
+                || mayHaveBody(request.method()));
+        if (contentLength <= 0 && !chunked) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return servletRequest.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Known length -> Content-Length upstream; otherwise chunked (DATA frames on HTTP/2)
+        return chunked ? stream : HttpRequest.BodyPublishers.fromPublisher(stream, contentLength);
+    }
+
+    private static boolean mayHaveBody(HttpMethod method) {
+        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
+    }
+
+    // What the gateway's default proxy (HandlerFunctions.http) tells the services about the original request
+    private static void forwardedHeaders(ServerRequest request, HttpServletRequest servletRequest, HttpRequest.Builder builder) {
+        String forwardedFor = request.headers().firstHeader("X-Forwarded-For");
+        builder.setHeader("X-Forwarded-For", forwardedFor == null
+                ? servletRequest.getRemoteAddr()
+                : forwardedFor + ", " + servletRequest.getRemoteAddr());
+        builder.setHeader("X-Forwarded-Proto", servletRequest.getScheme());
+        String host = request.headers().firstHeader(HttpHeaders.HOST);
+        if (host != null) {
+            builder.setHeader("X-Forwarded-Host", host);
+        }
+        builder.setHeader("X-Forwarded-Port", String.valueOf(servletRequest.getServerPort()));
+    }
+
+    private void copy(InputStream from, ServletOutputStream to) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = from.read(buffer)) != -1) {
+            to.write(buffer, 0, read);
+            if (from.available() == 0) {
+                to.flush(); // nothing else is waiting - send what we have instead of letting it sit in our buffers
+            }
+        }
+        to.flush();
+    }
+}
@@ -0,0 +1,69 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the gateway cache building blocks - no Spring context or containers needed.
+ */
+class ResponseCacheStoreTests {
+
+    private static CachedResponse response(int bodySize) {
+        Instant now = Instant.now();
+        return new CachedResponse(200, Map.of(), new byte[bodySize], null, now, now.plusSeconds(30), false);
+    }
+
+    @Test
+    void inMemoryStore_evictsLeastRecentlyUsed_whenEntryLimitIsReached() {
+        var store = new InMemoryResponseCacheStore(2, 1024);
+        store.put("a", response(10));
+        store.put("b", response(10));
+        store.get("a");                 // "b" is now the least recently used
+        store.put("c", response(10));
+
+        assertTrue(store.get("a").isPresent());
+        assertFalse(store.get("b").isPresent());
+        assertTrue(store.get("c").isPresent());
+    }
+
+    @Test
+    void inMemoryStore_respectsByteLimit() {
+        var store = new InMemoryResponseCacheStore(100, 100);
+        store.put("a", response(60));
+        store.put("b", response(60));
+
+        assertEquals(1, store.size());
+        assertTrue(store.get("b").isPresent());
+    }
+
+    @Test
+    void inMemoryStore_removesByPrefix() {
+        var store = new InMemoryResponseCacheStore(100, 1024);
+        store.put("product_service:GET:/api/product", response(1));
+        store.put("product_service:GET:/api/product?page=2", response(1));
+        store.put("order_service:GET:/api/order", response(1));
+
+        assertEquals(2, store.removeByPrefix("product_service:"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void cacheDirectives_sharedMaxAgeWinsOverMaxAge() {
+        var directives = CacheDirectives.parse("public, max-age=10, s-maxage=120");
+
+        assertTrue(directives.isStorable());
+        assertEquals(Duration.ofSeconds(120), directives.ttl(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void cacheDirectives_privateAndNoStoreAreNotStorable() {
+        assertFalse(CacheDirectives.parse("private, max-age=60").isStorable());
+        assertFalse(CacheDirectives.parse("no-store").isStorable());
+        assertEquals(Duration.ofSeconds(30), CacheDirectives.parse(null).ttl(Duration.ofSeconds(30)));
+    }
+}
@@ -0,0 +1,276 @@
+package ca.gbc.comp3095.apigateway.cache;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.function.EntityResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ResponseCache.handle against a JDK HttpServer whose headers each test controls.
+ * No Spring context - the cache is built directly on an in-memory store.
+ * The upstream answers with the number of the request it is serving, so every fetch has a body of its own.
+ * Entries are capped at 1KB, so a "large" body is one of a few KB.
+ */
+class ResponseCacheTests {
+
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+
+    // Set by each test before the first request
+    private volatile Handler handler;
+
+    private final ResponseCache cache = new ResponseCache(new InMemoryResponseCacheStore(100, 1024 * 1024),
+            RestClient.builder(), true, Duration.ofSeconds(30), Duration.ofSeconds(10), DataSize.ofKilobytes(1));
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            int hit = hits.incrementAndGet();
+            String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (condition != null) {
+                ifNoneMatch.add(condition);
+            }
+            try (exchange) {
+                handler.handle(exchange, hit);
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void secondRequestIsAHit() throws Exception {
+        handler = (exchange, hit) -> respond(exchange, 200, "listing " + hit, "Cache-Control", "max-age=60");
+
+        ServerResponse first = cache.handle("product_service", url, get());
+        ServerResponse second = cache.handle("product_service", url, get());
+
+        assertEquals("MISS", status(first));
+        assertEquals("HIT", status(second));
+        assertEquals("listing 1", body(second));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void staleEntryWithETagIsRevalidated() throws Exception {
+        handler = (exchange, hit) -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            respond(exchange, 200, "listing " + hit, "ETag", "\"v1\"", "Cache-Control", "max-age=0");
+        };
+
+        cache.handle("product_service", url, get());
+        ServerResponse revalidated = cache.handle("product_service", url, get());
+
+        assertEquals("REVALIDATED", status(revalidated));
+        assertEquals(200, revalidated.statusCode().value());
+        assertEquals("listing 1", body(revalidated));
+        assertEquals(List.of("\"v1\""), ifNoneMatch);
+    }
+
+    @Test
+    void noStorePrivateAndVaryResponsesAreNotStored() throws Exception {
+        List<String[]> cases = List.of(
+                new String[] {"Cache-Control", "no-store"},
+                new String[] {"Cache-Control", "private, max-age=60"},
+                new String[] {"Cache-Control", "max-age=60", "Vary", "Accept-Language"});
+        for (int i = 0; i < cases.size(); i++) {
+            String[] headers = cases.get(i);
+            String description = String.join(" ", headers);
+            hits.set(0);
+            handler = (exchange, hit) -> respond(exchange, 200, "listing " + hit, headers);
+
+            ServerResponse first = cache.handle("product_service", url, get("/api/product/case-" + i));
+            ServerResponse second = cache.handle("product_service", url, get("/api/product/case-" + i));
+
+            assertEquals("MISS", status(second), description);
+            assertNotEquals(body(first), body(second), description);
+            assertEquals(2, hits.get(), description);
+        }
+    }
+
+    @Test
+    void requestsWithCredentialsAreNotCacheable() {
+        MockHttpServletRequest cookie = new MockHttpServletRequest("GET", "/api/product");
+        cookie.addHeader("Cookie", "session=abc");
+        MockHttpServletRequest authorization = new MockHttpServletRequest("GET", "/api/product");
+        authorization.addHeader("Authorization", "Bearer abc");
+
+        assertTrue(cache.isCacheable(get()));
+        assertFalse(cache.isCacheable(ServerRequest.create(cookie, List.of())));
+        assertFalse(cache.isCacheable(ServerRequest.create(authorization, List.of())));
+    }
+
+    @Test
+    void concurrentMissesAreCoalescedIntoOneFetch() throws Exception {
+        handler = (exchange, hit) -> {
+            sleep(500);
+            respond(exchange, 200, "listing " + hit, "Cache-Control", "max-age=60");
+        };
+
+        List<ServerResponse> responses = concurrently(4);
+
+        assertEquals(1, hits.get());
+        assertEquals(1, responses.stream().filter(response -> "MISS".equals(status(response))).count());
+        assertEquals(3, responses.stream().filter(response -> "COALESCED".equals(status(response))).count());
+        for (ServerResponse response : responses) {
+            assertEquals("listing 1", body(response));
+        }
+    }
+
+    @Test
+    void privateResponseIsNotHandedToCoalescedCallers() throws Exception {
+        handler = (exchange, hit) -> {
+            sleep(500);
+            respond(exchange, 200, "for caller " + hit, "Cache-Control", "private");
+        };
+
+        List<ServerResponse> responses = concurrently(4);
+
+        // Every caller got an answer of its own
+        assertEquals(4, hits.get());
+        assertEquals(4, new HashSet<>(responses.stream().map(ResponseCacheTests::body).toList()).size());
+        assertTrue(responses.stream().noneMatch(response -> "COALESCED".equals(status(response))));
+    }
+
+    @Test
+    void largeResponsesAreStreamedNotStored() throws Exception {
+        // Cacheable by their headers - only the size keeps them out, with and without a Content-Length
+        for (boolean chunked : List.of(false, true)) {
+            hits.set(0);
+            handler = (exchange, hit) -> {
+                String body = ("listing " + hit + " ").repeat(500);
+                if (chunked) {
+                    respondChunked(exchange, body, "Cache-Control", "max-age=60");
+                } else {
+                    respond(exchange, 200, body, "Cache-Control", "max-age=60");
+                }
+            };
+            String path = "/api/product/large-" + chunked;
+
+            ServerResponse first = cache.handle("product_service", url, get(path));
+            ServerResponse second = cache.handle("product_service", url, get(path));
+
+            assertFalse(first instanceof EntityResponse<?>, "chunked " + chunked);
+            assertEquals("MISS", status(second), "chunked " + chunked);
+            assertEquals(("listing 1 ").repeat(500), written(first), "chunked " + chunked);
+            assertEquals(("listing 2 ").repeat(500), written(second), "chunked " + chunked);
+            assertEquals(2, hits.get(), "chunked " + chunked);
+        }
+    }
+
+    @Test
+    void smallResponseWithoutContentLengthIsStored() throws Exception {
+        handler = (exchange, hit) -> respondChunked(exchange, "listing " + hit, "Cache-Control", "max-age=60");
+
+        cache.handle("product_service", url, get());
+        ServerResponse second = cache.handle("product_service", url, get());
+
+        assertEquals("HIT", status(second));
+        assertEquals("listing 1", body(second));
+    }
+
+    // --- helpers ---
+
+    private List<ServerResponse> concurrently(int callers) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ServerResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> cache.handle("product_service", url, get())));
+            }
+            List<ServerResponse> responses = new ArrayList<>();
+            for (Future<ServerResponse> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        }
+    }
+
+    private static ServerRequest get() {
+        return get("/api/product");
+    }
+
+    private static ServerRequest get(String path) {
+        return ServerRequest.create(new MockHttpServletRequest("GET", path), List.of());
+    }
+
+    private static String status(ServerResponse response) {
+        return response.headers().getFirst(ResponseCache.CACHE_STATUS_HEADER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String body(ServerResponse response) {
+        return new String(((EntityResponse<byte[]>) response).entity(), StandardCharsets.UTF_8);
+    }
+
+    private static String written(ServerResponse response) throws Exception {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        response.writeTo(new MockHttpServletRequest(), servletResponse, () -> List.of());
+        return servletResponse.getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, int hit) throws IOException;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, String... headers) throws IOException {
+        for (int i = 0; i < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // No Content-Length - the JDK server sends the body chunked
+    private static void respondChunked(HttpExchange exchange, String body, String... headers) throws IOException {
+        for (int i = 0; i < headers.length; i += 2) {
+            exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+        }
+        exchange.sendResponseHeaders(200, 0);
+        exchange.getResponseBody().write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
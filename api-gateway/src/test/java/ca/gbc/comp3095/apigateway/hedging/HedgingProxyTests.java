@@ -0,0 +1,246 @@
+package ca.gbc.comp3095.apigateway.hedging;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.EntityResponse;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HedgingProxy against two JDK HttpServer "instances" whose speed and answers each test controls.
+ * No Spring context - the proxy is built directly, with a hedge delay of 100ms (there is no latency history yet,
+ * so the max-delay applies) and a budget that allows a hedge from the first request unless a test says otherwise.
+ */
+class HedgingProxyTests {
+
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(100);
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void fastPrimary_isAnsweredWithoutHedge() throws Exception {
+        Upstream primary = upstream(exchange -> respond(exchange, 200, "primary"));
+        Upstream other = upstream(exchange -> respond(exchange, 200, "hedge"));
+
+        // A generous delay - the first request of a cold JVM can take longer than HEDGE_DELAY
+        ServerResponse response = proxy(1.0, Duration.ofSeconds(5))
+                .handle("product_service", List.of(primary.url, other.url), get());
+
+        assertEquals("primary", body(response));
+        assertEquals(0, other.hits.get());
+        assertEquals(0.0, count("gateway.hedge.sent"));
+    }
+
+    @Test
+    void slowPrimary_isHedgedAfterTheDelay_andTheLosingExchangeIsCancelled() throws Exception {
+        CountDownLatch aborted = new CountDownLatch(1);
+        // Headers right away, then one byte every 20ms for 10s - only a cancelled exchange stops it early
+        Upstream primary = upstream(exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 500; i++) {
+                    out.write('x');
+                    out.flush();
+                    sleep(20);
+                }
+            } catch (IOException e) {
+                aborted.countDown(); // the gateway closed the connection
+            }
+        });
+        Upstream other = upstream(exchange -> respond(exchange, 200, "hedge"));
+
+        long start = System.nanoTime();
+        ServerResponse response = proxy(1.0).handle("product_service", List.of(primary.url, other.url), get());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("hedge", body(response));
+        assertTrue(elapsedMillis >= HEDGE_DELAY.toMillis() && elapsedMillis < 2_000, "answered after " + elapsedMillis + "ms");
+        assertEquals(1.0, count("gateway.hedge.sent"));
+        assertEquals(1.0, count("gateway.hedge.wins"));
+        assertTrue(aborted.await(5, TimeUnit.SECONDS), "the primary exchange was not aborted");
+    }
+
+    @Test
+    void fastServerErrorFromTheHedge_doesNotBeatASlowHealthyPrimary() throws Exception {
+        Upstream primary = upstream(exchange -> {
+            sleep(400);
+            respond(exchange, 200, "primary");
+        });
+        Upstream other = upstream(exchange -> respond(exchange, 503, "unavailable"));
+
+        ServerResponse response = proxy(1.0).handle("product_service", List.of(primary.url, other.url), get());
+
+        assertEquals(200, response.statusCode().value());
+        assertEquals("primary", body(response));
+        assertEquals(1, other.hits.get());
+        assertEquals(0.0, count("gateway.hedge.wins"));
+    }
+
+    @Test
+    void primaryThatFailsFast_isHedgedImmediately() throws Exception {
+        Upstream other = upstream(exchange -> respond(exchange, 200, "hedge"));
+        HedgingProxy proxy = proxy(1.0, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        ServerResponse response = proxy.handle("product_service", List.of(refusedUrl(), other.url), get());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("hedge", body(response));
+        assertTrue(elapsedMillis < 2_000, "hedged after " + elapsedMillis + "ms instead of right away");
+        assertEquals(1.0, count("gateway.hedge.wins"));
+    }
+
+    @Test
+    void primaryServerError_isHedgedImmediately() throws Exception {
+        Upstream primary = upstream(exchange -> respond(exchange, 500, "boom"));
+        Upstream other = upstream(exchange -> respond(exchange, 200, "hedge"));
+
+        ServerResponse response = proxy(1.0, Duration.ofSeconds(5))
+                .handle("product_service", List.of(primary.url, other.url), get());
+
+        assertEquals("hedge", body(response));
+    }
+
+    @Test
+    void everyAttemptFailing_returnsTheUpstreamServerError() throws Exception {
+        Upstream other = upstream(exchange -> respond(exchange, 503, "unavailable"));
+
+        ServerResponse response = proxy(1.0).handle("product_service", List.of(refusedUrl(), other.url), get());
+
+        assertEquals(503, response.statusCode().value());
+    }
+
+    @Test
+    void everyAttemptThrowing_throwsThePrimaryError() {
+        HedgingProxy proxy = proxy(1.0);
+
+        assertThrows(ConnectException.class,
+                () -> proxy.handle("product_service", List.of(refusedUrl(), refusedUrl()), get()));
+    }
+
+    @Test
+    void exhaustedBudget_waitsForThePrimaryWithoutHedging() throws Exception {
+        Upstream primary = upstream(exchange -> {
+            sleep(300);
+            respond(exchange, 200, "primary");
+        });
+        Upstream other = upstream(exchange -> respond(exchange, 200, "hedge"));
+
+        ServerResponse response = proxy(0.0).handle("product_service", List.of(primary.url, other.url), get());
+
+        assertEquals("primary", body(response));
+        assertEquals(0, other.hits.get());
+        assertEquals(0.0, count("gateway.hedge.sent"));
+        assertEquals(1.0, count("gateway.hedge.budget.exhausted"));
+    }
+
+    @Test
+    void onlyBodilessSafeMethods_withSeveralInstances_areHedgeable() {
+        HedgingProxy proxy = proxy(1.0);
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/product");
+
+        assertTrue(proxy.isHedgeable(get(), List.of("http://a", "http://b")));
+        assertFalse(proxy.isHedgeable(get(), List.of("http://a")));
+        assertFalse(proxy.isHedgeable(ServerRequest.create(post, List.of()), List.of("http://a", "http://b")));
+    }
+
+    // --- helpers ---
+
+    private HedgingProxy proxy(double budgetRatio) {
+        return proxy(budgetRatio, HEDGE_DELAY);
+    }
+
+    private HedgingProxy proxy(double budgetRatio, Duration hedgeDelay) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        return new HedgingProxy(meterRegistry, beans.getBeanProvider(Tracer.class), beans.getBeanProvider(Propagator.class),
+                true, 0.95, Duration.ofMillis(10), hedgeDelay, budgetRatio, Duration.ofSeconds(10),
+                HttpClient.Version.HTTP_1_1);
+    }
+
+    private static ServerRequest get() {
+        return ServerRequest.create(new MockHttpServletRequest("GET", "/api/product"), List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String body(ServerResponse response) {
+        return new String(((EntityResponse<byte[]>) response).entity(), StandardCharsets.UTF_8);
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "route", "product_service").count();
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private record Upstream(String url, AtomicInteger hits) {
+    }
+
+    private Upstream upstream(Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try (exchange) {
+                handler.handle(exchange);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return new Upstream("http://localhost:" + server.getAddress().getPort(), hits);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // A port nothing listens on - connecting fails right away
+    private static String refusedUrl() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://localhost:" + socket.getLocalPort();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
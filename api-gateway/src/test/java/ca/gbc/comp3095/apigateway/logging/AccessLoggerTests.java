@@ -0,0 +1,104 @@
+package ca.gbc.comp3095.apigateway.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the async access log - the writer thread hands records to a capturing sink instead of SLF4J.
+ */
+class AccessLoggerTests {
+
+    private static AccessLogRecord record(int status, Throwable error) {
+        return new AccessLogRecord(Instant.parse("2025-01-01T00:00:00Z"), "product_service", "GET", "/api/product",
+                "http://localhost:8084", status, 1234, 0, 10, error);
+    }
+
+    @Test
+    void fullBuffer_dropsAndCountsRecords_insteadOfBlockingTheCaller() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+        var logger = new AccessLogger(true, 1.0, 2, record -> {
+            writerBusy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(record);
+        });
+
+        logger.log(record(200, null));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS)); // the writer holds record 1, the buffer is empty again
+        for (int i = 0; i < 5; i++) {
+            logger.log(record(200, null)); // 2 fit, 3 do not
+        }
+
+        assertEquals(3, logger.droppedCount());
+        release.countDown();
+        logger.shutdown();
+        assertEquals(3, written.size());
+    }
+
+    @Test
+    void sampling_skipsSuccesses_butKeepsEveryError() throws Exception {
+        List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+        var logger = new AccessLogger(true, 0.0, 100, written::add);
+
+        logger.log(record(200, null));
+        logger.log(record(404, null));
+        logger.log(record(503, null));
+        logger.log(record(502, new IllegalStateException("upstream gone")));
+        logger.shutdown();
+
+        assertEquals(2, logger.sampledOutCount());
+        assertEquals(List.of(503, 502), written.stream().map(AccessLogRecord::status).toList());
+    }
+
+    @Test
+    void sampling_keepsRoughlyTheSampleRate() throws Exception {
+        List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+        var logger = new AccessLogger(true, 0.25, 20_000, written::add);
+
+        for (int i = 0; i < 10_000; i++) {
+            logger.log(record(200, null));
+        }
+        logger.shutdown();
+
+        assertEquals(10_000, written.size() + logger.sampledOutCount());
+        assertTrue(written.size() > 2_000 && written.size() < 3_000, "kept " + written.size() + " of 10000 at 0.25");
+    }
+
+    @Test
+    void disabled_logsNothing() throws Exception {
+        List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+        var logger = new AccessLogger(false, 1.0, 10, written::add);
+
+        logger.log(record(500, null));
+        logger.shutdown();
+
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void errorMessage_isQuotedAndEscaped_soTheRecordStaysOneLine() {
+        String line = record(502, new RuntimeException("I/O error on GET \"http://x\":\n\tconnection reset \\ retry"))
+                .format();
+
+        assertFalse(line.contains("\n") || line.contains("\t"));
+        assertTrue(line.endsWith(" error=java.lang.RuntimeException"
+                + " error_message=\"I/O error on GET \\\"http://x\\\":\\n\\tconnection reset \\\\ retry\""), line);
+    }
+
+    @Test
+    void errorMessage_null_isWrittenUnquoted() {
+        assertTrue(record(502, new RuntimeException()).format().endsWith(" error_message=null"));
+    }
+}
@@ -0,0 +1,125 @@
+package ca.gbc.comp3095.apigateway.routes;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The product route against a JDK HttpServer standing in for product-service:
+ * /api/product/{productId} reads and writes reach it, and a write drops the cached reads.
+ * The upstream answers "<method> <path> <request number>" so a cached answer is told apart from a fresh one.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.cache.enabled=true",
+        "gateway.access-log.enabled=false"
+})
+class ProductRouteTests {
+
+    private static final AtomicInteger REQUESTS = new AtomicInteger();
+
+    private static HttpServer upstream;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private Integer port;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/api/product", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] answer = (exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                    + REQUESTS.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(answer);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrls(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + upstream.getAddress().getPort();
+        registry.add("service.product-url", () -> url);
+        registry.add("service.order-url", () -> url);
+    }
+
+    @Test
+    void productIdPathsReachProductService() throws Exception {
+        HttpResponse<String> get = send("GET", "/api/product/route-1");
+        assertEquals(200, get.statusCode());
+        assertEquals("GET /api/product/route-1", withoutNumber(get.body()));
+
+        HttpResponse<String> put = send("PUT", "/api/product/route-1");
+        assertEquals(200, put.statusCode());
+        assertEquals("PUT /api/product/route-1", withoutNumber(put.body()));
+
+        HttpResponse<String> delete = send("DELETE", "/api/product/route-1");
+        assertEquals(200, delete.statusCode());
+        assertEquals("DELETE /api/product/route-1", withoutNumber(delete.body()));
+
+        // The listing itself is still routed
+        assertEquals("GET /api/product", withoutNumber(send("GET", "/api/product").body()));
+    }
+
+    @Test
+    void writeDropsTheCachedProductReads() throws Exception {
+        HttpResponse<String> first = send("GET", "/api/product/route-2");
+        HttpResponse<String> cached = send("GET", "/api/product/route-2");
+        assertEquals(Optional.of("HIT"), cached.headers().firstValue("X-Cache"));
+        assertEquals(first.body(), cached.body());
+        HttpResponse<String> listing = send("GET", "/api/product");
+
+        send("PUT", "/api/product/route-2");
+
+        HttpResponse<String> afterWrite = send("GET", "/api/product/route-2");
+        assertEquals(Optional.of("MISS"), afterWrite.headers().firstValue("X-Cache"));
+        assertNotEquals(first.body(), afterWrite.body());
+        assertNotEquals(listing.body(), send("GET", "/api/product").body());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest.BodyPublisher body = "PUT".equals(method)
+                ? HttpRequest.BodyPublishers.ofString("{\"name\":\"route\"}")
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String withoutNumber(String answer) {
+        return answer.substring(0, answer.lastIndexOf(' '));
+    }
+}
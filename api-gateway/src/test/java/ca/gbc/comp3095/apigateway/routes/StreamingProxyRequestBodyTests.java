@@ -0,0 +1,99 @@
+package ca.gbc.comp3095.apigateway.routes;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Which requests StreamingProxy sends a body for. No Spring context - the servlet request is a mock, so the
+ * headers a client did (not) send can be set exactly; the upstream is a JDK HttpServer that answers
+ * "<bytes> <transfer-encoding>" for what it received.
+ */
+class StreamingProxyRequestBodyTests {
+
+    private HttpServer upstream;
+    private String url;
+
+    private final StreamingProxy proxy = new StreamingProxy(
+            new StaticListableBeanFactory().getBeanProvider(Tracer.class),
+            new StaticListableBeanFactory().getBeanProvider(Propagator.class),
+            true, DataSize.ofKilobytes(16), Duration.ofSeconds(10), HttpClient.Version.HTTP_1_1);
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/api/order", exchange -> {
+            long bytes;
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes = in.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] answer = (bytes + " " + exchange.getRequestHeaders().getFirst("Transfer-Encoding"))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(answer);
+            }
+        });
+        upstream.start();
+        url = "http://localhost:" + upstream.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void uploadWithoutLengthOrTransferEncodingIsStreamed() throws Exception {
+        // What an HTTP/2 streamed upload looks like to the servlet API - DATA frames, no length header
+        MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/api/order/bulk") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        upload.setContent("x".repeat(100_000).getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("100000 chunked", send(upload));
+    }
+
+    @Test
+    void requestWithKnownLengthKeepsIt() throws Exception {
+        MockHttpServletRequest upload = new MockHttpServletRequest("PUT", "/api/order/1");
+        upload.setContent("{\"quantity\":1}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("14 null", send(upload));
+    }
+
+    @Test
+    void getWithoutLengthHasNoBody() throws Exception {
+        assertEquals("0 null", send(new MockHttpServletRequest("GET", "/api/order/1")));
+    }
+
+    private String send(MockHttpServletRequest servletRequest) throws Exception {
+        ServerResponse response = proxy.handle(url, ServerRequest.create(servletRequest, List.of()));
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        response.writeTo(servletRequest, servletResponse, () -> List.of());
+        return servletResponse.getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package ca.gbc.comp3095.apigateway.routes;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 512 MB through the gateway in both directions, chunked, with the 128 MB heap of the smallHeapTest task -
+ * buffering either body anywhere in the gateway would end in OutOfMemoryError.
+ * The upstream is a JDK HttpServer that generates/consumes the bytes and checksums them.
+ *
+ *   ./gradlew :api-gateway:smallHeapTest
+ */
+@Tag("small-heap")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gateway.streaming.enabled=true",
+        "gateway.cache.enabled=true",
+        "gateway.upstream.http-version=HTTP_1_1",
+        "gateway.access-log.enabled=false"
+})
+class StreamingProxyTests {
+
+    private static final long BODY_SIZE = 512L * 1024 * 1024;
+
+    private static HttpServer upstream;
+
+    @LocalServerPort
+    private Integer port;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+        // Large listing: streamed out chunked (length 0 = chunked in HttpServer)
+        upstream.createContext("/api/product", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                new PatternStream(BODY_SIZE).transferTo(out);
+            }
+        });
+
+        // Bulk upload: consumed and answered with "<bytes> <crc32> <transfer-encoding>"
+        upstream.createContext("/api/order/bulk", exchange -> {
+            CRC32 crc = new CRC32();
+            long bytes = 0;
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, read);
+                    bytes += read;
+                }
+            }
+            byte[] answer = (bytes + " " + crc.getValue() + " "
+                    + exchange.getRequestHeaders().getFirst("Transfer-Encoding")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, answer.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(answer);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrls(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + upstream.getAddress().getPort();
+        registry.add("service.product-url", () -> url);
+        registry.add("service.order-url", () -> url);
+    }
+
+    @Test
+    void heapIsSmallerThanTheBodies() {
+        assertTrue(Runtime.getRuntime().maxMemory() < BODY_SIZE,
+                "run with a heap below " + BODY_SIZE + " bytes (./gradlew smallHeapTest) or this proves nothing");
+    }
+
+    @Test
+    void largeResponseIsStreamedChunked() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // A plain cacheable GET - the response cache streams whatever is larger than gateway.cache.max-entry-size
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/product")).build();
+
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of("chunked"), response.headers().firstValue("Transfer-Encoding"));
+        CRC32 crc = new CRC32();
+        long bytes = 0;
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                bytes += read;
+            }
+        }
+        assertEquals(BODY_SIZE, bytes);
+        assertEquals(expectedCrc(), crc.getValue());
+    }
+
+    @Test
+    void largeChunkedUploadIsStreamedUpstream() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        // No length given -> the client sends it chunked
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/order/bulk"))
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new PatternStream(BODY_SIZE)))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(BODY_SIZE + " " + expectedCrc() + " chunked", response.body());
+    }
+
+    private static long expectedCrc() throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new PatternStream(BODY_SIZE)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // length bytes of a repeating, non-trivial pattern, generated as they are read
+    private static final class PatternStream extends InputStream {
+        private final long length;
+        private long position;
+
+        private PatternStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ % 251) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, length - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) (position++ % 251);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ca.gbc.comp3095.apigateway.transport;
+
+import ca.gbc.comp3095.apigateway.ApiGatewayApplication;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The gateway -> service hop over HTTP/1.1 vs HTTP/2 (h2c) at high concurrency.
+ *
+ * Every transport gets its OWN upstream (an embedded Tomcat with h2c, standing in for order-service) and its
+ * OWN gateway context with gateway.upstream.http-version set to that transport - no connection of one run can
+ * be counted in the other. The load client talks HTTP/1.1 to the gateway in both runs, so only the hop under
+ * test differs. Connections are counted by the upstream: distinct client ports it has seen requests on.
+ *
+ * Not part of the normal build - run with:
+ *   ./gradlew :api-gateway:test --tests '*Http2TransportBenchmarkTests' -Dbenchmark=true
+ * order-service's FeignTransportBenchmarkTests does the same for the order -> inventory hop.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class Http2TransportBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(Http2TransportBenchmarkTests.class);
+
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 256;
+    private static final int WARMUP = 500;
+
+    @Test
+    void compareHttp11AndH2cToTheUpstream() throws Exception {
+        Result http11 = run(HttpClient.Version.HTTP_1_1);
+        Result http2 = run(HttpClient.Version.HTTP_2);
+
+        log.info("gateway -> order-service {}", http11);
+        log.info("gateway -> order-service {}", http2);
+
+        assertEquals(0, http11.errors());
+        assertEquals(0, http2.errors());
+    }
+
+    private Result run(HttpClient.Version upstreamVersion) throws Exception {
+        Upstream upstream = Upstream.start();
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .properties(
+                        "server.port=0",
+                        "service.order-url=" + upstream.url(),
+                        "service.product-url=" + upstream.url(),
+                        "gateway.upstream.http-version=" + upstreamVersion,
+                        "gateway.streaming.enabled=true",
+                        "gateway.access-log.enabled=false",
+                        "server.tomcat.max-connections=10000")
+                .run();
+        try {
+            int port = ((ServletWebServerApplicationContext) gateway).getWebServer().getPort();
+            return load(upstreamVersion, URI.create("http://localhost:" + port + "/api/order/benchmark"), upstream);
+        } finally {
+            gateway.close();
+            upstream.server().stop();
+        }
+    }
+
+    private static Result load(HttpClient.Version upstreamVersion, URI uri, Upstream upstream) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        // Warm up the JITs and, for HTTP/2, let the gateway's client finish its h2c upgrade before measuring
+        for (int i = 0; i < WARMUP; i++) {
+            client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+        }
+
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>(REQUESTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(upstreamVersion, upstream.connections().size(),
+                latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[(int) (REQUESTS * 0.99)] / 1_000_000.0,
+                REQUESTS / (elapsed / 1_000_000_000.0),
+                errors.get());
+    }
+
+    /**
+     * Embedded Tomcat with h2c (prior knowledge and Upgrade), answering every request with a small JSON body
+     * and recording the client address:port of every request - one entry per connection, however many streams.
+     */
+    private record Upstream(WebServer server, Set<String> connections) {
+
+        static Upstream start() {
+            Set<String> connections = ConcurrentHashMap.newKeySet();
+            Http2 http2 = new Http2();
+            http2.setEnabled(true);
+            TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+            factory.setHttp2(http2);
+            WebServer server = factory.getWebServer(context -> context.addServlet("upstream", new HttpServlet() {
+                @Override
+                protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    connections.add(request.getRemoteAddr() + ":" + request.getRemotePort());
+                    byte[] body = "{\"orderNumber\":\"benchmark\"}".getBytes(StandardCharsets.UTF_8);
+                    response.setContentType("application/json");
+                    response.setContentLength(body.length);
+                    response.getOutputStream().write(body);
+                }
+            }).addMapping("/*"));
+            server.start();
+            return new Upstream(server, connections);
+        }
+
+        String url() {
+            return "http://localhost:" + server.getPort();
+        }
+    }
+
+    private record Result(HttpClient.Version version, int upstreamConnections, double p50Millis,
+                          double p99Millis, double requestsPerSecond, int errors) {
+        @Override
+        public String toString() {
+            return "%-8s upstream connections=%d p50=%.2fms p99=%.2fms throughput=%.0f req/s errors=%d"
+                    .formatted(version, upstreamConnections, p50Millis, p99Millis, requestsPerSecond, errors);
+        }
+    }
+}
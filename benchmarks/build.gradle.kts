@@ -0,0 +1,57 @@
+// JMH suites for the hot paths of the services - not a deployable service.
+// Run everything:  ./gradlew :benchmarks:jmh
+// Run one suite:   ./gradlew :benchmarks:jmh -Pjmh.includes=ProductMapping
+plugins {
+    java
+    id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+group = "ca.gbc.comp3095"
+version = "0.0.1-SNAPSHOT"
+description = "benchmarks"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+extra["springCloudVersion"] = "2025.0.0"
+
+dependencyManagement {
+    imports {
+        // The service modules declare their dependencies without versions - resolve them the same way they do
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.5.5")
+        mavenBom("org.springframework.cloud:spring-cloud-dependencies:${property("springCloudVersion")}")
+    }
+}
+
+dependencies {
+    jmh(project(":product-service"))
+    jmh(project(":order-service"))
+}
+
+// GatewayRoutingBenchmark starts the gateway from its boot jar in a JVM of its own (like load-tests):
+// on this classpath it would pick up the other services' JPA/Mongo auto-configuration and application.properties
+evaluationDependsOn(":api-gateway")
+val gatewayJar = project(":api-gateway").tasks.named<Jar>("bootJar")
+tasks.named("jmh") {
+    dependsOn(gatewayJar)
+}
+
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    profilers = listOf("gc") // allocation rate per operation next to every timing
+    resultFormat = "JSON"    // build/results/jmh/results.json - diff it between runs to spot regressions
+    jvmArgsAppend = listOf(
+        "-Dbenchmarks.gateway.jar=" + gatewayJar.get().archiveFile.get().asFile.absolutePath,
+        "-Dbenchmarks.gateway.log=" + layout.buildDirectory.file("results/jmh/api-gateway.log").get().asFile.absolutePath)
+    (findProperty("jmh.includes") as String?)?.let { includes = listOf(it) }
+}
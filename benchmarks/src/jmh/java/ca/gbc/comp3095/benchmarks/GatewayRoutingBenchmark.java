@@ -0,0 +1,167 @@
+package ca.gbc.comp3095.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the gateway routing path, measured end to end:
+ *  direct   - client -> stub upstream (the baseline)
+ *  proxied  - client -> gateway -> stub upstream (Cache-Control: no-store skips the response cache, so this is
+ *             the pass-through proxy: StreamingProxy with streaming=true, HandlerFunctions.http with false)
+ *  cacheHit - client -> gateway response cache, the upstream is not called
+ * proxied - direct is what a hop through the gateway costs us.
+ *
+ * The gateway is started from its boot jar (benchmarks.gateway.jar, set by the jmh task) in a JVM of its own,
+ * with its own application.properties - the jmh classpath also holds product-service and order-service, whose
+ * JPA/Mongo auto-configuration and properties would leak into an in-process context.
+ * HTTP/1.1 upstream, access log and hedging off; its output goes to benchmarks.gateway.log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GatewayRoutingBenchmark {
+
+    private static final byte[] PRODUCTS = """
+            [{"id":"1","name":"Samsung TV","description":"55 inch","price":1299.99},
+             {"id":"2","name":"Pixel 9","description":"Phone","price":999.00}]
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    @Param({"true", "false"})
+    public boolean streaming;
+
+    private HttpServer upstream;
+    private Process gateway;
+    private HttpClient client;
+    private HttpRequest direct;
+    private HttpRequest proxied;
+    private HttpRequest cached;
+
+    @Setup
+    public void setup() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        upstream.createContext("/api/product", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=3600");
+            exchange.sendResponseHeaders(200, PRODUCTS.length);
+            exchange.getResponseBody().write(PRODUCTS);
+            exchange.close();
+        });
+        upstream.start();
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+
+        int gatewayPort = freePort();
+        gateway = startGateway(gatewayPort, upstreamUrl);
+        String gatewayUrl = "http://localhost:" + gatewayPort;
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        awaitHealthy(gatewayUrl);
+        direct = HttpRequest.newBuilder(URI.create(upstreamUrl + "/api/product")).build();
+        proxied = HttpRequest.newBuilder(URI.create(gatewayUrl + "/api/product"))
+                .header("Cache-Control", "no-store")
+                .build();
+        cached = HttpRequest.newBuilder(URI.create(gatewayUrl + "/api/product")).build();
+
+        // Prime the cache so cacheHit never reaches the upstream
+        client.send(cached, HttpResponse.BodyHandlers.discarding());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        client.close();
+        gateway.destroy(); // SIGTERM -> graceful shutdown
+        if (!gateway.waitFor(20, TimeUnit.SECONDS)) {
+            gateway.destroyForcibly();
+        }
+        upstream.stop(0);
+    }
+
+    @Benchmark
+    public byte[] direct() throws Exception {
+        return client.send(direct, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] proxied() throws Exception {
+        return client.send(proxied, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] cacheHit() throws Exception {
+        return client.send(cached, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private Process startGateway(int port, String upstreamUrl) throws IOException {
+        String jar = System.getProperty("benchmarks.gateway.jar");
+        if (jar == null) {
+            throw new IllegalStateException("No api-gateway boot jar - run through Gradle (./gradlew :benchmarks:jmh)");
+        }
+        File log = new File(System.getProperty("benchmarks.gateway.log", "api-gateway.log")).getAbsoluteFile();
+        log.getParentFile().mkdirs();
+        return new ProcessBuilder(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", jar,
+                "--server.port=" + port,
+                "--service.product-url=" + upstreamUrl,
+                "--service.order-url=" + upstreamUrl,
+                "--gateway.upstream.http-version=HTTP_1_1",
+                "--gateway.streaming.enabled=" + streaming,
+                "--gateway.access-log.enabled=false",
+                "--gateway.hedging.enabled=false",
+                "--logging.level.root=WARN"))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+    }
+
+    private void awaitHealthy(String gatewayUrl) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(gatewayUrl + "/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!gateway.isAlive()) {
+                throw new IllegalStateException("api-gateway exited with " + gateway.exitValue()
+                        + " - see " + System.getProperty("benchmarks.gateway.log", "api-gateway.log"));
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException notListeningYet) {
+                // still starting
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("api-gateway was not healthy after " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
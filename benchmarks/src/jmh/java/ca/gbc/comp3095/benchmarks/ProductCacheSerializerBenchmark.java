@@ -0,0 +1,69 @@
+package ca.gbc.comp3095.benchmarks;
+
+import ca.gbc.comp3095.productservice.config.RedisConfig;
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The value serializer RedisConfig configures for PRODUCT_CACHE (Jackson with default typing - "@class" on
+ * every value) on the ALL_PRODUCTS listing, against plain Jackson as a reference.
+ * The connection factory is never started - building the cache manager does not connect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductCacheSerializerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int products;
+
+    private RedisSerializationContext.SerializationPair<Object> cacheValues;
+    private final ObjectMapper plainJackson = new ObjectMapper();
+    private List<ProductResponse> listing;
+    private ByteBuffer serialized;
+
+    @Setup
+    public void setup() {
+        RedisCacheManager cacheManager = new RedisConfig().cacheManager(new LettuceConnectionFactory());
+        cacheValues = cacheManager.getCacheConfigurations().get("PRODUCT_CACHE").getValueSerializationPair();
+
+        listing = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            listing.add(new ProductResponse("66f1c0a8e4b0" + String.format("%012d", i), "Product " + i,
+                    "Description of product " + i + " with a realistic amount of marketing text", BigDecimal.valueOf(1999 + i, 2)));
+        }
+        serialized = cacheValues.write(listing);
+    }
+
+    @Benchmark
+    public ByteBuffer cacheWrite() {
+        return cacheValues.write(listing);
+    }
+
+    @Benchmark
+    public Object cacheRead() {
+        return cacheValues.read(serialized.duplicate());
+    }
+
+    @Benchmark
+    public byte[] plainJacksonWrite() throws Exception {
+        return plainJackson.writeValueAsBytes(listing);
+    }
+}
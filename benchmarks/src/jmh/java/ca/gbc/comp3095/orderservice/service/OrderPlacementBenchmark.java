@@ -0,0 +1,101 @@
+package ca.gbc.comp3095.orderservice.service;
+
+import ca.gbc.comp3095.orderservice.client.InventoryAvailabilityCache;
+import ca.gbc.comp3095.orderservice.client.InventoryClient;
+import ca.gbc.comp3095.orderservice.client.StockCheck;
+import ca.gbc.comp3095.orderservice.dto.OrderRequest;
+import ca.gbc.comp3095.orderservice.model.Order;
+import ca.gbc.comp3095.orderservice.ordernumber.UuidV7OrderNumberGenerator;
+import ca.gbc.comp3095.orderservice.outbox.OrderOutbox;
+import ca.gbc.comp3095.orderservice.repository.OrderIdempotencyKeyRepository;
+import ca.gbc.comp3095.orderservice.repository.OrderRepository;
+import ca.gbc.comp3095.orderservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-process part of OrderServiceImpl.placeOrder: order number, Order construction and the outbox
+ * event (JSON payload). Repositories and the inventory client are no-op stand-ins so only our own code
+ * is measured - database and network time belong to the load tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderPlacementBenchmark {
+
+    private final OrderRequest request = new OrderRequest(null, null, "SKU_001", new BigDecimal("49.99"), 2);
+    private final UuidV7OrderNumberGenerator orderNumbers = new UuidV7OrderNumberGenerator(1);
+    private OrderServiceImpl orderService;
+
+    @Setup
+    public void setup() throws Exception {
+        OrderOutbox outbox = new OrderOutbox(stub(OutboxEventRepository.class), JsonMapper.builder().findAndAddModules().build());
+        orderService = new OrderServiceImpl(
+                stub(OrderRepository.class),
+                new AlwaysInStock(), // no network
+                outbox,
+                orderNumbers,
+                stub(OrderIdempotencyKeyRepository.class),
+                null, // OrderLineRepository - single-SKU orders write no lines
+                // TTLs of 0 - every order still pays for its stock check
+                new InventoryAvailabilityCache(new SimpleMeterRegistry(), Duration.ZERO, Duration.ZERO, 0));
+
+        Field stockCheck = OrderServiceImpl.class.getDeclaredField("stockCheckEnabled");
+        stockCheck.setAccessible(true);
+        stockCheck.setBoolean(orderService, true);
+    }
+
+    @Benchmark
+    public UUID placeOrder() {
+        return orderService.placeOrder(request, null, null);
+    }
+
+    @Benchmark
+    public Order buildOrderOnly() {
+        return Order.builder()
+                .orderNumber(orderNumbers.next())
+                .price(request.price())
+                .quantity(request.quantity())
+                .skuCode(request.skuCode())
+                .build();
+    }
+
+    private static final class AlwaysInStock implements InventoryClient {
+        @Override
+        public boolean isInStock(String skuCode, Integer quantity) {
+            return true;
+        }
+
+        @Override
+        public List<Boolean> areInStock(List<StockCheck> checks) {
+            return checks.stream().map(check -> true).toList();
+        }
+    }
+
+    // Repository stand-in: save(entity) returns the entity, everything else does nothing
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "save" -> args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName() + " stub";
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package ca.gbc.comp3095.productservice.service;
+
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+import ca.gbc.comp3095.productservice.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductServiceImpl.mapToProductResponse over a product listing - the work getAllProducts does on every cache miss.
+ * (Lives in the service's package because the method is package-private.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int products;
+
+    private final ProductServiceImpl service = new ProductServiceImpl(null, null, null);
+    private List<Product> listing;
+
+    @Setup
+    public void setup() {
+        listing = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            listing.add(new Product("66f1c0a8e4b0" + String.format("%012d", i), "Product " + i,
+                    "Description of product " + i + " with a realistic amount of marketing text", BigDecimal.valueOf(1999 + i, 2)));
+        }
+    }
+
+    @Benchmark
+    public List<ProductResponse> mapListing() {
+        return listing.stream().map(service::mapToProductResponse).toList();
+    }
+}
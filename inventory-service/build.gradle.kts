@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("org.graalvm.buildtools.native") version "0.10.6" // Spring AOT processing + optional native image (./gradlew nativeCompile)
 }
 
 group = "ca.gbc.comp3095"
@@ -26,13 +27,17 @@ repositories {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus scrape endpoint
+    implementation(project(":tracing-support")) // W3C trace context, spans and their export (see ca.gbc.comp3095.tracing.TracingConfig)
+    implementation("net.ttddyy.observation:datasource-micrometer-spring-boot:1.1.0") // JDBC connection/query spans
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-data-redis") // optional Redis reservation engine
     implementation("org.flywaydb:flyway-core")
     implementation("org.flywaydb:flyway-database-postgresql")
     compileOnly("org.projectlombok:lombok")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql") // CopyManager for bulk imports (was runtimeOnly)
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.boot:spring-boot-testcontainers")
@@ -44,4 +49,28 @@ dependencies {
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // Opt-in benchmarks (e.g. ShardedInventoryBenchmarkTests): ./gradlew test -Dbenchmark=true
+    systemProperty("benchmark", System.getProperty("benchmark") ?: "false")
+}
+
+// Fast startup (see Dockerfile, Dockerfile.native and ../startup-comparison.sh)
+//  - processAot runs on every build and adds the AOT-generated bean definitions to the boot jar;
+//    the JVM only uses them when started with -Dspring.aot.enabled=true
+//  - AOT settles @ConditionalOnProperty/@Profile at BUILD time, so the image is processed with the
+//    profile it runs with: ./gradlew build -PaotProfiles=docker
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    (findProperty("aotProfiles") as String?)?.let { args("--spring.profiles.active=$it") }
+}
+
+// Fixed file names - the Dockerfiles and ../startup-comparison.sh copy the jar (and native image) by name
+tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
+    archiveFileName = "inventory-service.jar"
+}
+
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "inventory-service"
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package ca.gbc.comp3095.inventoryservice;
 
+import ca.gbc.comp3095.inventoryservice.aot.InventoryServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ImportRuntimeHints(InventoryServiceRuntimeHints.class) // reflection hints for the native image
+@EnableScheduling // change-feed poller and change-log cleanup
 public class InventoryServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package ca.gbc.comp3095.inventoryservice.aot;
+
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeEvent;
+import ca.gbc.comp3095.inventoryservice.model.Inventory;
+import ca.gbc.comp3095.inventoryservice.model.InventoryChange;
+import ca.gbc.comp3095.inventoryservice.model.InventoryLevelView;
+import ca.gbc.comp3095.inventoryservice.model.InventoryShard;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What Spring AOT cannot work out from the bean definitions alone (only used by the native image):
+ *  - Lombok entities: Hibernate instantiates them and reads/writes fields reflectively
+ *  - InventoryChangeEvent: serialized by SseEmitter, not returned from a controller method
+ *  - the Lua scripts of the Redis engine are loaded from the classpath
+ */
+public class InventoryServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : new Class<?>[]{Inventory.class, InventoryChange.class, InventoryShard.class,
+                InventoryShard.Key.class, InventoryLevelView.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), InventoryChangeEvent.class);
+        hints.resources().registerPattern("scripts/*.lua");
+    }
+}
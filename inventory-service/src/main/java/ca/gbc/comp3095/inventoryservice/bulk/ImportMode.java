@@ -0,0 +1,6 @@
+package ca.gbc.comp3095.inventoryservice.bulk;
+
+public enum ImportMode {
+    SNAPSHOT, // quantity column is the new absolute quantity (inserts unknown SKUs)
+    DELTA     // quantity column is added to the current quantity (rows that would go below zero are rejected)
+}
@@ -0,0 +1,137 @@
+package ca.gbc.comp3095.inventoryservice.bulk;
+
+import ca.gbc.comp3095.inventoryservice.dto.ImportResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Bulk load of warehouse feeds (CSV: sku_code,quantity with a header row).
+ *  1. COPY the stream into a temporary staging table - no per-row statements, no entities
+ *  2. ONE set-based statement merges staging into t_inventory and writes the change log
+ * Everything runs in one transaction: a malformed line rejects the whole file and nothing is applied.
+ * Its change versions are taken long before it commits - the change feed holds back later versions until it has.
+ * Sharded SKUs are left alone (their stock lives in slots - set them through the API).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryBulkImporter {
+
+    private static final String NEXT_VERSION = "nextval('t_inventory_changes_version_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImportResult importCsv(InputStream csv, ImportMode mode, boolean zeroMissing) {
+        long start = System.nanoTime();
+
+        ImportResult result = transactionTemplate.execute(status -> {
+            // line_no keeps file order so "last row wins" is well defined for duplicate SKUs
+            jdbcTemplate.execute("""
+                    CREATE TEMP TABLE t_inventory_import (
+                        line_no BIGINT GENERATED ALWAYS AS IDENTITY,
+                        sku_code VARCHAR(255) NOT NULL,
+                        quantity INT NOT NULL
+                    ) ON COMMIT DROP
+                    """);
+            long rowsRead = copy(csv);
+            jdbcTemplate.execute("ANALYZE t_inventory_import");
+
+            Map<String, Object> counts = mode == ImportMode.SNAPSHOT ? mergeSnapshot(zeroMissing) : mergeDelta();
+            long distinct = ((Number) counts.get("distinct_skus")).longValue();
+            long inserted = ((Number) counts.get("inserted")).longValue();
+            long updated = ((Number) counts.get("updated")).longValue();
+            long zeroed = ((Number) counts.get("zeroed")).longValue();
+            return new ImportResult(mode.name(), rowsRead, distinct, inserted, updated, zeroed,
+                    distinct - inserted - updated, 0);
+        });
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Inventory {} import: {} rows, {} inserted, {} updated, {} zeroed, {} skipped in {} ms",
+                mode, result.rowsRead(), result.inserted(), result.updated(), result.zeroed(), result.skipped(), millis);
+        return new ImportResult(result.mode(), result.rowsRead(), result.distinctSkus(), result.inserted(),
+                result.updated(), result.zeroed(), result.skipped(), millis);
+    }
+
+    // Streams straight from the caller's InputStream into the server - the file is never held in memory
+    private long copy(InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY t_inventory_import (sku_code, quantity) FROM STDIN WITH (FORMAT csv, HEADER true)", csv, 64 * 1024);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Map<String, Object> mergeSnapshot(boolean zeroMissing) {
+        // Data-modifying CTEs all run, whether or not the final SELECT reads them
+        return jdbcTemplate.queryForMap("""
+                WITH src AS (
+                    SELECT DISTINCT ON (sku_code) sku_code, quantity
+                    FROM t_inventory_import
+                    ORDER BY sku_code, line_no DESC
+                ),
+                upserted AS (
+                    INSERT INTO t_inventory (sku_code, quantity, version)
+                    SELECT sku_code, quantity, %1$s FROM src
+                    ON CONFLICT (sku_code) DO UPDATE
+                    SET quantity = EXCLUDED.quantity, version = %1$s
+                    WHERE t_inventory.shard_count = 0 AND t_inventory.quantity IS DISTINCT FROM EXCLUDED.quantity
+                    RETURNING sku_code, quantity, version, (xmax = 0) AS inserted
+                ),
+                zeroed AS (
+                    UPDATE t_inventory i SET quantity = 0, version = %1$s
+                    WHERE ? AND i.shard_count = 0 AND i.quantity <> 0
+                      AND NOT EXISTS (SELECT 1 FROM src WHERE src.sku_code = i.sku_code)
+                    RETURNING i.sku_code, i.quantity, i.version
+                ),
+                logged AS (
+                    INSERT INTO t_inventory_changes (version, sku_code, quantity, changed_at)
+                    SELECT version, sku_code, quantity, now() FROM upserted
+                    UNION ALL
+                    SELECT version, sku_code, quantity, now() FROM zeroed
+                )
+                SELECT (SELECT count(*) FROM src) AS distinct_skus,
+                       (SELECT count(*) FROM upserted WHERE inserted) AS inserted,
+                       (SELECT count(*) FROM upserted WHERE NOT inserted) AS updated,
+                       (SELECT count(*) FROM zeroed) AS zeroed
+                """.formatted(NEXT_VERSION), zeroMissing);
+    }
+
+    private Map<String, Object> mergeDelta() {
+        return jdbcTemplate.queryForMap("""
+                WITH src AS (
+                    SELECT sku_code, SUM(quantity) AS delta
+                    FROM t_inventory_import
+                    GROUP BY sku_code
+                ),
+                updated AS (
+                    UPDATE t_inventory i SET quantity = i.quantity + s.delta, version = %1$s
+                    FROM src s
+                    WHERE i.sku_code = s.sku_code AND i.shard_count = 0
+                      AND s.delta <> 0 AND i.quantity + s.delta >= 0
+                    RETURNING i.sku_code, i.quantity, i.version
+                ),
+                logged AS (
+                    INSERT INTO t_inventory_changes (version, sku_code, quantity, changed_at)
+                    SELECT version, sku_code, quantity, now() FROM updated
+                )
+                SELECT (SELECT count(*) FROM src) AS distinct_skus,
+                       0 AS inserted,
+                       (SELECT count(*) FROM updated) AS updated,
+                       0 AS zeroed
+                """.formatted(NEXT_VERSION));
+    }
+}
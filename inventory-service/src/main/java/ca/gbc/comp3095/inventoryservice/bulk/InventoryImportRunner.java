@@ -0,0 +1,63 @@
+package ca.gbc.comp3095.inventoryservice.bulk;
+
+import ca.gbc.comp3095.inventoryservice.dto.ImportResult;
+import ca.gbc.comp3095.inventoryservice.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CLI mode for bulk imports - runs one import at startup and exits:
+ *   java -jar inventory-service.jar --spring.main.web-application-type=none \
+ *        --inventory.import.file=stock.csv.gz --inventory.import.mode=SNAPSHOT --inventory.import.zero-missing=true
+ * Files ending in .gz are decompressed on the fly.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.import.file")
+public class InventoryImportRunner implements ApplicationRunner {
+
+    private final InventoryService inventoryService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${inventory.import.file}")
+    private Path file;
+
+    @Value("${inventory.import.mode:SNAPSHOT}")
+    private ImportMode mode;
+
+    @Value("${inventory.import.zero-missing:false}")
+    private boolean zeroMissing;
+
+    @Value("${inventory.import.exit:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int exitCode = 0;
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream csv = file.toString().endsWith(".gz") ? new GZIPInputStream(raw, 64 * 1024) : raw) {
+            ImportResult result = inventoryService.importCsv(csv, mode, zeroMissing);
+            log.info("Imported {}: {}", file, result);
+        } catch (RuntimeException e) {
+            log.error("Import of {} failed", file, e);
+            exitCode = 1;
+        }
+        if (exitWhenDone) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ca.gbc.comp3095.inventoryservice.changefeed;
+
+import ca.gbc.comp3095.inventoryservice.model.InventoryChange;
+
+import java.time.Instant;
+
+/**
+ * What the feed sends for every change. quantity is absolute, so applying an event twice is harmless.
+ */
+public record InventoryChangeEvent(long version, String skuCode, int quantity, Instant changedAt) {
+
+    static InventoryChangeEvent of(InventoryChange change) {
+        return new InventoryChangeEvent(change.getVersion(), change.getSkuCode(), change.getQuantity(), change.getChangedAt());
+    }
+}
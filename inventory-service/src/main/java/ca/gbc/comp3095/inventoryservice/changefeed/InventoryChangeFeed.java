@@ -0,0 +1,274 @@
+package ca.gbc.comp3095.inventoryservice.changefeed;
+
+import ca.gbc.comp3095.inventoryservice.model.InventoryChange;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryChangeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events feed of inventory changes.
+ *
+ * The change log table is the source of truth. A poller tails it by version and fans new changes out
+ * to subscribers, so a change made through ANY inventory instance reaches subscribers of every instance.
+ * Versions come from a sequence and may commit out of order: the poller only moves its watermark across
+ * a missing version once it appears, or once no transaction that could still commit it is running - a rolled
+ * back transaction (or a version a statement took but did not use) leaves a permanent gap, but a long one
+ * such as a bulk import is waited for however long it takes. Only transactions that took a version count,
+ * and a wait longer than inventory.changes.gap-warn-after is logged as a warning.
+ *
+ * Each subscriber has its own virtual thread and bounded queue:
+ *  1. replay from the change log everything after the client's version (?sinceVersion= or Last-Event-ID)
+ *  2. stream live changes, skipping anything already sent
+ *  3. if the client is too slow and its queue overflows, catch up from the change log again
+ * A client whose version is older than the retained log gets a "reset" event and must reload the snapshot.
+ */
+@Component
+@Slf4j
+public class InventoryChangeFeed {
+
+    public static final String CHANGE_EVENT = "inventory-change";
+    public static final String RESET_EVENT = "reset";
+
+    private final InventoryChangeRepository changeRepository;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration emitterTimeout;
+    private final Duration heartbeat;
+    private final int subscriberBuffer;
+    private final Duration gapWarnAfter;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Every version <= watermark is committed (or was given up on) and has been handed to subscribers
+    private volatile long watermark;
+    // Set once the watermark has been read - the poller does nothing before
+    private volatile boolean started;
+    // Poller thread only: the transactions that could still commit the missing version, and since when we wait
+    private Set<String> gapTakers;
+    private Instant gapSince;
+    private boolean gapWarned;
+    // The missing version the poller decided to wait for, 0 when there is none
+    private volatile long pendingGap;
+
+    public InventoryChangeFeed(InventoryChangeRepository changeRepository,
+                               @Value("${inventory.changes.batch-size:500}") int batchSize,
+                               @Value("${inventory.changes.retention:P7D}") Duration retention,
+                               @Value("${inventory.changes.emitter-timeout:30m}") Duration emitterTimeout,
+                               @Value("${inventory.changes.heartbeat:15s}") Duration heartbeat,
+                               @Value("${inventory.changes.subscriber-buffer:10000}") int subscriberBuffer,
+                               @Value("${inventory.changes.gap-warn-after:30s}") Duration gapWarnAfter) {
+        this.changeRepository = changeRepository;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.emitterTimeout = emitterTimeout;
+        this.heartbeat = heartbeat;
+        this.subscriberBuffer = subscriberBuffer;
+        this.gapWarnAfter = gapWarnAfter;
+    }
+
+    /**
+     * Not during refresh: the image build's CDS training run exits right after refresh with no database to read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // History before startup is served by replay, the poller only needs to follow new changes
+        watermark = changeRepository.findLatestVersion();
+        started = true;
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    public long currentVersion() {
+        return watermark;
+    }
+
+    /**
+     * The missing version the feed is held back by, 0 if it is not waiting for one.
+     */
+    public long pendingGap() {
+        return pendingGap;
+    }
+
+    public SseEmitter subscribe(long sinceVersion) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, sinceVersion);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            // Ends the stream normally - clients reconnect with Last-Event-ID and resume
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+
+        // Register BEFORE the replay reads the watermark - nothing can fall between replay and live
+        subscribers.add(subscriber);
+        Thread.ofVirtual().name("inventory-changes-subscriber").start(subscriber::run);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.changes.poll-interval-ms:100}")
+    public void poll() {
+        if (!started) {
+            return; // scheduling begins before the application is ready
+        }
+        // Read BEFORE the log: a version taker missing here has ended, so the read below sees all it committed
+        Set<String> runningTakers = gapTakers != null ? Set.copyOf(changeRepository.findVersionTakers()) : null;
+        List<InventoryChange> changes = changeRepository.findByVersionGreaterThanOrderByVersion(watermark, Limit.of(batchSize));
+
+        for (InventoryChange change : changes) {
+            long expected = watermark + 1;
+            if (change.getVersion() != expected && !gapIsPermanent(runningTakers)) {
+                return; // an earlier version is still in flight - wait for it
+            }
+            gapTakers = null;
+            gapWarned = false;
+            pendingGap = 0;
+            InventoryChangeEvent event = InventoryChangeEvent.of(change);
+            // watermark first: a subscriber registering now replays up to here and dedups the queued copy
+            watermark = event.version();
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    /**
+     * Changes are kept long enough for consumers to reconnect and resume - not forever.
+     */
+    @Scheduled(fixedDelayString = "${inventory.changes.cleanup.interval-ms:3600000}")
+    @Transactional
+    public void purgeOldChanges() {
+        int deleted = changeRepository.deleteChangedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} inventory changes older than {}", deleted, retention);
+        }
+    }
+
+    /**
+     * The missing version was taken before a later one committed, by a transaction that - if it is still
+     * running - holds its lock on the version sequence now. Those transactions are remembered when the gap is
+     * first seen; once none of them is running any more (checked before the log was read) the version is
+     * never coming. A wait that goes on is not cut short - skipping would lose a change - but it is logged.
+     */
+    private boolean gapIsPermanent(Set<String> runningTakers) {
+        if (gapTakers == null) {
+            gapTakers = Set.copyOf(changeRepository.findVersionTakers());
+            gapSince = Instant.now();
+            return false;
+        }
+        if (Collections.disjoint(gapTakers, runningTakers)) {
+            log.debug("Skipping missing inventory change version {} - no transaction that could commit it is running", watermark + 1);
+            return true;
+        }
+        pendingGap = watermark + 1;
+        if (!gapWarned && Duration.between(gapSince, Instant.now()).compareTo(gapWarnAfter) > 0) {
+            gapWarned = true;
+            log.warn("Inventory change feed has been waiting {} for version {} - held by open transaction(s) {} (pg_locks.virtualtransaction)",
+                    Duration.between(gapSince, Instant.now()), watermark + 1, gapTakers);
+        }
+        return false;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<InventoryChangeEvent> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean lagging = new AtomicBoolean();
+        private volatile boolean closed;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long sinceVersion) {
+            this.emitter = emitter;
+            this.lastSent = sinceVersion;
+        }
+
+        void offer(InventoryChangeEvent event) {
+            if (!queue.offer(event)) {
+                // Too slow to keep up - drop the backlog, the subscriber thread re-reads it from the change log
+                lagging.set(true);
+                queue.clear();
+            }
+        }
+
+        void run() {
+            try {
+                if (lastSent > 0 && lastSent < changeRepository.findOldestVersion() - 1) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(watermark));
+                    emitter.complete();
+                    return;
+                }
+                catchUp();
+                while (!closed) {
+                    InventoryChangeEvent event = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    // checked AFTER taking: if the queue was cleared, this event may be newer than what was dropped
+                    if (lagging.getAndSet(false)) {
+                        catchUp();
+                    } else if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else if (event.version() > lastSent) {
+                        send(event);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Inventory change subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void catchUp() throws IOException {
+            long upTo = watermark;
+            while (!closed && lastSent < upTo) {
+                List<InventoryChange> page = changeRepository
+                        .findByVersionGreaterThanAndVersionLessThanEqualOrderByVersion(lastSent, upTo, Limit.of(batchSize));
+                if (page.isEmpty()) {
+                    lastSent = upTo; // only gaps left
+                    return;
+                }
+                for (InventoryChange change : page) {
+                    send(InventoryChangeEvent.of(change));
+                }
+            }
+        }
+
+        private void send(InventoryChangeEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.version()))
+                    .name(CHANGE_EVENT)
+                    .data(event, MediaType.APPLICATION_JSON));
+            lastSent = event.version();
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                subscribers.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ca.gbc.comp3095.inventoryservice.changefeed;
+
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryChangeRepository;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Called after every quantity mutation, inside the mutating transaction:
+ * appends the SKU's new level to the change log and returns it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryChangeRecorder {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryChangeRepository changeRepository;
+
+    public InventoryLevel record(String skuCode) {
+        changeRepository.recordChange(skuCode);
+        InventoryLevel level = inventoryRepository.findLevelBySkuCode(skuCode).orElseThrow();
+        log.debug("Inventory {} is now {} (version {})", skuCode, level.quantity(), level.version());
+        return level;
+    }
+}
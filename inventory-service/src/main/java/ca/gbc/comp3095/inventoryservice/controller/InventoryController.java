@@ -2,10 +2,27 @@
 
 package ca.gbc.comp3095.inventoryservice.controller;
 
+import ca.gbc.comp3095.inventoryservice.bulk.ImportMode;
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeFeed;
+import ca.gbc.comp3095.inventoryservice.dto.AdjustmentRequest;
+import ca.gbc.comp3095.inventoryservice.dto.ImportResult;
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.InventorySnapshot;
+import ca.gbc.comp3095.inventoryservice.dto.QuantityRequest;
+import ca.gbc.comp3095.inventoryservice.dto.ShardsRequest;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
 import ca.gbc.comp3095.inventoryservice.service.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -13,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class InventoryController {
 
     private final InventoryService _inventoryService;
+    private final InventoryChangeFeed _inventoryChangeFeed;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -26,5 +44,62 @@ public class InventoryController {
 
     }
 
+    // Batch of stock checks in one round trip - body [{"skuCode": "...", "quantity": 1}, ...], answers in the same order
+    @PostMapping("/availability")
+    @ResponseStatus(HttpStatus.OK)
+    public List<Boolean> areInStock(@RequestBody List<StockCheck> checks) {
+        return _inventoryService.areInStock(checks);
+    }
+
+    // Set the absolute quantity of a SKU (creates the SKU if it does not exist yet)
+    @PutMapping("/{skuCode}")
+    @ResponseStatus(HttpStatus.OK)
+    public InventoryLevel setQuantity(@PathVariable String skuCode, @RequestBody QuantityRequest request) {
+        return _inventoryService.setQuantity(skuCode, request.quantity());
+    }
+
+    // Restock (delta > 0) or take stock out (delta < 0) - 409 if there is not enough stock
+    @PostMapping("/{skuCode}/adjustments")
+    @ResponseStatus(HttpStatus.OK)
+    public InventoryLevel adjustQuantity(@PathVariable String skuCode, @RequestBody AdjustmentRequest request) {
+        return _inventoryService.adjustQuantity(skuCode, request.delta());
+    }
+
+    // Split a hot SKU's stock over N slots so reservations stop queueing on one row lock (0 = back to one row)
+    @PutMapping("/{skuCode}/shards")
+    @ResponseStatus(HttpStatus.OK)
+    public InventoryLevel setShardCount(@PathVariable String skuCode, @RequestBody ShardsRequest request) {
+        return _inventoryService.setShardCount(skuCode, request.shards());
+    }
+
+    // Bulk load: curl -X POST --data-binary @stock.csv -H 'Content-Type: text/csv' '.../api/inventory/import?mode=SNAPSHOT'
+    // The body is streamed into PostgreSQL (send Content-Encoding: gzip for large files)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @ResponseStatus(HttpStatus.OK)
+    public ImportResult importCsv(@RequestParam(defaultValue = "SNAPSHOT") ImportMode mode,
+                                  @RequestParam(defaultValue = "false") boolean zeroMissing,
+                                  @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                  InputStream body) throws IOException {
+        InputStream csv = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+        return _inventoryService.importCsv(csv, mode, zeroMissing);
+    }
+
+    // All current levels plus the feed version to subscribe from
+    @GetMapping("/snapshot")
+    @ResponseStatus(HttpStatus.OK)
+    public InventorySnapshot getSnapshot() {
+        return _inventoryService.getSnapshot();
+    }
+
+    // Change feed (Server-Sent Events). Resume with ?sinceVersion= or the standard Last-Event-ID header
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) Long sinceVersion,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long since = sinceVersion != null ? sinceVersion
+                : lastEventId != null ? lastEventId
+                : _inventoryChangeFeed.currentVersion();
+        return _inventoryChangeFeed.subscribe(since);
+    }
+
 
 }
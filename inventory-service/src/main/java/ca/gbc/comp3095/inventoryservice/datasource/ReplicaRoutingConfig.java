@@ -0,0 +1,75 @@
+package ca.gbc.comp3095.inventoryservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only transactions (@Transactional(readOnly = true), e.g. InventoryServiceImpl.isInStock) read from replicas.
+ *
+ * Boot's auto-configured "dataSource" (the primary pool) is wrapped in a LazyConnectionDataSourceProxy:
+ * the physical connection is only fetched at the first statement, after the transaction manager has marked
+ * it read-only, and read-only connections come from the {@link ReplicaRoutingDataSource}.
+ * Everything else - writes, Flyway, JdbcTemplate outside a read-only transaction - still uses the primary,
+ * and the primary keeps its Boot pool metrics/health (Boot unwraps the proxy).
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "inventory.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(MeterRegistry meterRegistry,
+                                 @Value("${inventory.datasource.replicas.urls}") List<String> urls,
+                                 @Value("${inventory.datasource.replicas.username}") String username,
+                                 @Value("${inventory.datasource.replicas.password}") String password,
+                                 @Value("${inventory.datasource.replicas.pool-size:10}") int poolSize,
+                                 @Value("${inventory.datasource.replicas.max-lag:2s}") Duration maxLag,
+                                 @Value("${inventory.datasource.replicas.lag-query}") String lagQuery) {
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("inventory-replica-" + (i + 1));
+            pool.setJdbcUrl(urls.get(i));
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            // Do not fail startup when a replica is down - it is simply skipped until the probe reaches it
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricRegistry(meterRegistry);
+            pools.add(pool);
+        }
+        log.info("Read-only transactions are routed to {} replica(s), max lag {}", pools.size(), maxLag);
+        return new ReplicaSet(pools, maxLag, lagQuery, meterRegistry);
+    }
+
+    // static - post processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaSet> replicaSet) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                    return bean;
+                }
+                LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+                routing.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicaSet.getObject()));
+                return routing;
+            }
+        };
+    }
+}
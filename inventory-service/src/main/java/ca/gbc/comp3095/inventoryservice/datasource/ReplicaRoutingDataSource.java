@@ -0,0 +1,38 @@
+package ca.gbc.comp3095.inventoryservice.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Where read-only transactions get their connection: a replica from the {@link ReplicaSet},
+ * or the primary when none is usable - reads degrade to the old behaviour instead of failing.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaSet replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection replica = replicas.connectionOrNull();
+        if (replica != null) {
+            return replica;
+        }
+        Connection connection = primary.getConnection();
+        connection.setReadOnly(true); // still a read-only transaction, the pool resets the flag on close
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+}
@@ -0,0 +1,122 @@
+package ca.gbc.comp3095.inventoryservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas behind {@link ReplicaRoutingDataSource}.
+ *  - Round robin over the replicas that are reachable and no further behind than max-lag
+ *  - A replica that fails to hand out a connection is skipped until the next successful probe
+ *  - The probe measures each replica's replay lag every probe-interval
+ *
+ * Metrics:
+ *  inventory.datasource.reads{target=replica-N|primary, reason=replica|lagging|unavailable}
+ *  inventory.datasource.replica.lag{replica} - seconds, NaN while the replica cannot be reached, Infinity while it is not streaming
+ *  hikaricp.connections*{pool=inventory-replica-N} - each replica has its own pool
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryLagging;
+    private final Counter primaryUnavailable;
+
+    public ReplicaSet(List<HikariDataSource> pools, Duration maxLag, String lagQuery, MeterRegistry meterRegistry) {
+        this.replicas = pools.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        this.primaryLagging = meterRegistry.counter("inventory.datasource.reads", "target", "primary", "reason", "lagging");
+        this.primaryUnavailable = meterRegistry.counter("inventory.datasource.reads", "target", "primary", "reason", "unavailable");
+    }
+
+    /**
+     * A connection to a usable replica, or null when the read has to go to the primary (already counted).
+     */
+    public Connection connectionOrNull() {
+        boolean anyReachable = false;
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.reachable) {
+                continue;
+            }
+            anyReachable = true;
+            if (replica.lagSeconds > maxLagSeconds) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Pool timed out / replica went away - stop sending reads there until the probe sees it again
+                log.warn("Replica {} unavailable, skipping it: {}", replica.name, e.getMessage());
+                replica.reachable = false;
+            }
+        }
+
+        (anyReachable ? primaryLagging : primaryUnavailable).increment();
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.datasource.replicas.probe-interval-ms:1000}")
+    public void probe() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(lagQuery)) {
+                replica.lagSeconds = lag.next() ? lag.getDouble(1) : 0;
+                if (!replica.reachable) {
+                    log.info("Replica {} is reachable again (lag {}s)", replica.name, replica.lagSeconds);
+                }
+                replica.reachable = true;
+            } catch (SQLException e) {
+                if (replica.reachable) {
+                    log.warn("Lag probe of replica {} failed: {}", replica.name, e.getMessage());
+                }
+                replica.reachable = false;
+                replica.lagSeconds = Double.NaN;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final Counter reads;
+        // Optimistic until the first probe has run; written by the probe, read on every read-only transaction
+        private volatile boolean reachable = true;
+        private volatile double lagSeconds;
+
+        private Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.name = pool.getPoolName();
+            this.reads = meterRegistry.counter("inventory.datasource.reads", "target", name, "reason", "replica");
+            Gauge.builder("inventory.datasource.replica.lag", this, replica -> replica.lagSeconds)
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+}
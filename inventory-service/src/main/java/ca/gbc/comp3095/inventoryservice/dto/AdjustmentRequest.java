@@ -0,0 +1,4 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+// delta > 0 restocks, delta < 0 takes stock out (rejected if it would go below zero)
+public record AdjustmentRequest(Integer delta) { }
@@ -0,0 +1,11 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+/**
+ * Outcome of a bulk import.
+ *  rowsRead     - CSV data rows copied into staging
+ *  distinctSkus - SKUs after de-duplication (last row wins for SNAPSHOT, rows are summed for DELTA)
+ *  inserted / updated / zeroed - rows written to t_inventory (zeroed: missing from a full snapshot)
+ *  skipped      - SKUs not written: unchanged, sharded, unknown or would go below zero (DELTA)
+ */
+public record ImportResult(String mode, long rowsRead, long distinctSkus, long inserted, long updated,
+                           long zeroed, long skipped, long millis) { }
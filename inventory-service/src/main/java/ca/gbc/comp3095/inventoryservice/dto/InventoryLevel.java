@@ -0,0 +1,7 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+/**
+ * Current stock of one SKU. version is the change-log version of the last change -
+ * a consumer applies a change event for this SKU only if its version is greater.
+ */
+public record InventoryLevel(String skuCode, Integer quantity, Long version) { }
@@ -0,0 +1,10 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+import java.util.List;
+
+/**
+ * Bootstrap for change-feed consumers: load the levels, then subscribe with sinceVersion=version.
+ * Every change after version arrives on the feed; changes already contained in the levels
+ * are ignored thanks to the per-SKU versions.
+ */
+public record InventorySnapshot(long version, List<InventoryLevel> levels) { }
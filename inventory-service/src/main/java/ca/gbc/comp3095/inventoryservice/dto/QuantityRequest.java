@@ -0,0 +1,3 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+public record QuantityRequest(Integer quantity) { }
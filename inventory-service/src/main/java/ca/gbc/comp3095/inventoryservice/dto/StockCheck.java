@@ -0,0 +1,4 @@
+package ca.gbc.comp3095.inventoryservice.dto;
+
+// One entry of POST /api/inventory/availability - is there at least quantity of skuCode?
+public record StockCheck(String skuCode, Integer quantity) { }
@@ -0,0 +1,86 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeRecorder;
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import ca.gbc.comp3095.inventoryservice.sharding.ShardedInventory;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL is the source of truth - every change is one transaction with its change-log entry.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryEngine implements InventoryEngine {
+
+    private final InventoryRepository inventoryRepository;
+    private final ShardedInventory shardedInventory;
+    private final InventoryChangeRecorder changeRecorder;
+
+    @Override
+    public boolean isInStock(String skuCode, Integer quantity) {
+        // (through v_inventory_levels - sharded SKUs count the sum of their slots)
+        return inventoryRepository.isAvailable(skuCode, quantity);
+    }
+
+    @Override
+    public List<Boolean> areInStock(List<StockCheck> checks) {
+        // One query for every SKU in the batch, compared here
+        Map<String, Integer> onHand = inventoryRepository.findQuantities(checks.stream().map(StockCheck::skuCode).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(level -> (String) level[0], level -> (Integer) level[1]));
+        return checks.stream()
+                .map(check -> onHand.getOrDefault(check.skuCode(), -1) >= check.quantity())
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public InventoryLevel setQuantity(String skuCode, Integer quantity) {
+        if (inventoryRepository.upsertQuantity(skuCode, quantity) == 0) {
+            // Sharded SKU - spread the new total over its slots
+            shardedInventory.reshard(skuCode, inventoryRepository.findShardCount(skuCode).orElseThrow(), quantity);
+        }
+        return changeRecorder.record(skuCode);
+    }
+
+    @Override
+    @Transactional
+    public InventoryLevel adjustQuantity(String skuCode, Integer delta) {
+        // A SKU can be (un)sharded between reading shard_count and updating - both paths notice, so look again once
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int shardCount = inventoryRepository.findShardCount(skuCode)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown skuCode: " + skuCode));
+
+            if (shardCount > 0) {
+                switch (shardedInventory.adjust(skuCode, shardCount, delta)) {
+                    case APPLIED -> { return changeRecorder.record(skuCode); }
+                    case INSUFFICIENT -> throw notEnoughStock(skuCode, delta);
+                    case NOT_SHARDED -> { }
+                }
+            } else if (inventoryRepository.adjustQuantity(skuCode, delta) == 1) {
+                // Single conditional UPDATE - no read-modify-write race between concurrent adjustments
+                return changeRecorder.record(skuCode);
+            } else if (inventoryRepository.findShardCount(skuCode).orElse(0) == 0) {
+                throw notEnoughStock(skuCode, delta);
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Stock layout of " + skuCode + " changed concurrently, please retry");
+    }
+
+    static ResponseStatusException notEnoughStock(String skuCode, Integer delta) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Not enough stock of " + skuCode + " to apply an adjustment of " + delta);
+    }
+}
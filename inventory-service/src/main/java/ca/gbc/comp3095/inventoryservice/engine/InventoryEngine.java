@@ -0,0 +1,34 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
+
+import java.util.List;
+
+/**
+ * Where live stock is checked and changed. Selected with inventory.engine:
+ *  - database (default): PostgreSQL is the source of truth, one transaction per change
+ *  - redis: quantities live in Redis, changed by Lua scripts, written behind to PostgreSQL in batches
+ * Errors are ResponseStatusExceptions: 404 unknown SKU, 409 not enough stock.
+ */
+public interface InventoryEngine {
+
+    boolean isInStock(String skuCode, Integer quantity);
+
+    /**
+     * One answer per check, in the same order - a batch is one round trip to the store, not one per check.
+     */
+    List<Boolean> areInStock(List<StockCheck> checks);
+
+    InventoryLevel setQuantity(String skuCode, Integer quantity);
+
+    InventoryLevel adjustQuantity(String skuCode, Integer delta);
+
+    /**
+     * true if t_inventory rows ARE the live stock. Features that rewrite rows directly
+     * (sharded counters, bulk import) are only available then.
+     */
+    default boolean isDatabaseAuthoritative() {
+        return true;
+    }
+}
@@ -0,0 +1,136 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static ca.gbc.comp3095.inventoryservice.engine.RedisInventoryKeys.DELTA_STREAM;
+import static ca.gbc.comp3095.inventoryservice.engine.RedisInventoryKeys.quantity;
+
+/**
+ * Live quantities in Redis. Every reserve/release is ONE Lua script: check, update and journal the delta
+ * to a Redis Stream atomically - no database round trip on the request path.
+ * {@link WriteBehindFlusher} applies the journaled deltas to t_inventory in batches (and feeds the change log).
+ *
+ * Durability: a reservation is as durable as Redis' persistence (run it with appendonly yes / appendfsync
+ * everysec). Deltas that were journaled but not yet flushed survive an inventory-service crash and are
+ * replayed on the next flush.
+ *
+ * Returned levels carry the Redis quantity and no version - the version is assigned when the delta
+ * reaches the database and then shows up on the change feed.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "redis")
+public class RedisInventoryEngine implements InventoryEngine {
+
+    private static final long NOT_LOADED = -1;
+    private static final long INSUFFICIENT = -2;
+
+    private final StringRedisTemplate redisTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisScript<Long> adjustScript = RedisScript.of(new ClassPathResource("scripts/inventory-adjust.lua"), Long.class);
+    private final RedisScript<Long> setScript = RedisScript.of(new ClassPathResource("scripts/inventory-set.lua"), Long.class);
+    private final Counter reservations;
+    private final Counter rejections;
+
+    public RedisInventoryEngine(StringRedisTemplate redisTemplate,
+                                InventoryRepository inventoryRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.reservations = meterRegistry.counter("inventory.redis.adjustments", "outcome", "applied");
+        this.rejections = meterRegistry.counter("inventory.redis.adjustments", "outcome", "insufficient");
+    }
+
+    @Override
+    public boolean isInStock(String skuCode, Integer quantity) {
+        String current = redisTemplate.opsForValue().get(quantity(skuCode));
+        return current != null && Long.parseLong(current) >= quantity;
+    }
+
+    @Override
+    public List<Boolean> areInStock(List<StockCheck> checks) {
+        // One MGET for the whole batch
+        List<String> current = redisTemplate.opsForValue().multiGet(checks.stream().map(check -> quantity(check.skuCode())).toList());
+        List<Boolean> answers = new ArrayList<>(checks.size());
+        for (int i = 0; i < checks.size(); i++) {
+            String value = current == null ? null : current.get(i);
+            answers.add(value != null && Long.parseLong(value) >= checks.get(i).quantity());
+        }
+        return answers;
+    }
+
+    @Override
+    public InventoryLevel adjustQuantity(String skuCode, Integer delta) {
+        long result = adjust(skuCode, delta);
+        if (result == NOT_LOADED && load(skuCode)) {
+            result = adjust(skuCode, delta);
+        }
+        if (result == NOT_LOADED) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown skuCode: " + skuCode);
+        }
+        if (result == INSUFFICIENT) {
+            rejections.increment();
+            throw DatabaseInventoryEngine.notEnoughStock(skuCode, delta);
+        }
+        reservations.increment();
+        return new InventoryLevel(skuCode, (int) result, null);
+    }
+
+    @Override
+    public InventoryLevel setQuantity(String skuCode, Integer quantity) {
+        long result = set(skuCode, quantity);
+        if (result == NOT_LOADED) {
+            // New SKU: create its row (at 0) so write-behind deltas have something to apply to
+            transactionTemplate.executeWithoutResult(status -> inventoryRepository.insertIfAbsent(skuCode));
+            load(skuCode);
+            result = set(skuCode, quantity);
+        }
+        return new InventoryLevel(skuCode, (int) result, null);
+    }
+
+    @Override
+    public boolean isDatabaseAuthoritative() {
+        return false; // Redis holds the live quantities, the rows follow through the write-behind
+    }
+
+    /**
+     * Puts the database quantity into Redis unless Redis already has one (SET NX - never overwrites live stock).
+     * A SKU missing from Redis cannot have had Redis reservations, so its database row is up to date.
+     * @return false if the SKU does not exist in the database either
+     */
+    boolean load(String skuCode) {
+        return inventoryRepository.findLevelBySkuCode(skuCode)
+                .map(level -> {
+                    redisTemplate.opsForValue().setIfAbsent(quantity(skuCode), String.valueOf(level.quantity()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private long adjust(String skuCode, int delta) {
+        return redisTemplate.execute(adjustScript, List.of(quantity(skuCode), DELTA_STREAM), skuCode, String.valueOf(delta));
+    }
+
+    private long set(String skuCode, int quantity) {
+        return redisTemplate.execute(setScript, List.of(quantity(skuCode), DELTA_STREAM), skuCode, String.valueOf(quantity));
+    }
+}
@@ -0,0 +1,16 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+/**
+ * All keys share the {inventory} hash tag so the Lua scripts can touch a quantity and the
+ * delta stream together, also on Redis Cluster (they live in one slot).
+ */
+final class RedisInventoryKeys {
+
+    static final String DELTA_STREAM = "{inventory}:deltas";
+
+    private RedisInventoryKeys() { }
+
+    static String quantity(String skuCode) {
+        return "{inventory}:qty:" + skuCode;
+    }
+}
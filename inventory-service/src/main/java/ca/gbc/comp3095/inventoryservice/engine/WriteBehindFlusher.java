@@ -0,0 +1,227 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeRecorder;
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static ca.gbc.comp3095.inventoryservice.engine.RedisInventoryKeys.DELTA_STREAM;
+import static ca.gbc.comp3095.inventoryservice.engine.RedisInventoryKeys.quantity;
+
+/**
+ * Write-behind for the Redis engine: applies the journaled deltas (Redis Stream) to t_inventory.
+ *
+ * Each flush is one database transaction that
+ *  1. locks the cursor row in t_inventory_write_behind (SKIP LOCKED - one flushing instance at a time)
+ *  2. reads the stream entries after the cursor and sums them per SKU (10k reservations of one SKU = 1 UPDATE)
+ *  3. updates t_inventory + the change log, and moves the cursor
+ * Cursor and quantities commit together, so after a crash the next flush replays exactly the unapplied
+ * deltas. Entries before the cursor are trimmed from the stream afterwards.
+ *
+ * On startup it also reconciles: drains the journal, loads SKUs Redis does not know, and compares
+ * a consistent Redis cut with the database. Redis is the live ledger, so drift is corrected in the database.
+ * The cut is taken while holding the cursor, so a concurrent flush cannot move the database past it.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "redis")
+public class WriteBehindFlusher {
+
+    private static final int RECONCILE_ATTEMPTS = 50;
+    private static final long RECONCILE_RETRY_MILLIS = 100;
+    // What the snapshot script returns for an empty journal
+    private static final String EMPTY_STREAM = "0-0";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryChangeRecorder changeRecorder;
+    private final RedisInventoryEngine engine;
+    private final int batchSize;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> snapshotScript = RedisScript.of(new ClassPathResource("scripts/inventory-snapshot.lua"), List.class);
+
+    public WriteBehindFlusher(StringRedisTemplate redisTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              InventoryRepository inventoryRepository,
+                              InventoryChangeRecorder changeRecorder,
+                              RedisInventoryEngine engine,
+                              @Value("${inventory.redis.flush-batch-size:5000}") int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.changeRecorder = changeRecorder;
+        this.engine = engine;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.redis.flush-interval-ms:200}")
+    public void flushPending() {
+        Flushed flushed;
+        do {
+            flushed = transactionTemplate.execute(status -> flushBatch("+"));
+            if (flushed != null && flushed.lastId() != null) {
+                trimBefore(flushed.lastId());
+            }
+        } while (flushed != null && flushed.entries() >= batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        // 1. Crash recovery - apply whatever was journaled but not flushed before we went down
+        flushPending();
+
+        // 2. SKUs Redis does not hold (first start, Redis data lost) are loaded from the database
+        List<String> skuCodes = inventoryRepository.findAllLevels().stream().map(InventoryLevel::skuCode).toList();
+        skuCodes.forEach(engine::load);
+
+        // 3. Compare the database with a consistent Redis cut - flushed exactly up to that cut
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            Integer corrected = transactionTemplate.execute(status -> correctDrift(skuCodes));
+            if (corrected != null) {
+                log.info("Redis inventory engine reconciled {} SKU(s), {} corrected", skuCodes.size(), corrected);
+                return;
+            }
+            // Another flush (ours on schedule, or another instance) holds the cursor - let it finish
+            try {
+                Thread.sleep(RECONCILE_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.warn("Redis inventory engine not reconciled - the write-behind cursor stayed locked by other flushes");
+    }
+
+    /**
+     * Must run inside a transaction. The Redis cut is taken while this transaction holds the cursor, so no
+     * other flush can move the database past the cut before it is compared: a database ahead of the cut would
+     * look like drift, and "correcting" it would undo real deltas.
+     * @return number of SKUs corrected, null if another flush holds the cursor
+     */
+    private Integer correctDrift(List<String> skuCodes) {
+        if (lockCursor() == null) {
+            return null;
+        }
+
+        List<String> keys = new ArrayList<>(skuCodes.size() + 1);
+        keys.add(DELTA_STREAM);
+        skuCodes.forEach(skuCode -> keys.add(quantity(skuCode)));
+        List<?> cut = redisTemplate.execute(snapshotScript, keys);
+        String cutId = (String) cut.getFirst();
+
+        Flushed flushed;
+        do {
+            flushed = flushBatch(cutId);
+        } while (flushed != null && flushed.entries() >= batchSize);
+
+        // Holding the cursor it can only lag the cut, when the journal up to the cut is no longer complete
+        String cursor = lockCursor();
+        if (!cutId.equals(cursor) && !EMPTY_STREAM.equals(cutId)) {
+            log.warn("Skipping inventory drift check - write-behind cursor {} is not at the Redis cut {}", cursor, cutId);
+            return 0;
+        }
+
+        int drifted = 0;
+        for (int i = 0; i < skuCodes.size(); i++) {
+            String skuCode = skuCodes.get(i);
+            Object redisValue = cut.get(i + 1);
+            Integer database = inventoryRepository.findLevelBySkuCode(skuCode).map(InventoryLevel::quantity).orElse(null);
+            if (redisValue != null && database != null && !Objects.equals(Integer.valueOf((String) redisValue), database)) {
+                int difference = Integer.parseInt((String) redisValue) - database;
+                log.warn("Inventory {} drifted: redis={} database={} - correcting database", skuCode, redisValue, database);
+                inventoryRepository.applyDelta(skuCode, difference);
+                changeRecorder.record(skuCode);
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+
+    /**
+     * Must run inside a transaction.
+     * @param upTo last stream id to include ("+" = everything)
+     * @return null if another instance holds the cursor
+     */
+    private Flushed flushBatch(String upTo) {
+        String from = lockCursor();
+        if (from == null) {
+            return null;
+        }
+
+        // Inclusive range - the entry AT the cursor was applied by the previous flush and is skipped
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(DELTA_STREAM, Range.closed(from, upTo), Limit.limit().count(batchSize + 1));
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        String lastId = null;
+        int entries = 0;
+        for (MapRecord<String, Object, Object> record : records == null ? List.<MapRecord<String, Object, Object>>of() : records) {
+            String id = record.getId().getValue();
+            if (id.equals(from)) {
+                continue;
+            }
+            deltas.merge((String) record.getValue().get("sku"), Integer.parseInt((String) record.getValue().get("delta")), Integer::sum);
+            lastId = id;
+            entries++;
+        }
+        if (lastId == null) {
+            return new Flushed(0, null);
+        }
+
+        deltas.forEach((skuCode, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            if (inventoryRepository.applyDelta(skuCode, delta) == 0) {
+                log.warn("Dropping write-behind delta {} for unknown SKU {}", delta, skuCode);
+                return;
+            }
+            changeRecorder.record(skuCode);
+        });
+        jdbcTemplate.update("UPDATE t_inventory_write_behind SET last_stream_id = ?, updated_at = now() WHERE id = 1", lastId);
+        log.debug("Flushed {} inventory deltas ({} SKUs) up to {}", entries, deltas.size(), lastId);
+        return new Flushed(entries, lastId);
+    }
+
+    // Must run inside a transaction - null if another transaction holds the cursor (a lock we already hold is returned)
+    private String lockCursor() {
+        List<String> cursor = jdbcTemplate.queryForList(
+                "SELECT last_stream_id FROM t_inventory_write_behind WHERE id = 1 FOR UPDATE SKIP LOCKED", String.class);
+        return cursor.isEmpty() ? null : cursor.getFirst();
+    }
+
+    // XTRIM MINID: drop journal entries older than the (committed) cursor
+    private void trimBefore(String streamId) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.execute("XTRIM",
+                DELTA_STREAM.getBytes(StandardCharsets.UTF_8),
+                "MINID".getBytes(StandardCharsets.UTF_8),
+                streamId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Flushed(int entries, String lastId) { }
+}
@@ -21,6 +21,8 @@ public class Inventory {
 
     private String skuCode; // Do I have this product?
     private Integer quantity; // and do I have the volume that is requested?
+    private Long version; // version of the last change to this SKU (see t_inventory_changes)
+    private Integer shardCount; // > 0: stock lives in t_inventory_shards, quantity stays 0
 
 
 }
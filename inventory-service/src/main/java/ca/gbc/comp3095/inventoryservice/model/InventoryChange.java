@@ -0,0 +1,30 @@
+package ca.gbc.comp3095.inventoryservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * One row of the inventory change log. Rows are only ever written by InventoryChangeRepository.recordChange
+ * (in the same transaction as the quantity update) so the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(name="t_inventory_changes")
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryChange {
+
+    @Id
+    private Long version;   // global, increasing - the resume cursor for feed consumers
+
+    private String skuCode;
+    private Integer quantity; // quantity after the change
+    private Instant changedAt;
+
+}
@@ -0,0 +1,26 @@
+package ca.gbc.comp3095.inventoryservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only mapping of v_inventory_levels: the available quantity of every SKU,
+ * whether it is stored in the t_inventory row or split across shards.
+ */
+@Entity
+@Immutable
+@Table(name="v_inventory_levels")
+@Getter
+@NoArgsConstructor
+public class InventoryLevelView {
+
+    @Id
+    private String skuCode;
+
+    private Integer quantity;
+    private Long version;
+    private Integer shardCount;
+
+}
@@ -0,0 +1,33 @@
+package ca.gbc.comp3095.inventoryservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One slot of a sharded SKU's stock (see V4 migration).
+ */
+@Entity
+@Table(name="t_inventory_shards")
+@IdClass(InventoryShard.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryShard {
+
+    @Id
+    private String skuCode;
+
+    @Id
+    private Integer slot;
+
+    private Integer quantity;
+
+    public record Key(String skuCode, Integer slot) implements Serializable { }
+
+}
@@ -0,0 +1,65 @@
+package ca.gbc.comp3095.inventoryservice.repository;
+
+import ca.gbc.comp3095.inventoryservice.model.InventoryChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryChangeRepository extends JpaRepository<InventoryChange, Long> {
+
+    /**
+     * Appends the SKU's current level to the change log. Must run in the transaction that just updated
+     * the row - we still hold its lock, so the version and quantity copied here are exactly ours.
+     * Sharded SKUs do not touch their t_inventory row per reservation, so they take a fresh version here
+     * and log the slot total as seen by this transaction (InventoryShardRebalancer corrects any drift).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO t_inventory_changes (version, sku_code, quantity, changed_at)
+            SELECT CASE WHEN shard_count > 0 THEN nextval('t_inventory_changes_version_seq') ELSE version END,
+                   sku_code, quantity, now()
+            FROM v_inventory_levels WHERE sku_code = :skuCode
+            """, nativeQuery = true)
+    void recordChange(@Param("skuCode") String skuCode);
+
+    @Query(value = "SELECT quantity FROM t_inventory_changes WHERE sku_code = :skuCode ORDER BY version DESC LIMIT 1",
+            nativeQuery = true)
+    Optional<Integer> findLatestQuantity(@Param("skuCode") String skuCode);
+
+    // Range scan on the primary key - used for replay and by the feed poller
+    List<InventoryChange> findByVersionGreaterThanAndVersionLessThanEqualOrderByVersion(long after, long upTo, Limit limit);
+
+    List<InventoryChange> findByVersionGreaterThanOrderByVersion(long after, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM InventoryChange c")
+    long findLatestVersion();
+
+    @Query("SELECT COALESCE(MIN(c.version), 0) FROM InventoryChange c")
+    long findOldestVersion();
+
+    /**
+     * Running transactions that took a change version, for the feed poller's gaps. Every version comes from
+     * nextval('t_inventory_changes_version_seq'), which holds a RowExclusiveLock on the sequence until the
+     * transaction ends - unlike the cluster-wide transaction horizon, an unrelated long or idle transaction
+     * (another database, a psql session, a report) never shows up here.
+     */
+    @Query(value = """
+            SELECT virtualtransaction FROM pg_locks
+            WHERE locktype = 'relation'
+              AND database = (SELECT oid FROM pg_database WHERE datname = current_database())
+              AND relation = 't_inventory_changes_version_seq'::regclass
+              AND mode = 'RowExclusiveLock'
+              AND granted
+            """, nativeQuery = true)
+    List<String> findVersionTakers();
+
+    @Modifying
+    @Query("DELETE FROM InventoryChange c WHERE c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") Instant before);
+}
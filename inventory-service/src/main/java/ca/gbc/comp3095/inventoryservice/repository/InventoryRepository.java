@@ -1,8 +1,17 @@
 // Create this file second when setting up a new microservice after model
 package ca.gbc.comp3095.inventoryservice.repository;
 
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
 import ca.gbc.comp3095.inventoryservice.model.Inventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory,Long> {
 
@@ -21,5 +30,81 @@ public interface InventoryRepository extends JpaRepository<Inventory,Long> {
      */
     boolean existsBySkuCodeAndQuantityGreaterThanEqual(String skuCode, Integer quantity);
 
+    boolean existsBySkuCode(String skuCode);
+
+    // Reads go through v_inventory_levels so that sharded SKUs report the sum of their slots
+
+    @Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM InventoryLevelView l WHERE l.skuCode = :skuCode AND l.quantity >= :quantity")
+    boolean isAvailable(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
+
+    // [skuCode, quantity] of each known SKU - the batch stock check
+    @Query("SELECT l.skuCode, l.quantity FROM InventoryLevelView l WHERE l.skuCode IN :skuCodes")
+    List<Object[]> findQuantities(@Param("skuCodes") List<String> skuCodes);
+
+    @Query("SELECT new ca.gbc.comp3095.inventoryservice.dto.InventoryLevel(l.skuCode, l.quantity, l.version) FROM InventoryLevelView l WHERE l.skuCode = :skuCode")
+    Optional<InventoryLevel> findLevelBySkuCode(@Param("skuCode") String skuCode);
+
+    @Query("SELECT new ca.gbc.comp3095.inventoryservice.dto.InventoryLevel(l.skuCode, l.quantity, l.version) FROM InventoryLevelView l ORDER BY l.skuCode")
+    List<InventoryLevel> findAllLevels();
+
+    @Query("SELECT i.shardCount FROM Inventory i WHERE i.skuCode = :skuCode")
+    Optional<Integer> findShardCount(@Param("skuCode") String skuCode);
+
+    @Query("SELECT i.skuCode FROM Inventory i WHERE i.shardCount > 0")
+    List<String> findShardedSkuCodes();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Inventory> findForUpdateBySkuCode(String skuCode);
+
+    // The mutations below are native so that they are single atomic statements (no read-modify-write)
+    // and so the version is taken from the change sequence AFTER the row lock is held -
+    // concurrent changes to one SKU therefore always get increasing versions.
+
+    /**
+     * Adds delta (may be negative) unless that would take the quantity below zero.
+     * @return 1 if the row was changed, 0 if the SKU is unknown, sharded or there is not enough stock
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE t_inventory
+            SET quantity = quantity + :delta, version = nextval('t_inventory_changes_version_seq')
+            WHERE sku_code = :skuCode AND shard_count = 0 AND quantity + :delta >= 0
+            """, nativeQuery = true)
+    int adjustQuantity(@Param("skuCode") String skuCode, @Param("delta") int delta);
+
+    /**
+     * Write-behind of the Redis engine: Redis already enforced the stock check, the database just follows.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE t_inventory
+            SET quantity = quantity + :delta, version = nextval('t_inventory_changes_version_seq')
+            WHERE sku_code = :skuCode
+            """, nativeQuery = true)
+    int applyDelta(@Param("skuCode") String skuCode, @Param("delta") int delta);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO t_inventory (sku_code, quantity, version)
+            VALUES (:skuCode, 0, nextval('t_inventory_changes_version_seq'))
+            ON CONFLICT (sku_code) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("skuCode") String skuCode);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE t_inventory SET version = nextval('t_inventory_changes_version_seq') WHERE sku_code = :skuCode",
+            nativeQuery = true)
+    void nextVersion(@Param("skuCode") String skuCode);
+
+    // Returns 0 (nothing written) for a sharded SKU - its stock is set through ShardedInventory
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO t_inventory (sku_code, quantity, version)
+            VALUES (:skuCode, :quantity, nextval('t_inventory_changes_version_seq'))
+            ON CONFLICT (sku_code) DO UPDATE
+            SET quantity = EXCLUDED.quantity, version = nextval('t_inventory_changes_version_seq')
+            WHERE t_inventory.shard_count = 0
+            """, nativeQuery = true)
+    int upsertQuantity(@Param("skuCode") String skuCode, @Param("quantity") int quantity);
 
 }
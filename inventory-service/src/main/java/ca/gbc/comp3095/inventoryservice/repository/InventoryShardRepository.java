@@ -0,0 +1,38 @@
+package ca.gbc.comp3095.inventoryservice.repository;
+
+import ca.gbc.comp3095.inventoryservice.model.InventoryShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, InventoryShard.Key> {
+
+    /**
+     * Takes quantity from ONE slot, only if that slot alone has enough.
+     * @return 1 if taken, 0 if the slot ran dry (try another one)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE t_inventory_shards SET quantity = quantity - :quantity
+            WHERE sku_code = :skuCode AND slot = :slot AND quantity >= :quantity
+            """, nativeQuery = true)
+    int takeFromSlot(@Param("skuCode") String skuCode, @Param("slot") int slot, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE t_inventory_shards SET quantity = quantity + :quantity WHERE sku_code = :skuCode AND slot = :slot",
+            nativeQuery = true)
+    int addToSlot(@Param("skuCode") String skuCode, @Param("slot") int slot, @Param("quantity") int quantity);
+
+    // Locks every slot of the SKU, always in slot order so two lockers cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<InventoryShard> findBySkuCodeOrderBySlot(String skuCode);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM InventoryShard s WHERE s.skuCode = :skuCode")
+    void deleteBySkuCode(@Param("skuCode") String skuCode);
+}
@@ -2,8 +2,34 @@
 
 package ca.gbc.comp3095.inventoryservice.service;
 
+import ca.gbc.comp3095.inventoryservice.bulk.ImportMode;
+import ca.gbc.comp3095.inventoryservice.dto.ImportResult;
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.InventorySnapshot;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
+
+import java.io.InputStream;
+import java.util.List;
+
 public interface InventoryService {
 
      public boolean isInStock(String skuCode, Integer quantity);
 
+     // Many checks in one call (order-service batches its stock checks) - answers in request order
+     public List<Boolean> areInStock(List<StockCheck> checks);
+
+     // Every mutation below writes a versioned entry to the inventory change log
+
+     public InventoryLevel setQuantity(String skuCode, Integer quantity);
+
+     public InventoryLevel adjustQuantity(String skuCode, Integer delta);
+
+     // 0 = plain single row, N > 0 = stock split over N slots (for flash-sale SKUs)
+     public InventoryLevel setShardCount(String skuCode, Integer shards);
+
+     public InventorySnapshot getSnapshot();
+
+     // Bulk load of a CSV feed (sku_code,quantity) via COPY + one set-based merge
+     public ImportResult importCsv(InputStream csv, ImportMode mode, boolean zeroMissing);
+
 }
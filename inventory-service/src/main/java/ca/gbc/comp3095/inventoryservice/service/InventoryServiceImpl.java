@@ -2,10 +2,27 @@
 
 package ca.gbc.comp3095.inventoryservice.service;
 
+import ca.gbc.comp3095.inventoryservice.bulk.ImportMode;
+import ca.gbc.comp3095.inventoryservice.bulk.InventoryBulkImporter;
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeFeed;
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeRecorder;
+import ca.gbc.comp3095.inventoryservice.dto.ImportResult;
+import ca.gbc.comp3095.inventoryservice.dto.InventoryLevel;
+import ca.gbc.comp3095.inventoryservice.dto.InventorySnapshot;
+import ca.gbc.comp3095.inventoryservice.dto.StockCheck;
+import ca.gbc.comp3095.inventoryservice.engine.InventoryEngine;
 import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import ca.gbc.comp3095.inventoryservice.sharding.ShardedInventory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -14,12 +31,91 @@ public class InventoryServiceImpl implements InventoryService {
 
     // Inventory service needs access to our repository
     private final InventoryRepository _inventoryRepository;
+    // Live stock checks and changes go through the configured engine (inventory.engine)
+    private final InventoryEngine _inventoryEngine;
+    private final InventoryChangeFeed _inventoryChangeFeed;
+    private final InventoryChangeRecorder _inventoryChangeRecorder;
+    private final ShardedInventory _shardedInventory;
+    private final InventoryBulkImporter _inventoryBulkImporter;
+
+    private static final int MAX_SHARDS = 256;
+    private static final int MAX_STOCK_CHECKS = 1000;
 
     @Override
+    @Transactional(readOnly = true) // served by a read replica when inventory.datasource.replicas.enabled=true
     public boolean isInStock(String skuCode, Integer quantity) {
         //return the result of the check for stock availability
-        return _inventoryRepository.existsBySkuCodeAndQuantityGreaterThanEqual(skuCode, quantity);
+        return _inventoryEngine.isInStock(skuCode, quantity);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Boolean> areInStock(List<StockCheck> checks) {
+        if (checks == null || checks.isEmpty()) {
+            return List.of();
+        }
+        if (checks.size() > MAX_STOCK_CHECKS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_STOCK_CHECKS + " checks per request");
+        }
+        for (StockCheck check : checks) {
+            if (check.skuCode() == null || check.quantity() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "skuCode and quantity are required");
+            }
+        }
+        return _inventoryEngine.areInStock(checks);
     }
 
+    @Override
+    public InventoryLevel setQuantity(String skuCode, Integer quantity) {
+        if (quantity == null || quantity < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quantity must be zero or more");
+        }
+        return _inventoryEngine.setQuantity(skuCode, quantity);
+    }
+
+    @Override
+    public InventoryLevel adjustQuantity(String skuCode, Integer delta) {
+        if (delta == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "delta is required");
+        }
+        return _inventoryEngine.adjustQuantity(skuCode, delta);
+    }
+
+    @Override
+    @Transactional
+    public InventoryLevel setShardCount(String skuCode, Integer shards) {
+        if (!_inventoryEngine.isDatabaseAuthoritative()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sharded counters are not used with the configured inventory engine");
+        }
+        if (shards == null || shards < 0 || shards > MAX_SHARDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "shards must be between 0 and " + MAX_SHARDS);
+        }
+        if (!_shardedInventory.reshard(skuCode, shards, null)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown skuCode: " + skuCode);
+        }
+        log.info("Inventory {} now uses {} shard(s)", skuCode, shards);
+        return _inventoryChangeRecorder.record(skuCode);
+    }
+
+    @Override
+    public ImportResult importCsv(InputStream csv, ImportMode mode, boolean zeroMissing) {
+        if (!_inventoryEngine.isDatabaseAuthoritative()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Bulk import writes t_inventory directly and is not available with the configured inventory engine");
+        }
+        try {
+            return _inventoryBulkImporter.importCsv(csv, mode, zeroMissing);
+        } catch (DataAccessException e) {
+            // Malformed CSV - Postgres reports the offending line, nothing has been applied
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import rejected: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    @Override
+    public InventorySnapshot getSnapshot() {
+        // Read the feed version BEFORE the levels: anything committed in between is in both,
+        // which is harmless because consumers drop changes that are not newer than what they hold
+        long version = _inventoryChangeFeed.currentVersion();
+        return new InventorySnapshot(version, _inventoryRepository.findAllLevels());
+    }
 
 }
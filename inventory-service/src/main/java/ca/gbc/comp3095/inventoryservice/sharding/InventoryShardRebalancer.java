@@ -0,0 +1,50 @@
+package ca.gbc.comp3095.inventoryservice.sharding;
+
+import ca.gbc.comp3095.inventoryservice.repository.InventoryChangeRepository;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * Periodic housekeeping for sharded SKUs, one short transaction per SKU:
+ *  - redistributes stock when some slots have run (nearly) dry, so reservations keep hitting
+ *    single slots instead of falling back to locking all of them
+ *  - logs the exact slot total to the change feed if it differs from the last logged quantity
+ *    (concurrent reservations each log the total they saw, which can be off until the next change)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryShardRebalancer {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryChangeRepository changeRepository;
+    private final ShardedInventory shardedInventory;
+    private final TransactionTemplate transactionTemplate;
+
+    // Rebalance when the emptiest slot holds less than this fraction of the average slot
+    @Value("${inventory.shards.rebalance.min-slot-fraction:0.25}")
+    private double minSlotFraction;
+
+    @Scheduled(fixedDelayString = "${inventory.shards.rebalance.interval-ms:5000}")
+    public void rebalance() {
+        for (String skuCode : inventoryRepository.findShardedSkuCodes()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                boolean rebalanced = shardedInventory.rebalance(skuCode, minSlotFraction);
+                Integer total = inventoryRepository.findLevelBySkuCode(skuCode).map(level -> level.quantity()).orElse(null);
+                if (rebalanced) {
+                    log.debug("Rebalanced slots of {} (total {})", skuCode, total);
+                }
+                if (!Objects.equals(total, changeRepository.findLatestQuantity(skuCode).orElse(null))) {
+                    changeRepository.recordChange(skuCode);
+                }
+            });
+        }
+    }
+}
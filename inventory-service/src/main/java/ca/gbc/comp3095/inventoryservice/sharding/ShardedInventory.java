@@ -0,0 +1,131 @@
+package ca.gbc.comp3095.inventoryservice.sharding;
+
+import ca.gbc.comp3095.inventoryservice.model.Inventory;
+import ca.gbc.comp3095.inventoryservice.model.InventoryShard;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryRepository;
+import ca.gbc.comp3095.inventoryservice.repository.InventoryShardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock operations for sharded SKUs. All methods must run inside the caller's transaction.
+ *
+ * Taking stock starts at a random slot and moves on to the next one when a slot runs dry, so concurrent
+ * reservations spread over different row locks. Only when no single slot can cover the request do we lock
+ * all slots and take across them - correct, but serialised, which the rebalancer tries to keep rare.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardedInventory {
+
+    public enum Outcome {
+        APPLIED,
+        INSUFFICIENT,
+        NOT_SHARDED // the SKU was un-sharded concurrently - the caller retries on the single row
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryShardRepository shardRepository;
+
+    public Outcome adjust(String skuCode, int shardCount, int delta) {
+        if (delta >= 0) {
+            int slot = ThreadLocalRandom.current().nextInt(shardCount);
+            return shardRepository.addToSlot(skuCode, slot, delta) == 1 ? Outcome.APPLIED : Outcome.NOT_SHARDED;
+        }
+        return take(skuCode, shardCount, -delta);
+    }
+
+    private Outcome take(String skuCode, int shardCount, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            if (shardRepository.takeFromSlot(skuCode, (start + i) % shardCount, quantity) == 1) {
+                return Outcome.APPLIED;
+            }
+        }
+
+        // No single slot is big enough - the total still might be
+        List<InventoryShard> slots = shardRepository.findBySkuCodeOrderBySlot(skuCode);
+        if (slots.isEmpty()) {
+            return Outcome.NOT_SHARDED;
+        }
+        int total = slots.stream().mapToInt(InventoryShard::getQuantity).sum();
+        if (total < quantity) {
+            return Outcome.INSUFFICIENT;
+        }
+        int remaining = quantity;
+        for (InventoryShard slot : slots) {
+            int taken = Math.min(slot.getQuantity(), remaining);
+            slot.setQuantity(slot.getQuantity() - taken);
+            remaining -= taken;
+        }
+        shardRepository.saveAllAndFlush(slots);
+        return Outcome.APPLIED;
+    }
+
+    /**
+     * Changes the number of slots of a SKU (0 = back to the single row) and/or sets its total.
+     * Locks the SKU row first, so it is serialised with every other reshard of the same SKU.
+     * @param total the new total quantity, or null to keep the current one
+     * @return false if the SKU does not exist
+     */
+    public boolean reshard(String skuCode, int shardCount, Integer total) {
+        Inventory inventory = inventoryRepository.findForUpdateBySkuCode(skuCode).orElse(null);
+        if (inventory == null) {
+            return false;
+        }
+
+        int current = inventory.getShardCount() > 0
+                ? shardRepository.findBySkuCodeOrderBySlot(skuCode).stream().mapToInt(InventoryShard::getQuantity).sum()
+                : inventory.getQuantity();
+        int newTotal = total != null ? total : current;
+
+        inventory.setShardCount(shardCount);
+        inventory.setQuantity(shardCount > 0 ? 0 : newTotal);
+
+        // (clears the persistence context - inventory is merged back below, its row lock is kept)
+        shardRepository.deleteBySkuCode(skuCode);
+        if (shardCount > 0) {
+            shardRepository.saveAll(split(skuCode, shardCount, newTotal));
+        }
+        inventoryRepository.saveAndFlush(inventory);
+        inventoryRepository.nextVersion(skuCode);
+        return true;
+    }
+
+    /**
+     * Evens out the slots of a SKU if the emptiest one has fallen below minSlotFraction of the average.
+     * @return true if the slots were rewritten
+     */
+    public boolean rebalance(String skuCode, double minSlotFraction) {
+        List<InventoryShard> slots = shardRepository.findBySkuCodeOrderBySlot(skuCode);
+        if (slots.size() < 2) {
+            return false;
+        }
+        int total = slots.stream().mapToInt(InventoryShard::getQuantity).sum();
+        int smallest = slots.stream().mapToInt(InventoryShard::getQuantity).min().orElse(0);
+        double average = (double) total / slots.size();
+        if (total == 0 || smallest >= average * minSlotFraction) {
+            return false;
+        }
+        List<InventoryShard> even = split(skuCode, slots.size(), total);
+        for (int i = 0; i < slots.size(); i++) {
+            slots.get(i).setQuantity(even.get(i).getQuantity());
+        }
+        shardRepository.saveAllAndFlush(slots);
+        return true;
+    }
+
+    // Even split, the remainder goes to the first slots
+    private static List<InventoryShard> split(String skuCode, int shardCount, int total) {
+        List<InventoryShard> slots = new ArrayList<>(shardCount);
+        for (int slot = 0; slot < shardCount; slot++) {
+            int quantity = total / shardCount + (slot < total % shardCount ? 1 : 0);
+            slots.add(new InventoryShard(skuCode, slot, quantity));
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,21 @@
+-- ---------------------------------------------------------------------------
+-- Inventory change feed.
+--  - Every quantity mutation takes the next value of the change sequence and writes it
+--    to t_inventory.version AND to a row in t_inventory_changes (same transaction)
+--  - t_inventory_changes is the durable, ordered log consumers resume from (version = cursor)
+--  - t_inventory.version is the per-SKU version: consumers apply a change only if it is newer
+-- ---------------------------------------------------------------------------
+
+-- One row per SKU - mutations address rows by sku_code (and upserts need the conflict target)
+ALTER TABLE t_inventory ADD CONSTRAINT uk_inventory_sku_code UNIQUE (sku_code);
+
+ALTER TABLE t_inventory ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE t_inventory_changes (
+    version BIGSERIAL PRIMARY KEY,
+    sku_code VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,          -- quantity AFTER the change (absolute - replaying is idempotent)
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_inventory_changes_changed_at ON t_inventory_changes (changed_at);
@@ -0,0 +1,30 @@
+-- ---------------------------------------------------------------------------
+-- Optional sharded counters for very hot SKUs.
+-- A SKU with shard_count > 0 keeps its stock in shard_count rows of t_inventory_shards
+-- (t_inventory.quantity stays 0). Reservations lock ONE slot instead of the single SKU row,
+-- so up to shard_count of them proceed in parallel. Available stock = sum of the slots.
+-- ---------------------------------------------------------------------------
+
+ALTER TABLE t_inventory ADD COLUMN shard_count INT NOT NULL DEFAULT 0;
+
+-- fillfactor leaves room on each page so slot updates stay HOT (no index writes per reservation)
+CREATE TABLE t_inventory_shards (
+    sku_code VARCHAR(255) NOT NULL,
+    slot INT NOT NULL,
+    quantity INT NOT NULL CHECK (quantity >= 0),
+    PRIMARY KEY (sku_code, slot)
+) WITH (fillfactor = 50);
+
+-- What every read uses: the row quantity for normal SKUs, the slot total for sharded ones
+CREATE VIEW v_inventory_levels AS
+SELECT i.sku_code,
+       CASE WHEN i.shard_count > 0 THEN COALESCE(s.total, 0) ELSE i.quantity END AS quantity,
+       i.version,
+       i.shard_count
+FROM t_inventory i
+LEFT JOIN LATERAL (
+    SELECT SUM(quantity)::INT AS total FROM t_inventory_shards WHERE sku_code = i.sku_code
+) s ON i.shard_count > 0;
+
+-- Latest logged quantity per SKU (the rebalancer compares it with the slot total)
+CREATE INDEX idx_inventory_changes_sku_version ON t_inventory_changes (sku_code, version DESC);
@@ -0,0 +1,10 @@
+-- Redis engine write-behind: id of the last Redis Stream entry applied to t_inventory.
+-- Updated in the same transaction as the quantities, so every journaled delta is applied exactly once,
+-- and locked (FOR UPDATE SKIP LOCKED) so only one inventory instance flushes at a time.
+CREATE TABLE t_inventory_write_behind (
+    id INT PRIMARY KEY CHECK (id = 1),
+    last_stream_id VARCHAR(64) NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+INSERT INTO t_inventory_write_behind (id, last_stream_id) VALUES (1, '0-0');
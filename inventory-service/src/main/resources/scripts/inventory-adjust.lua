@@ -0,0 +1,17 @@
+-- Atomically adds a delta to a SKU's quantity unless it would go below zero,
+-- and journals the delta for the write-behind to PostgreSQL.
+-- KEYS[1] = quantity key, KEYS[2] = delta stream
+-- ARGV[1] = sku code, ARGV[2] = delta (negative = reserve, positive = release/restock)
+-- Returns the new quantity, -1 if the SKU is not loaded, -2 if there is not enough stock
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return -1
+end
+local delta = tonumber(ARGV[2])
+local updated = tonumber(current) + delta
+if updated < 0 then
+    return -2
+end
+redis.call('SET', KEYS[1], updated)
+redis.call('XADD', KEYS[2], '*', 'sku', ARGV[1], 'delta', delta)
+return updated
@@ -0,0 +1,14 @@
+-- Sets a SKU's absolute quantity and journals the difference as a delta.
+-- KEYS[1] = quantity key, KEYS[2] = delta stream
+-- ARGV[1] = sku code, ARGV[2] = new quantity
+-- Returns the new quantity, or -1 if the SKU is not loaded
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return -1
+end
+local delta = tonumber(ARGV[2]) - tonumber(current)
+redis.call('SET', KEYS[1], ARGV[2])
+if delta ~= 0 then
+    redis.call('XADD', KEYS[2], '*', 'sku', ARGV[1], 'delta', delta)
+end
+return tonumber(ARGV[2])
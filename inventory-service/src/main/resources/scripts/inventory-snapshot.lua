@@ -0,0 +1,9 @@
+-- Consistent cut for reconciliation: the id of the last journaled delta plus the quantities at that moment.
+-- KEYS[1] = delta stream, KEYS[2..n] = quantity keys
+-- Returns { last stream id ('0-0' if empty), quantity of KEYS[2], ... } (nil for keys that are not loaded)
+local last = redis.call('XREVRANGE', KEYS[1], '+', '-', 'COUNT', 1)
+local result = { last[1] and last[1][1] or '0-0' }
+for i = 2, #KEYS do
+    result[i] = redis.call('GET', KEYS[i])
+end
+return result
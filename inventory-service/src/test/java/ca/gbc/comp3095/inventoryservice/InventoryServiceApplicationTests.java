@@ -1,5 +1,6 @@
 package ca.gbc.comp3095.inventoryservice;
 
+import ca.gbc.comp3095.inventoryservice.changefeed.InventoryChangeFeed;
 import io.restassured.RestAssured;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +11,23 @@ import org.springframework.boot.testcontainers.service.connection.ServiceConnect
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 // Tells Spring Boot to start the application with a random port for testing
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// (short emitter timeout so change-feed requests end and RestAssured can read the whole stream)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "inventory.changes.emitter-timeout=2s")
 public class InventoryServiceApplicationTests {
 
     // Spins up a PostgreSQL container using Testcontainers library
@@ -29,6 +42,12 @@ public class InventoryServiceApplicationTests {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private InventoryChangeFeed changeFeed;
+
     @BeforeEach
     void setup() {
         // Set the base URI and port for RestAssured so we can hit the running test server
@@ -81,4 +100,164 @@ public class InventoryServiceApplicationTests {
                 .statusCode(200)
                 .body(is("false"));                        // Should return "false" as item doesn't exist
     }
+
+    @Test
+    void batchOfStockChecksIsAnsweredInRequestOrder() {
+        // In stock, not enough, unknown SKU, and the first SKU again with a smaller quantity
+        given()
+                .contentType("application/json")
+                .body("""
+                        [{"skuCode": "SKU001", "quantity": 200},
+                         {"skuCode": "SKU002", "quantity": 51},
+                         {"skuCode": "NON_EXISTENT_SKU", "quantity": 1},
+                         {"skuCode": "SKU001", "quantity": 1}]
+                        """)
+                .when()
+                .post("/api/inventory/availability")
+                .then()
+                .log().all()
+                .statusCode(200)
+                .body("", contains(true, false, false, true));
+    }
+
+    @Test
+    void quantityChangesAreVersionedAndReplayedOnTheChangeFeed() {
+        // Restock SKU001 and remember the version the change was given
+        long version = given()
+                .contentType("application/json")
+                .body("{\"delta\": 25}")
+                .when()
+                .post("/api/inventory/SKU001/adjustments")
+                .then()
+                .statusCode(200)
+                .body("quantity", is(225))
+                .body("version", greaterThan(0))
+                .extract().jsonPath().getLong("version");
+
+        // Taking out more than is on hand is rejected and does not produce a change
+        given()
+                .contentType("application/json")
+                .body("{\"delta\": -500}")
+                .when()
+                .post("/api/inventory/SKU002/adjustments")
+                .then()
+                .statusCode(409);
+
+        // A consumer resuming from just before our change gets it replayed with its version as the event id
+        given()
+                .queryParam("sinceVersion", version - 1)
+                .when()
+                .get("/api/inventory/changes")
+                .then()
+                .statusCode(200)
+                .body(containsString("id:" + version))
+                .body(containsString("event:inventory-change"))
+                .body(containsString("\"skuCode\":\"SKU001\",\"quantity\":225"));
+    }
+
+    @Test
+    void changeFeedWaitsForALongTransactionInsteadOfSkippingItsVersion() throws Exception {
+        long held;
+        long later;
+        // Like a bulk import: takes a version, then stays open while later changes commit
+        try (Connection importer = dataSource.getConnection()) {
+            importer.setAutoCommit(false);
+            try (Statement statement = importer.createStatement()) {
+                ResultSet updated = statement.executeQuery("""
+                        UPDATE t_inventory SET quantity = 300, version = nextval('t_inventory_changes_version_seq')
+                        WHERE sku_code = 'SKU001' RETURNING version
+                        """);
+                updated.next();
+                held = updated.getLong(1);
+                statement.executeUpdate("INSERT INTO t_inventory_changes (version, sku_code, quantity, changed_at) VALUES ("
+                        + held + ", 'SKU001', 300, now())");
+            }
+
+            later = adjustSku002();
+            assertTrue(later > held);
+
+            // The poller has looked at the gap again and found the transaction that took it still open
+            await(() -> changeFeed.pendingGap() == held, "feed waiting for version " + held);
+            assertTrue(changeFeed.currentVersion() < held);
+
+            importer.commit();
+        }
+        awaitFeedVersion(later);
+
+        // A rolled back version is a permanent gap - skipped once its transaction is gone,
+        // even while an unrelated transaction (a report, an idle psql session) stays open
+        try (Connection idle = dataSource.getConnection()) {
+            idle.setAutoCommit(false);
+            try (Statement statement = idle.createStatement()) {
+                statement.executeQuery("SELECT pg_current_xact_id()").close();
+            }
+            try (Connection rolledBack = dataSource.getConnection()) {
+                rolledBack.setAutoCommit(false);
+                try (Statement statement = rolledBack.createStatement()) {
+                    statement.executeUpdate("UPDATE t_inventory SET version = nextval('t_inventory_changes_version_seq') WHERE sku_code = 'SKU001'");
+                }
+                rolledBack.rollback();
+            }
+            awaitFeedVersion(adjustSku002());
+            idle.rollback();
+        }
+    }
+
+    private long adjustSku002() {
+        return given()
+                .contentType("application/json")
+                .body("{\"delta\": 1}")
+                .when()
+                .post("/api/inventory/SKU002/adjustments")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getLong("version");
+    }
+
+    private void awaitFeedVersion(long version) throws InterruptedException {
+        await(() -> changeFeed.currentVersion() >= version, "feed at version " + version);
+    }
+
+    private static void await(BooleanSupplier condition, String description) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean(), description);
+    }
+
+    @Test
+    void csvSnapshotIsCopiedAndMergedIntoInventory() {
+        // SKU001 changes, SKU002 is unchanged, SKU003 is new and listed twice (last row wins)
+        String csv = """
+                sku_code,quantity
+                SKU001,175
+                SKU002,50
+                SKU003,1
+                SKU003,30
+                """;
+
+        given()
+                .contentType("text/csv")
+                .body(csv)
+                .queryParam("mode", "SNAPSHOT")
+                .when()
+                .post("/api/inventory/import")
+                .then()
+                .log().all()
+                .statusCode(200)
+                .body("rowsRead", is(4))
+                .body("distinctSkus", is(3))
+                .body("inserted", is(1))
+                .body("updated", is(1))
+                .body("skipped", is(1));
+
+        given()
+                .queryParam("skuCode", "SKU003")
+                .queryParam("quantity", 30)
+                .when()
+                .get("/api/inventory")
+                .then()
+                .statusCode(200)
+                .body(is("true"));
+    }
 }
@@ -0,0 +1,134 @@
+package ca.gbc.comp3095.inventoryservice.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.RestAssured;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Two independent PostgreSQL containers play primary and replica. They are NOT replicating - the replica
+ * gets the same schema and deliberately different stock, so every answer shows which database served it.
+ * The replica's lag comes from a table the test controls instead of the pg_last_xact_replay_timestamp() query.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReadReplicaRoutingTests {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static JdbcTemplate replicaJdbc;
+
+    static {
+        primary.start();
+        replica.start();
+        // Same migrations as the primary, as a real replica would have them
+        Flyway.configure().dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()).load().migrate();
+        replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+        replicaJdbc.execute("CREATE TABLE t_test_replica_lag (lag_seconds numeric NOT NULL)");
+        replicaJdbc.execute("INSERT INTO t_test_replica_lag VALUES (0)");
+    }
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventory.datasource.replicas.enabled", () -> "true");
+        registry.add("inventory.datasource.replicas.urls", replica::getJdbcUrl);
+        registry.add("inventory.datasource.replicas.username", replica::getUsername);
+        registry.add("inventory.datasource.replicas.password", replica::getPassword);
+        registry.add("inventory.datasource.replicas.max-lag", () -> "2s");
+        registry.add("inventory.datasource.replicas.lag-query", () -> "SELECT lag_seconds FROM t_test_replica_lag");
+        // The tests call probe() themselves
+        registry.add("inventory.datasource.replicas.probe-interval-ms", () -> "3600000");
+    }
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.baseURI = "http://localhost";
+        RestAssured.port = port;
+
+        // The primary has none of SKU_R, the replica has plenty
+        jdbcTemplate.execute("DELETE FROM t_inventory WHERE sku_code = 'SKU_R'");
+        jdbcTemplate.execute("INSERT INTO t_inventory (sku_code, quantity) VALUES ('SKU_R', 0)");
+        replicaJdbc.execute("DELETE FROM t_inventory WHERE sku_code = 'SKU_R'");
+        replicaJdbc.execute("INSERT INTO t_inventory (sku_code, quantity) VALUES ('SKU_R', 100)");
+
+        replicaJdbc.update("UPDATE t_test_replica_lag SET lag_seconds = 0");
+        replicaSet.probe();
+    }
+
+    @Test
+    void stockChecksReadFromTheReplicaAndWritesGoToThePrimary() {
+        double before = reads("inventory-replica-1", "replica");
+
+        given().queryParam("skuCode", "SKU_R").queryParam("quantity", 10)
+                .when().get("/api/inventory")
+                .then().statusCode(200).body(is("true"));
+
+        assertEquals(before + 1, reads("inventory-replica-1", "replica"));
+
+        // The adjustment is a read-write transaction - applied to the primary's 0, not the replica's 100
+        given().contentType("application/json").body("{\"delta\": 5}")
+                .when().post("/api/inventory/SKU_R/adjustments")
+                .then().statusCode(200).body("quantity", is(5));
+
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT quantity FROM t_inventory WHERE sku_code = 'SKU_R'", Integer.class));
+        assertEquals(100, replicaJdbc.queryForObject("SELECT quantity FROM t_inventory WHERE sku_code = 'SKU_R'", Integer.class));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replicaJdbc.update("UPDATE t_test_replica_lag SET lag_seconds = 30");
+        replicaSet.probe();
+        double before = reads("primary", "lagging");
+
+        // Answered by the primary, which has none
+        given().queryParam("skuCode", "SKU_R").queryParam("quantity", 10)
+                .when().get("/api/inventory")
+                .then().statusCode(200).body(is("false"));
+
+        assertEquals(before + 1, reads("primary", "lagging"));
+        assertEquals(30.0, meterRegistry.get("inventory.datasource.replica.lag").tag("replica", "inventory-replica-1").gauge().value());
+    }
+
+    @Test
+    void primaryAndReplicaPoolsReportTheirOwnMetrics() {
+        given().queryParam("skuCode", "SKU_R").queryParam("quantity", 1).when().get("/api/inventory");
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "inventory-primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "inventory-replica-1").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "inventory-replica-1").timer());
+    }
+
+    private double reads(String target, String reason) {
+        var counter = meterRegistry.find("inventory.datasource.reads").tags("target", target, "reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,70 @@
+package ca.gbc.comp3095.inventoryservice.datasource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The lag query from application.properties as shipped - ReadReplicaRoutingTests replaces it.
+ * The "replica" is a standby that has no primary to stream from: it stays in recovery, with nothing received
+ * and nothing replayed, which is what a replica whose WAL receiver lost the primary looks like to the query.
+ */
+class ReplicaLagQueryTests {
+
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    // Initialised as usual, then restarted as a standby by the signal file the init script leaves behind
+    static PostgreSQLContainer<?> disconnectedStandby = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCopyToContainer(Transferable.of("touch \"$PGDATA/standby.signal\"\n"),
+                    "/docker-entrypoint-initdb.d/standby.sh")
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept (read-only )?connections.*\\s", 2));
+
+    static String lagQuery;
+
+    @BeforeAll
+    static void start() throws IOException {
+        primary.start();
+        disconnectedStandby.start();
+        lagQuery = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"))
+                .getProperty("inventory.datasource.replicas.lag-query");
+    }
+
+    @AfterAll
+    static void stop() {
+        disconnectedStandby.stop();
+        primary.stop();
+    }
+
+    @Test
+    void primaryHasNoLag() {
+        assertEquals(0.0, lag(primary));
+    }
+
+    @Test
+    void standbyThatIsNotStreamingIsNeverFreshEnough() {
+        JdbcTemplate jdbc = jdbc(disconnectedStandby);
+        assertEquals(Boolean.TRUE, jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+
+        assertTrue(Double.isInfinite(lag(disconnectedStandby)), "a replica with no WAL receiver reported a lag");
+    }
+
+    private static double lag(PostgreSQLContainer<?> database) {
+        return jdbc(database).queryForObject(lagQuery, Double.class);
+    }
+
+    private static JdbcTemplate jdbc(PostgreSQLContainer<?> database) {
+        return new JdbcTemplate(new DriverManagerDataSource(database.getJdbcUrl(), database.getUsername(), database.getPassword()));
+    }
+}
@@ -0,0 +1,172 @@
+package ca.gbc.comp3095.inventoryservice.engine;
+
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Same endpoints as InventoryServiceApplicationTests, but with stock held in Redis and written behind to PostgreSQL
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "inventory.engine=redis",
+        "inventory.redis.flush-interval-ms=100"
+})
+class RedisInventoryEngineTests {
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.4.3"))
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort());
+
+    static {
+        postgreSQLContainer.start();
+        redis.start();
+    }
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private WriteBehindFlusher writeBehindFlusher;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.baseURI = "http://localhost";
+        RestAssured.port = port;
+    }
+
+    @Test
+    void reservationsAreEnforcedInRedisAndWrittenBehindToPostgres() throws Exception {
+        given().contentType("application/json").body("{\"quantity\": 10}")
+                .when().put("/api/inventory/REDIS_SKU")
+                .then().statusCode(200).body("quantity", is(10));
+
+        given().contentType("application/json").body("{\"delta\": -4}")
+                .when().post("/api/inventory/REDIS_SKU/adjustments")
+                .then().statusCode(200).body("quantity", is(6));
+
+        // Only 6 left - the Lua script refuses to go below zero
+        given().contentType("application/json").body("{\"delta\": -7}")
+                .when().post("/api/inventory/REDIS_SKU/adjustments")
+                .then().statusCode(409);
+
+        given().queryParam("skuCode", "REDIS_SKU").queryParam("quantity", 6)
+                .when().get("/api/inventory")
+                .then().statusCode(200).body(is("true"));
+
+        assertEquals(6, awaitDatabaseQuantity("REDIS_SKU", 6));
+    }
+
+    @Test
+    void journaledDeltasAreReplayedToPostgres() throws Exception {
+        given().contentType("application/json").body("{\"quantity\": 50}")
+                .when().put("/api/inventory/REPLAY_SKU")
+                .then().statusCode(200);
+        awaitDatabaseQuantity("REPLAY_SKU", 50);
+
+        // A delta that reached the journal but not the database (e.g. the service died right after the script ran)
+        redisTemplate.opsForStream().add(RedisInventoryKeys.DELTA_STREAM, Map.of("sku", "REPLAY_SKU", "delta", "-5"));
+        writeBehindFlusher.flushPending();
+
+        assertEquals(45, awaitDatabaseQuantity("REPLAY_SKU", 45));
+    }
+
+    @Test
+    void reconcileWaitsForAConcurrentFlushAndComparesAtItsOwnCut() throws Exception {
+        given().contentType("application/json").body("{\"quantity\": 50}")
+                .when().put("/api/inventory/RACE_SKU")
+                .then().statusCode(200);
+        given().contentType("application/json").body("{\"quantity\": 20}")
+                .when().put("/api/inventory/DRIFT_SKU")
+                .then().statusCode(200);
+        awaitDatabaseQuantity("RACE_SKU", 50);
+        awaitDatabaseQuantity("DRIFT_SKU", 20);
+        // Real drift - the database lost an update Redis has
+        jdbcTemplate.update("UPDATE t_inventory SET quantity = 7 WHERE sku_code = 'DRIFT_SKU'");
+
+        // "Another instance" is flushing: it holds the cursor while reconcile starts
+        try (Connection otherInstance = dataSource.getConnection()) {
+            otherInstance.setAutoCommit(false);
+            try (Statement statement = otherInstance.createStatement()) {
+                statement.executeQuery("SELECT last_stream_id FROM t_inventory_write_behind WHERE id = 1 FOR UPDATE").close();
+            }
+
+            given().contentType("application/json").body("{\"delta\": -5}")
+                    .when().post("/api/inventory/RACE_SKU/adjustments")
+                    .then().statusCode(200).body("quantity", is(45));
+            CompletableFuture<Void> reconcile = CompletableFuture.runAsync(writeBehindFlusher::reconcile);
+            Thread.sleep(300);
+            given().contentType("application/json").body("{\"delta\": -3}")
+                    .when().post("/api/inventory/RACE_SKU/adjustments")
+                    .then().statusCode(200).body("quantity", is(42));
+
+            // ... and commits both deltas, moving the cursor past anything reconcile could have seen so far
+            String lastId = redisTemplate.opsForStream()
+                    .reverseRange(RedisInventoryKeys.DELTA_STREAM, Range.unbounded(), Limit.limit().count(1))
+                    .getFirst().getId().getValue();
+            try (PreparedStatement flush = otherInstance.prepareStatement(
+                    "UPDATE t_inventory SET quantity = quantity - 8 WHERE sku_code = 'RACE_SKU'");
+                 PreparedStatement cursor = otherInstance.prepareStatement(
+                    "UPDATE t_inventory_write_behind SET last_stream_id = ? WHERE id = 1")) {
+                flush.executeUpdate();
+                cursor.setString(1, lastId);
+                cursor.executeUpdate();
+            }
+            otherInstance.commit();
+
+            reconcile.get(10, TimeUnit.SECONDS);
+        }
+
+        // The concurrent flush was not mistaken for drift, the real drift was corrected
+        assertEquals(42, quantityInDatabase("RACE_SKU"));
+        assertEquals("42", redisTemplate.opsForValue().get(RedisInventoryKeys.quantity("RACE_SKU")));
+        assertEquals(20, quantityInDatabase("DRIFT_SKU"));
+    }
+
+    private int quantityInDatabase(String skuCode) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM t_inventory WHERE sku_code = ?", Integer.class, skuCode);
+    }
+
+    private int awaitDatabaseQuantity(String skuCode, int expected) throws InterruptedException {
+        int quantity = -1;
+        for (int i = 0; i < 50 && quantity != expected; i++) {
+            quantity = jdbcTemplate.queryForObject("SELECT quantity FROM t_inventory WHERE sku_code = ?", Integer.class, skuCode);
+            Thread.sleep(100);
+        }
+        return quantity;
+    }
+}
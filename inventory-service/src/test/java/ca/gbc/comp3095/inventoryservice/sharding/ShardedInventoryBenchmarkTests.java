@@ -0,0 +1,108 @@
+package ca.gbc.comp3095.inventoryservice.sharding;
+
+import ca.gbc.comp3095.inventoryservice.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reservations per second on one hot SKU: single t_inventory row vs the same stock split over 16 slots.
+ * Every reservation is a real transaction (conditional update + change-log entry) against PostgreSQL.
+ *
+ * Not part of the normal build - run with:
+ *   ./gradlew :inventory-service:test --tests '*ShardedInventoryBenchmarkTests' -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=64",
+        "inventory.shards.rebalance.interval-ms=1000"
+})
+class ShardedInventoryBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedInventoryBenchmarkTests.class);
+
+    private static final int THREADS = 64;
+    private static final Duration RUN_TIME = Duration.ofSeconds(10);
+    private static final int STOCK = 10_000_000;
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCommand("postgres", "-c", "max_connections=200");
+
+    static {
+        postgreSQLContainer.start();
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void compareSingleRowAndShardedReservations() throws Exception {
+        inventoryService.setQuantity("BENCH_SINGLE", STOCK);
+        inventoryService.setQuantity("BENCH_SHARDED", STOCK);
+        inventoryService.setShardCount("BENCH_SHARDED", 16);
+
+        Result single = run("BENCH_SINGLE");
+        Result sharded = run("BENCH_SHARDED");
+
+        log.info("hot SKU reservations {}", single);
+        log.info("hot SKU reservations {}", sharded);
+
+        assertEquals(0, single.errors());
+        assertEquals(0, sharded.errors());
+        // No stock may be lost or created, whichever path a reservation took
+        assertEquals(STOCK - single.reservations(), inventoryService.getSnapshot().levels().stream()
+                .filter(level -> level.skuCode().equals("BENCH_SINGLE")).findFirst().orElseThrow().quantity());
+        assertEquals(STOCK - sharded.reservations(), inventoryService.getSnapshot().levels().stream()
+                .filter(level -> level.skuCode().equals("BENCH_SHARDED")).findFirst().orElseThrow().quantity());
+    }
+
+    private Result run(String skuCode) throws Exception {
+        AtomicLong reservations = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + RUN_TIME.toNanos();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            inventoryService.adjustQuantity(skuCode, -1);
+                            reservations.incrementAndGet();
+                        } catch (ResponseStatusException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return new Result(skuCode, reservations.get(), reservations.get() / (double) RUN_TIME.toSeconds(), errors.get());
+    }
+
+    private record Result(String skuCode, long reservations, double perSecond, long errors) {
+        @Override
+        public String toString() {
+            return "%-14s reservations=%d throughput=%.0f/s errors=%d".formatted(skuCode, reservations, perSecond, errors);
+        }
+    }
+}
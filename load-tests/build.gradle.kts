@@ -0,0 +1,66 @@
+// End-to-end load test: all four services (their boot jars, as separate processes) against
+// Testcontainers Postgres/Mongo/Redis, driven through the api-gateway at fixed arrival rates.
+// Opt-in, like the benchmark tests:
+//   ./gradlew :load-tests:test -Dloadtest=true
+//   ./gradlew :load-tests:test -Dloadtest=true -Dloadtest.duration=PT2M -Dloadtest.rate-scale=2 -Dloadtest.inventory=service
+// Report: build/reports/load-test/load-test-report.json
+plugins {
+    java
+    id("io.spring.dependency-management") version "1.1.7"
+}
+
+group = "ca.gbc.comp3095"
+version = "0.0.1-SNAPSHOT"
+description = "load-tests"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.5.5")
+    }
+}
+
+dependencies {
+    testImplementation(platform("org.testcontainers:testcontainers-bom:1.21.3"))
+    testImplementation("org.testcontainers:junit-jupiter")
+    testImplementation("org.testcontainers:postgresql")
+    testImplementation("org.testcontainers:mongodb")
+    // WireMock inventory stand-in - same library order-service's tests use
+    testImplementation("org.springframework.cloud:spring-cloud-starter-contract-stub-runner:4.3.0")
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("com.fasterxml.jackson.core:jackson-databind")
+    testImplementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    testCompileOnly("org.projectlombok:lombok")
+    testAnnotationProcessor("org.projectlombok:lombok")
+
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// The services under test are started from their executable jars, exactly as they are deployed
+val services = listOf("product-service", "order-service", "inventory-service", "api-gateway")
+services.forEach { evaluationDependsOn(":$it") }
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+    systemProperty("loadtest", System.getProperty("loadtest") ?: "false")
+    // Pass every -Dloadtest.* tuning knob through to the test JVM
+    System.getProperties().stringPropertyNames()
+        .filter { it.startsWith("loadtest.") }
+        .forEach { systemProperty(it, System.getProperty(it)) }
+    systemProperty("loadtest.report-dir", layout.buildDirectory.dir("reports/load-test").get().asFile.absolutePath)
+
+    services.forEach { service ->
+        val bootJar = project(":$service").tasks.named<Jar>("bootJar")
+        dependsOn(bootJar)
+        systemProperty("loadtest.jar.$service", bootJar.get().archiveFile.get().asFile.absolutePath)
+    }
+}
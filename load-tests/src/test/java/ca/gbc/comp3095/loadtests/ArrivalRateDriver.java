@@ -0,0 +1,88 @@
+package ca.gbc.comp3095.loadtests;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: every route sends at its fixed arrival rate no matter how slowly the
+ * system answers (a closed loop of N users would slow down with the system and hide the queueing).
+ * Latency is measured from the INTENDED send time, so time spent waiting behind a stalled
+ * server still counts - no coordinated omission.
+ */
+@Slf4j
+final class ArrivalRateDriver {
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    Map<Route, RouteStats> run(List<Route> routes, Duration duration) throws InterruptedException {
+        Map<Route, RouteStats> stats = new LinkedHashMap<>();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+
+        // One virtual thread per request, so a slow response never delays the next arrival
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Thread> pacers = routes.stream().map(route -> {
+                long period = (long) (1_000_000_000L / route.ratePerSecond());
+                int planned = (int) (duration.toNanos() / period);
+                RouteStats routeStats = new RouteStats(planned);
+                stats.put(route, routeStats);
+                return Thread.ofPlatform().name("pacer-" + route.name()).start(() ->
+                        pace(route, routeStats, requests, start, period, planned));
+            }).toList();
+
+            for (Thread pacer : pacers) {
+                pacer.join();
+            }
+            requests.shutdown();
+            if (!requests.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+                log.warn("Requests still in flight after the run - they are not part of the report");
+            }
+        }
+        return stats;
+    }
+
+    private void pace(Route route, RouteStats stats, ExecutorService requests, long start, long period, int planned) {
+        for (long i = 0; i < planned; i++) {
+            long intended = start + i * period;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long sequence = i;
+            requests.execute(() -> send(route, stats, sequence, intended));
+        }
+    }
+
+    private void send(Route route, RouteStats stats, long sequence, long intended) {
+        try {
+            HttpResponse<String> response = client.send(
+                    route.request().apply(sequence),
+                    HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            boolean success = status >= 200 && status < 300;
+            stats.record(System.nanoTime() - intended, String.valueOf(status), !success);
+            if (success) {
+                route.onSuccess().accept(response);
+            }
+        } catch (HttpTimeoutException e) {
+            stats.record(System.nanoTime() - intended, "timeout", true);
+        } catch (Exception e) {
+            stats.record(System.nanoTime() - intended, e.getClass().getSimpleName(), true);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ca.gbc.comp3095.loadtests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of one run - compare the JSON of two runs to see what a change did.
+ * Latencies are in milliseconds and include queueing before the request was actually sent.
+ */
+record LoadReport(Instant finishedAt,
+                  double durationSeconds,
+                  double rateScale,
+                  String inventory,
+                  List<RouteResult> routes) {
+
+    record RouteResult(String route,
+                       double targetRatePerSecond,
+                       long requests,
+                       long errors,
+                       double errorRate,
+                       double throughputPerSecond,
+                       double p50Millis,
+                       double p99Millis,
+                       double p999Millis,
+                       double maxMillis,
+                       Map<String, Long> outcomes) {
+
+        static RouteResult of(Route route, RouteStats stats, Duration duration) {
+            long[] sorted = stats.sortedLatencies();
+            long requests = sorted.length;
+            return new RouteResult(
+                    route.name(),
+                    route.ratePerSecond(),
+                    requests,
+                    stats.errors(),
+                    requests == 0 ? 0 : (double) stats.errors() / requests,
+                    requests / (duration.toNanos() / 1e9),
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.99),
+                    percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6,
+                    stats.outcomes());
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "%-24s %8.1f/s target %8.1f/s actual  p50=%8.2fms p99=%8.2fms p999=%8.2fms  errors=%d (%.2f%%)"
+                    .formatted(route, targetRatePerSecond, throughputPerSecond, p50Millis, p99Millis, p999Millis,
+                            errors, errorRate * 100);
+        }
+    }
+
+    static LoadReport of(Map<Route, RouteStats> stats, LoadTestSettings settings) {
+        List<RouteResult> routes = stats.entrySet().stream()
+                .map(entry -> RouteResult.of(entry.getKey(), entry.getValue(), settings.duration()))
+                .toList();
+        return new LoadReport(Instant.now(), settings.duration().toNanos() / 1e9, settings.rateScale(),
+                settings.inventoryStub() ? "wiremock" : "inventory-service", routes);
+    }
+
+    Path write(Path directory) throws IOException {
+        ObjectMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-test-report.json");
+        mapper.writeValue(file.toFile(), this);
+        return file;
+    }
+}
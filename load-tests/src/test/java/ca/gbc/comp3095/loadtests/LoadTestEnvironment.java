@@ -0,0 +1,149 @@
+package ca.gbc.comp3095.loadtests;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import lombok.extern.slf4j.Slf4j;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Everything the load test talks to, started from scratch for every run:
+ *  - PostgreSQL for order-service and for inventory-service (separate databases, as in docker-compose)
+ *  - MongoDB and Redis for product-service
+ *  - WireMock answering order-service's stock checks (unless loadtest.inventory=service)
+ *  - product-service, order-service, inventory-service and api-gateway from their boot jars
+ * Traffic only enters through the gateway.
+ */
+@Slf4j
+final class LoadTestEnvironment implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final PostgreSQLContainer<?> orderDatabase = new PostgreSQLContainer<>("postgres:15-alpine");
+    private final PostgreSQLContainer<?> inventoryDatabase = new PostgreSQLContainer<>("postgres:15-alpine");
+    private final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+    private final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.4.3"))
+            .withCommand("redis-server", "--requirepass", "password") // the services' default spring.data.redis.password
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort());
+    private final WireMockServer inventoryStub = new WireMockServer(options().dynamicPort());
+
+    private final List<ServiceProcess> services = new ArrayList<>();
+    private ServiceProcess gateway;
+
+    static LoadTestEnvironment start(LoadTestSettings settings) throws Exception {
+        LoadTestEnvironment environment = new LoadTestEnvironment();
+        try {
+            environment.startAll(settings);
+            return environment;
+        } catch (Exception e) {
+            environment.close();
+            throw e;
+        }
+    }
+
+    String gatewayUrl() {
+        return gateway.url();
+    }
+
+    private void startAll(LoadTestSettings settings) throws Exception {
+        Startables.deepStart(orderDatabase, inventoryDatabase, mongo, redis).join();
+
+        inventoryStub.start();
+        // Everything is in stock; a log-normal delay stands in for the real service's latency
+        inventoryStub.stubFor(get(urlPathEqualTo("/api/inventory"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("true")
+                        .withLogNormalRandomDelay(settings.inventoryDelay().toMillis(), 0.5)));
+        // Batched checks from order-service - one "true" per check in the request body
+        inventoryStub.stubFor(post(urlPathEqualTo("/api/inventory/availability"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[{{#each (parseJson request.body)}}true{{#unless @last}},{{/unless}}{{/each}}]")
+                        .withTransformers("response-template")
+                        .withLogNormalRandomDelay(settings.inventoryDelay().toMillis(), 0.5)));
+
+        int inventoryPort = ServiceProcess.freePort();
+        int productPort = ServiceProcess.freePort();
+        int orderPort = ServiceProcess.freePort();
+        int gatewayPort = ServiceProcess.freePort();
+
+        services.add(ServiceProcess.start("inventory-service", inventoryPort, settings, Map.of(
+                "spring.datasource.url", inventoryDatabase.getJdbcUrl(),
+                "spring.datasource.username", inventoryDatabase.getUsername(),
+                "spring.datasource.password", inventoryDatabase.getPassword(),
+                "spring.data.redis.host", redis.getHost(),
+                "spring.data.redis.port", String.valueOf(redis.getMappedPort(6379)))));
+
+        services.add(ServiceProcess.start("product-service", productPort, settings, Map.of(
+                "spring.data.mongodb.uri", mongo.getReplicaSetUrl("product-service"),
+                "spring.data.redis.host", redis.getHost(),
+                "spring.data.redis.port", String.valueOf(redis.getMappedPort(6379)))));
+
+        String inventoryUrl = settings.inventoryStub()
+                ? "http://localhost:" + inventoryStub.port()
+                : "http://localhost:" + inventoryPort;
+        Map<String, String> order = new LinkedHashMap<>(Map.of(
+                "spring.datasource.url", orderDatabase.getJdbcUrl(),
+                "spring.datasource.username", orderDatabase.getUsername(),
+                "spring.datasource.password", orderDatabase.getPassword(),
+                "spring.data.redis.host", redis.getHost(),
+                "spring.data.redis.port", String.valueOf(redis.getMappedPort(6379)),
+                "inventory.service.url", inventoryUrl));
+        if (settings.inventoryStub()) {
+            order.put("spring.cloud.openfeign.httpclient.http2.version", "HTTP_1_1"); // WireMock does not speak h2c
+        }
+        services.add(ServiceProcess.start("order-service", orderPort, settings, order));
+
+        gateway = ServiceProcess.start("api-gateway", gatewayPort, settings, Map.of(
+                "service.product-url", "http://localhost:" + productPort,
+                "service.order-url", "http://localhost:" + orderPort));
+        services.add(gateway);
+
+        for (ServiceProcess service : services) {
+            service.awaitHealthy(STARTUP_TIMEOUT);
+        }
+        log.info("Load test environment ready - gateway at {}, inventory {}", gateway.url(),
+                settings.inventoryStub() ? "stubbed by WireMock" : "served by inventory-service");
+    }
+
+    @Override
+    public void close() {
+        // Gateway first, then the services behind it, then their stores
+        List<ServiceProcess> stopOrder = new ArrayList<>(services);
+        Collections.reverse(stopOrder);
+        for (ServiceProcess service : stopOrder) {
+            try {
+                service.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (inventoryStub.isRunning()) {
+            inventoryStub.stop();
+        }
+        redis.stop();
+        mongo.stop();
+        inventoryDatabase.stop();
+        orderDatabase.stop();
+    }
+}
@@ -0,0 +1,36 @@
+package ca.gbc.comp3095.loadtests;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Every knob of the load test, read from -Dloadtest.* system properties (the Gradle build passes them through).
+ *  loadtest.duration        measured window                                   (default PT60S)
+ *  loadtest.warmup          unmeasured traffic before it - JIT, pools, caches  (default PT15S)
+ *  loadtest.rate-scale      multiplies every route's arrival rate              (default 1.0)
+ *  loadtest.inventory       stub = WireMock stand-in, service = real inventory-service behind order-service
+ *  loadtest.inventory-delay median latency of the WireMock stand-in            (default PT0.005S)
+ *  loadtest.max-error-rate  the run fails if any route exceeds it              (default 0.01)
+ *  loadtest.service-jvm-args JVM options for every service process             (default -Xmx512m)
+ */
+record LoadTestSettings(Duration duration,
+                        Duration warmup,
+                        double rateScale,
+                        boolean inventoryStub,
+                        Duration inventoryDelay,
+                        double maxErrorRate,
+                        String serviceJvmArgs,
+                        Path reportDir) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT15S")),
+                Double.parseDouble(System.getProperty("loadtest.rate-scale", "1.0")),
+                !"service".equalsIgnoreCase(System.getProperty("loadtest.inventory", "stub")),
+                Duration.parse(System.getProperty("loadtest.inventory-delay", "PT0.005S")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                System.getProperty("loadtest.service-jvm-args", "-Xmx512m"),
+                Path.of(System.getProperty("loadtest.report-dir", "build/reports/load-test")));
+    }
+}
@@ -0,0 +1,49 @@
+package ca.gbc.comp3095.loadtests;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Baseline for performance work: the whole system under a fixed, repeatable mixed load.
+ * Logs one line per route and writes build/reports/load-test/load-test-report.json
+ * (p50/p99/p999, throughput and error rate per route).
+ *
+ * Not part of the normal build - run with:
+ *   ./gradlew :load-tests:test -Dloadtest=true
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class MixedTrafficLoadTests {
+
+    @Test
+    void mixedTrafficThroughTheGateway() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        try (LoadTestEnvironment environment = LoadTestEnvironment.start(settings)) {
+            List<Route> routes = TrafficMix.routes(environment.gatewayUrl(), settings.rateScale());
+            ArrivalRateDriver driver = new ArrivalRateDriver();
+
+            // JIT, connection pools and caches warm up first - those numbers are thrown away
+            log.info("Warming up for {}", settings.warmup());
+            driver.run(routes, settings.warmup());
+
+            log.info("Measuring for {}", settings.duration());
+            LoadReport report = LoadReport.of(driver.run(routes, settings.duration()), settings);
+            Path file = report.write(settings.reportDir());
+
+            report.routes().forEach(route -> log.info("{}", route));
+            log.info("Report written to {}", file);
+
+            assertThat(report.routes()).allSatisfy(route -> {
+                assertThat(route.requests()).as(route.route() + " requests").isPositive();
+                assertThat(route.errorRate()).as(route.route() + " error rate").isLessThanOrEqualTo(settings.maxErrorRate());
+            });
+        }
+    }
+}
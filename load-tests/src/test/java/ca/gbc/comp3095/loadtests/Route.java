@@ -0,0 +1,22 @@
+package ca.gbc.comp3095.loadtests;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * One kind of request in the traffic mix, sent at a fixed arrival rate.
+ * The request function gets the sequence number of the arrival; onSuccess sees every 2xx response
+ * (e.g. to remember order numbers for the lookup route).
+ */
+record Route(String name, double ratePerSecond, LongFunction<HttpRequest> request, Consumer<HttpResponse<String>> onSuccess) {
+
+    Route(String name, double ratePerSecond, LongFunction<HttpRequest> request) {
+        this(name, ratePerSecond, request, response -> { });
+    }
+
+    Route scaled(double factor) {
+        return new Route(name, ratePerSecond * factor, request, onSuccess);
+    }
+}
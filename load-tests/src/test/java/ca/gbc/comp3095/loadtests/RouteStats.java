@@ -0,0 +1,55 @@
+package ca.gbc.comp3095.loadtests;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one route during one run. Sized up front for every planned arrival,
+ * so recording is a single array store - no locking or allocation on the measurement path.
+ */
+final class RouteStats {
+
+    private final long[] latencies;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    RouteStats(int plannedRequests) {
+        this.latencies = new long[plannedRequests];
+    }
+
+    void record(long latencyNanos, String outcome, boolean error) {
+        int index = completed.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+        if (error) {
+            errors.increment();
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    int completed() {
+        return Math.min(completed.get(), latencies.length);
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> copy = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> copy.put(outcome, count.sum()));
+        return copy;
+    }
+
+    long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, completed());
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
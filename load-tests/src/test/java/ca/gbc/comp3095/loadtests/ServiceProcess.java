@@ -0,0 +1,106 @@
+package ca.gbc.comp3095.loadtests;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One service under test, started from its boot jar in a JVM of its own - services do not share heap,
+ * GC or thread pools with each other or with the load generator, just like in production.
+ * stdout/stderr go to build/reports/load-test/logs/<service>.log.
+ */
+@Slf4j
+final class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path logFile;
+
+    private ServiceProcess(String name, int port, Process process, Path logFile) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.logFile = logFile;
+    }
+
+    /**
+     * The port is chosen up front so dependent services can be configured before this one is healthy.
+     */
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static ServiceProcess start(String name, int port, LoadTestSettings settings, Map<String, String> properties) throws IOException {
+        String jar = System.getProperty("loadtest.jar." + name);
+        if (jar == null) {
+            throw new IllegalStateException("No boot jar for " + name + " - run through Gradle (./gradlew :load-tests:test -Dloadtest=true)");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(settings.serviceJvmArgs().trim().split("\\s+")));
+        command.addAll(List.of("-jar", jar, "--server.port=" + port));
+        properties.forEach((key, value) -> command.add("--" + key + "=" + value));
+
+        Path logFile = settings.reportDir().resolve("logs").resolve(name + ".log");
+        logFile.getParent().toFile().mkdirs();
+
+        log.info("Starting {} on port {}", name, port);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new ServiceProcess(name, port, process, logFile);
+    }
+
+    String url() {
+        return "http://localhost:" + port;
+    }
+
+    void awaitHealthy(Duration timeout) throws InterruptedException {
+        URI health = URI.create(url() + "/actuator/health");
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited with " + process.exitValue() + " - see " + logFile);
+                }
+                try {
+                    var response = client.send(HttpRequest.newBuilder(health).build(), HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        log.info("{} is up at {}", name, url());
+                        return;
+                    }
+                } catch (IOException notListeningYet) {
+                    // still starting
+                }
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException(name + " was not healthy after " + timeout + " - see " + logFile);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy(); // SIGTERM -> graceful shutdown
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ca.gbc.comp3095.loadtests;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The requests a storefront sends through the gateway, at rates (per second, before loadtest.rate-scale)
+ * roughly in the proportions we see: mostly catalogue browsing, some orders, a few catalogue writes.
+ *  browse-products      GET  /api/product                      (gateway cache)
+ *  browse-products-origin GET /api/product, Cache-Control: no-store (product-service + Redis)
+ *  create-product       POST /api/product                      (MongoDB write)
+ *  place-order          POST /api/order                        (stock check + PostgreSQL insert)
+ *  lookup-order         GET  /api/order/{orderNumber}           (orders placed earlier in the run)
+ *  order-history        GET  /api/order?skuCode=...            (keyset page)
+ */
+final class TrafficMix {
+
+    // The SKUs inventory-service's V2 migration seeds
+    private static final List<String> SKUS = List.of("SKU_001", "SKU_002", "SKU_003", "SKU_004", "SKU_005");
+
+    private TrafficMix() {
+    }
+
+    static List<Route> routes(String gatewayUrl, double rateScale) {
+        RecentOrders recentOrders = new RecentOrders(1024);
+
+        List<Route> routes = List.of(
+                new Route("browse-products", 200, sequence -> get(gatewayUrl + "/api/product").build()),
+                new Route("browse-products-origin", 20, sequence -> get(gatewayUrl + "/api/product")
+                        .header("Cache-Control", "no-store")
+                        .build()),
+                new Route("create-product", 2, sequence -> post(gatewayUrl + "/api/product", """
+                        {"name": "Load test product %d", "description": "Created by the load test", "price": %d.99}
+                        """.formatted(sequence, 10 + sequence % 90))),
+                new Route("place-order", 50, sequence -> post(gatewayUrl + "/api/order", """
+                        {"skuCode": "%s", "price": 19.99, "quantity": 1}
+                        """.formatted(randomSku())),
+                        response -> response.headers().firstValue("Location").ifPresent(recentOrders::add)),
+                new Route("lookup-order", 30, sequence -> get(gatewayUrl + recentOrders.any()).build()),
+                new Route("order-history", 10, sequence -> get(gatewayUrl + "/api/order?size=20&skuCode=" + randomSku()).build()));
+
+        return routes.stream().map(route -> route.scaled(rateScale)).toList();
+    }
+
+    private static String randomSku() {
+        return SKUS.get(ThreadLocalRandom.current().nextInt(SKUS.size()));
+    }
+
+    private static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(ArrivalRateDriver.REQUEST_TIMEOUT).GET();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(ArrivalRateDriver.REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * Ring of the latest order locations ("/api/order/{orderNumber}") returned by place-order.
+     * Warm-up fills it before anything is measured.
+     */
+    private static final class RecentOrders {
+
+        private final AtomicReferenceArray<String> locations;
+        private final AtomicLong written = new AtomicLong();
+
+        private RecentOrders(int capacity) {
+            this.locations = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(String location) {
+            locations.set((int) (written.getAndIncrement() % locations.length()), location);
+        }
+
+        String any() {
+            long count = Math.min(written.get(), locations.length());
+            if (count == 0) {
+                return "/api/order/00000000-0000-0000-0000-000000000000"; // 404 until the first order exists
+            }
+            return locations.get(ThreadLocalRandom.current().nextInt((int) count));
+        }
+    }
+}
@@ -2,6 +2,8 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("org.graalvm.buildtools.native") version "0.10.6" // Spring AOT processing + optional native image (./gradlew nativeCompile)
+    id("me.champeau.jmh") version "0.7.3" // Micro-benchmarks in src/jmh/java - run with ./gradlew jmh
 }
 
 group = "ca.gbc.comp3095"
@@ -26,21 +28,28 @@ repositories {
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus scrape endpoint
+    implementation(project(":tracing-support")) // W3C trace context, spans and their export (see ca.gbc.comp3095.tracing.TracingConfig)
+    implementation("net.ttddyy.observation:datasource-micrometer-spring-boot:1.1.0") // JDBC connection/query spans
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-data-redis") // Redis Streams sink for order events
     implementation("org.flywaydb:flyway-core")
     implementation("org.flywaydb:flyway-database-postgresql")
     compileOnly("org.projectlombok:lombok")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
-    runtimeOnly("org.postgresql:postgresql")
+    implementation("org.postgresql:postgresql") // CopyManager for partition archiving (was runtimeOnly)
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.boot:spring-boot-testcontainers")
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("org.testcontainers:postgresql")
     testImplementation("io.rest-assured:rest-assured")
+    testImplementation("io.opentelemetry:opentelemetry-sdk-testing") // InMemorySpanExporter
 
     implementation("org.springframework.cloud:spring-cloud-starter-openfeign:4.3.0") // IntelliJ does a good job to show you if there are any vulnerabilities - brought in from another site
+    implementation("io.github.openfeign:feign-java11:13.6") // JDK HttpClient for Feign - needed for HTTP/2 (h2c) to inventory-service
+    implementation("io.github.openfeign:feign-micrometer:13.6") // Timings for every Feign call (http.client.requests)
     implementation("org.springframework.cloud:spring-cloud-starter-contract-stub-runner:4.3.0") // This indicates that you need to update to a stable & secure version of the library, but we dont have another option so we are sticking with this
 
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -48,4 +57,35 @@ dependencies {
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // Opt-in benchmarks (e.g. transport.FeignTransportBenchmarkTests): ./gradlew test -Dbenchmark=true
+    systemProperty("benchmark", System.getProperty("benchmark") ?: "false")
+}
+
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    profilers = listOf("gc") // allocation rate per operation next to the timings
+}
+
+// Fast startup (see Dockerfile, Dockerfile.native and ../startup-comparison.sh)
+//  - processAot runs on every build and adds the AOT-generated bean definitions to the boot jar;
+//    the JVM only uses them when started with -Dspring.aot.enabled=true
+//  - AOT settles @ConditionalOnProperty/@Profile at BUILD time, so the image is processed with the
+//    profile it runs with: ./gradlew build -PaotProfiles=docker
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    (findProperty("aotProfiles") as String?)?.let { args("--spring.profiles.active=$it") }
+}
+
+// Fixed file names - the Dockerfiles and ../startup-comparison.sh copy the jar (and native image) by name
+tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
+    archiveFileName = "order-service.jar"
+}
+
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "order-service"
+        }
+    }
 }
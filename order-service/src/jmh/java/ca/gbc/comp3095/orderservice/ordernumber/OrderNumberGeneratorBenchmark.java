@@ -0,0 +1,47 @@
+package ca.gbc.comp3095.orderservice.ordernumber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Previous order number (UUID.randomUUID().toString()) vs the UUIDv7 generator,
+ * single threaded and under contention. Run with: ./gradlew :order-service:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderNumberGeneratorBenchmark {
+
+    private final UuidV7OrderNumberGenerator uuidV7 = new UuidV7OrderNumberGenerator(Clock.systemUTC(), 1);
+
+    @Benchmark
+    public String randomUuidString() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public UUID uuidV7() {
+        return uuidV7.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String randomUuidString_8threads() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID uuidV7_8threads() {
+        return uuidV7.next();
+    }
+}
@@ -1,12 +1,17 @@
 package ca.gbc.comp3095.orderservice;
 
+import ca.gbc.comp3095.orderservice.aot.OrderServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ImportRuntimeHints(OrderServiceRuntimeHints.class) // reflection hints for the native image
 @EnableFeignClients
+@EnableScheduling // Outbox relay
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
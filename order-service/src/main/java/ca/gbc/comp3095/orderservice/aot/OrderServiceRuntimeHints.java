@@ -0,0 +1,35 @@
+package ca.gbc.comp3095.orderservice.aot;
+
+import ca.gbc.comp3095.orderservice.client.InventoryClient;
+import ca.gbc.comp3095.orderservice.client.StockCheck;
+import ca.gbc.comp3095.orderservice.event.OrderCreatedEvent;
+import ca.gbc.comp3095.orderservice.model.Order;
+import ca.gbc.comp3095.orderservice.model.OrderIdempotencyKey;
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What Spring AOT cannot work out from the bean definitions alone (only used by the native image;
+ * the JVM ignores hints):
+ *  - Lombok entities: Hibernate instantiates them and reads/writes fields reflectively
+ *  - OrderCreatedEvent: written to the outbox with an ObjectMapper, not through a controller
+ *  - StockCheck: request body of the Feign batch call
+ *  - InventoryClient: Feign builds a JDK proxy for it
+ */
+public class OrderServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : new Class<?>[]{Order.class, OutboxEvent.class, OrderIdempotencyKey.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), OrderCreatedEvent.class, StockCheck.class);
+        hints.proxies().registerJdkProxy(InventoryClient.class);
+    }
+}
@@ -0,0 +1,194 @@
+package ca.gbc.comp3095.orderservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.CurrentTraceContext;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sits in front of the Feign {@link InventoryClient}, so OrderServiceImpl keeps calling isInStock as before.
+ *  1. An identical (skuCode, quantity) check that is already in flight -> wait for ITS answer, no new call
+ *  2. Otherwise the check joins the current batch; the batch is sent when it reaches max-batch-size
+ *     or max-wait after its first check, whichever comes first - so no caller waits longer than max-wait
+ *  3. A batch of one is the plain GET /api/inventory, anything larger ONE POST /api/inventory/availability
+ * Answers are not kept after the call - every check sees stock at least as fresh as the call it joined.
+ *
+ * The call carries the trace of the batch's first check; the other traces only show the time they waited.
+ *
+ * Metrics:
+ *  order.stock-check.requests{outcome=coalesced|batched} - coalesced / total = identical checks saved
+ *  order.stock-check.batch.size - checks per upstream call (upstream calls = its count)
+ */
+@Component
+@Primary
+@Slf4j
+@ConditionalOnProperty(name = "order.stock-check.batching.enabled", havingValue = "true", matchIfMissing = true)
+public class BatchingInventoryClient implements InventoryClient {
+
+    private final InventoryClient delegate;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final CurrentTraceContext traceContext;
+    private final Counter coalesced;
+    private final Counter batched;
+    private final DistributionSummary batchSize;
+
+    // One future per distinct check that has been accepted but not answered yet
+    private final ConcurrentHashMap<StockCheck, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    // The batch being filled - guarded by "this"
+    private List<StockCheck> batch = new ArrayList<>();
+    private TraceContext batchTrace;
+    private ScheduledFuture<?> batchTimer;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-check-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Blocking Feign calls - one virtual thread per batch in flight
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchingInventoryClient(@Qualifier("inventoryFeignClient") InventoryClient delegate,
+                                   MeterRegistry meterRegistry,
+                                   ObjectProvider<Tracer> tracer,
+                                   @Value("${order.stock-check.batching.max-batch-size:64}") int maxBatchSize,
+                                   @Value("${order.stock-check.batching.max-wait:2ms}") Duration maxWait) {
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.traceContext = tracer.getIfAvailable(() -> Tracer.NOOP).currentTraceContext();
+        this.coalesced = meterRegistry.counter("order.stock-check.requests", "outcome", "coalesced");
+        this.batched = meterRegistry.counter("order.stock-check.requests", "outcome", "batched");
+        this.batchSize = DistributionSummary.builder("order.stock-check.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isInStock(String skuCode, Integer quantity) {
+        try {
+            return check(new StockCheck(skuCode, quantity)).join();
+        } catch (CompletionException e) {
+            // Same exception the direct Feign call would have thrown
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public List<Boolean> areInStock(List<StockCheck> checks) {
+        return delegate.areInStock(checks);
+    }
+
+    CompletableFuture<Boolean> check(StockCheck check) {
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(check, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        batched.increment();
+
+        List<StockCheck> full = null;
+        TraceContext fullTrace = null;
+        synchronized (this) {
+            batch.add(check);
+            if (batch.size() == 1) {
+                batchTrace = traceContext.context();
+                batchTimer = timer.schedule(this::flushOnTimer, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (batch.size() >= maxBatchSize) {
+                batchTimer.cancel(false);
+                fullTrace = batchTrace;
+                full = takeBatch();
+            }
+        }
+        if (full != null) {
+            send(full, fullTrace);
+        }
+        return mine;
+    }
+
+    private void flushOnTimer() {
+        List<StockCheck> due;
+        TraceContext trace;
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                return; // already sent because it filled up
+            }
+            trace = batchTrace;
+            due = takeBatch();
+        }
+        send(due, trace);
+    }
+
+    // Caller holds the lock
+    private List<StockCheck> takeBatch() {
+        List<StockCheck> taken = batch;
+        batch = new ArrayList<>();
+        batchTrace = null;
+        batchTimer = null;
+        return taken;
+    }
+
+    private void send(List<StockCheck> checks, TraceContext trace) {
+        batchSize.record(checks.size());
+        senders.execute(() -> {
+            try (CurrentTraceContext.Scope scope = traceContext.maybeScope(trace)) {
+                List<Boolean> answers = checks.size() == 1
+                        ? List.of(delegate.isInStock(checks.getFirst().skuCode(), checks.getFirst().quantity()))
+                        : delegate.areInStock(checks);
+                if (answers.size() != checks.size()) {
+                    throw new IllegalStateException("inventory-service answered " + answers.size() + " of " + checks.size() + " stock checks");
+                }
+                for (int i = 0; i < checks.size(); i++) {
+                    complete(checks.get(i), answers.get(i), null);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Stock check batch of {} failed: {}", checks.size(), e.toString());
+                checks.forEach(check -> complete(check, null, e));
+            }
+        });
+    }
+
+    private void complete(StockCheck check, Boolean answer, RuntimeException error) {
+        // Removed first - a check arriving from now on asks inventory-service again
+        CompletableFuture<Boolean> future = inFlight.remove(check);
+        if (future == null) {
+            return;
+        }
+        if (error == null) {
+            future.complete(Boolean.TRUE.equals(answer));
+        } else {
+            future.completeExceptionally(error);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+package ca.gbc.comp3095.orderservice.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived local memory of inventory-service's stock answers, per SKU:
+ *  - in stock for quantity q     -> also in stock for anything up to q,     for positive-ttl
+ *  - out of stock for quantity q -> also out of stock for anything above q, for negative-ttl
+ * so a client retrying an out-of-stock order gets its 409 without another remote call.
+ * Negative answers can be kept longer: being wrong there only delays an order, a stale positive
+ * answer lets an order through that inventory-service would have refused.
+ * A TTL of 0 turns that side off. Entries of a SKU are dropped on its inventory change notification
+ * ({@link InventoryChangeListener}).
+ *
+ * Metrics: order.stock-check.cache{result=in_stock|out_of_stock|miss}, order.stock-check.cache.size
+ */
+@Component
+public class InventoryAvailabilityCache {
+
+    // Known bounds for one SKU: in stock up to inStockUpTo, out of stock from outOfStockFrom (0 = unknown).
+    // Times are System.nanoTime() values, compared by difference
+    private record Entry(int inStockUpTo, long inStockUntil, int outOfStockFrom, long outOfStockUntil) {
+
+        static Entry empty(long now) {
+            return new Entry(0, now, 0, now);
+        }
+
+        Boolean answer(int quantity, long now) {
+            if (outOfStockFrom > 0 && quantity >= outOfStockFrom && now - outOfStockUntil < 0) {
+                return false;
+            }
+            if (quantity <= inStockUpTo && now - inStockUntil < 0) {
+                return true;
+            }
+            return null;
+        }
+
+        boolean expired(long now) {
+            return now - inStockUntil >= 0 && now - outOfStockUntil >= 0;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long positiveTtlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+    private final Counter inStock;
+    private final Counter outOfStock;
+    private final Counter miss;
+
+    public InventoryAvailabilityCache(MeterRegistry meterRegistry,
+                                      @Value("${order.stock-check.cache.positive-ttl:1s}") Duration positiveTtl,
+                                      @Value("${order.stock-check.cache.negative-ttl:5s}") Duration negativeTtl,
+                                      @Value("${order.stock-check.cache.max-entries:10000}") int maxEntries) {
+        this.positiveTtlNanos = positiveTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxEntries = maxEntries;
+        this.inStock = meterRegistry.counter("order.stock-check.cache", "result", "in_stock");
+        this.outOfStock = meterRegistry.counter("order.stock-check.cache", "result", "out_of_stock");
+        this.miss = meterRegistry.counter("order.stock-check.cache", "result", "miss");
+        Gauge.builder("order.stock-check.cache.size", entries, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return positiveTtlNanos > 0 || negativeTtlNanos > 0;
+    }
+
+    /**
+     * The cached answer, or null when inventory-service has to be asked.
+     */
+    public Boolean lookup(String skuCode, int quantity) {
+        Entry entry = entries.get(skuCode);
+        Boolean answer = entry == null ? null : entry.answer(quantity, System.nanoTime());
+        (answer == null ? miss : answer ? inStock : outOfStock).increment();
+        return answer;
+    }
+
+    /**
+     * Remembers inventory-service's answer and returns it.
+     */
+    public boolean record(String skuCode, int quantity, boolean answer) {
+        long ttl = answer ? positiveTtlNanos : negativeTtlNanos;
+        if (ttl <= 0 || (entries.size() >= maxEntries && !entries.containsKey(skuCode) && !evictExpired())) {
+            return answer;
+        }
+        long now = System.nanoTime();
+        entries.compute(skuCode, (sku, current) -> {
+            Entry entry = current == null || current.expired(now) ? Entry.empty(now) : current;
+            if (answer) {
+                // A positive answer above the known out-of-stock bound means stock arrived - forget that bound
+                boolean clearsNegative = entry.outOfStockFrom() > 0 && quantity >= entry.outOfStockFrom();
+                return new Entry(Math.max(quantity, now - entry.inStockUntil() < 0 ? entry.inStockUpTo() : 0), now + ttl,
+                        clearsNegative ? 0 : entry.outOfStockFrom(), clearsNegative ? now : entry.outOfStockUntil());
+            }
+            boolean clearsPositive = quantity <= entry.inStockUpTo();
+            int from = entry.outOfStockFrom() > 0 && now - entry.outOfStockUntil() < 0
+                    ? Math.min(quantity, entry.outOfStockFrom()) : quantity;
+            return new Entry(clearsPositive ? 0 : entry.inStockUpTo(), clearsPositive ? now : entry.inStockUntil(),
+                    from, now + ttl);
+        });
+        return answer;
+    }
+
+    public void evict(String skuCode) {
+        entries.remove(skuCode);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // true if there is room now
+    private boolean evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expired(now));
+        return entries.size() < maxEntries;
+    }
+}
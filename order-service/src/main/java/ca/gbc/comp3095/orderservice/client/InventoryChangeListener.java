@@ -0,0 +1,185 @@
+package ca.gbc.comp3095.orderservice.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Follows inventory-service's change feed (GET /api/inventory/changes, Server-Sent Events) and drops the
+ * {@link InventoryAvailabilityCache} entry of every SKU that changed, so a restock or a sale is seen right away
+ * instead of at TTL expiry.
+ *  - inventory-change -> evict that SKU
+ *  - reset            -> this listener fell behind the retained change log: clear everything, follow from now
+ * After a disconnect the feed is resumed with Last-Event-ID, so changes made in between are still applied.
+ * While the feed is unreachable the TTLs alone bound how stale an answer can be.
+ *
+ * Metric: order.stock-check.cache.invalidations{event}
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.stock-check.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryChangeListener {
+
+    static final String CHANGE_EVENT = "inventory-change";
+    static final String RESET_EVENT = "reset";
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final InventoryAvailabilityCache cache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final URI feed;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private volatile boolean running;
+    private Thread worker;
+    private String lastEventId; // worker thread only
+
+    public InventoryChangeListener(InventoryAvailabilityCache cache,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${inventory.service.url}") String inventoryServiceUrl) {
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.feed = URI.create(inventoryServiceUrl + "/api/inventory/changes");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!cache.isEnabled()) {
+            return; // nothing to invalidate
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("inventory-change-listener").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoff = 1000;
+        while (running) {
+            try {
+                if (follow()) {
+                    backoff = 1000; // the stream was open and ended normally (emitter timeout) - reconnect now
+                    continue;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Inventory change feed failed, retrying in {}ms: {}", backoff, e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * Reads the feed until the server ends it. false if it could not be opened.
+     */
+    private boolean follow() throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(feed).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                log.warn("Inventory change feed answered {}, cached stock answers expire by TTL only", response.statusCode());
+                return false;
+            }
+            if (lastEventId == null) {
+                // Nothing tells us what changed before now - answers cached earlier cannot be trusted
+                cache.clear();
+            }
+            log.info("Following the inventory change feed ({})", lastEventId == null ? "from now" : "from version " + lastEventId);
+
+            String event = null;
+            String id = null;
+            StringBuilder data = new StringBuilder();
+            for (Iterator<String> it = lines.iterator(); it.hasNext() && running; ) {
+                String line = it.next();
+                if (line.isEmpty()) {
+                    // blank line ends an event
+                    if (data.length() > 0) {
+                        apply(event, data.toString());
+                    }
+                    if (id != null) {
+                        lastEventId = id;
+                    }
+                    event = null;
+                    id = null;
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    event = value(line);
+                } else if (line.startsWith("id:")) {
+                    id = value(line);
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(value(line));
+                }
+                // ":" comments (keep-alive) and unknown fields are ignored
+            }
+        }
+        return true;
+    }
+
+    private void apply(String event, String data) throws IOException {
+        if (RESET_EVENT.equals(event)) {
+            log.warn("Inventory change feed reset - clearing cached stock answers");
+            cache.clear();
+            lastEventId = null; // follow from now
+        } else if (CHANGE_EVENT.equals(event)) {
+            JsonNode change = objectMapper.readTree(data);
+            cache.evict(change.path("skuCode").asText());
+        } else {
+            return;
+        }
+        meterRegistry.counter("order.stock-check.cache.invalidations", "event", event).increment();
+    }
+
+    // "field: value" - one optional space after the colon belongs to the syntax
+    private static String value(String line) {
+        int colon = line.indexOf(':');
+        int start = colon + 1 < line.length() && line.charAt(colon + 1) == ' ' ? colon + 2 : colon + 1;
+        return line.substring(start);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,14 +2,22 @@
 package ca.gbc.comp3095.orderservice.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(value = "inventory", url = "${inventory.service.url}") // Where is my inventory service located
+import java.util.List;
+
+// Not primary - with order.stock-check.batching.enabled the BatchingInventoryClient in front of it is injected instead
+@FeignClient(value = "inventory", url = "${inventory.service.url}", qualifiers = "inventoryFeignClient", primary = false) // Where is my inventory service located
 public interface InventoryClient {
 
     @RequestMapping(method = RequestMethod.GET, value = "/api/inventory")
     boolean isInStock(@RequestParam String skuCode, @RequestParam Integer quantity);
 
+    // Many checks in one round trip - one answer per check, in the same order
+    @RequestMapping(method = RequestMethod.POST, value = "/api/inventory/availability")
+    List<Boolean> areInStock(@RequestBody List<StockCheck> checks);
+
 }
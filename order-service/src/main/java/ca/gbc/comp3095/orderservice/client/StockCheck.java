@@ -0,0 +1,4 @@
+package ca.gbc.comp3095.orderservice.client;
+
+// One entry of inventory-service's POST /api/inventory/availability
+public record StockCheck(String skuCode, Integer quantity) { }
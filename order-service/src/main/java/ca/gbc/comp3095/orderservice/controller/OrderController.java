@@ -1,26 +1,89 @@
 package ca.gbc.comp3095.orderservice.controller;
 
 
+import ca.gbc.comp3095.orderservice.dto.OrderLineResponse;
+import ca.gbc.comp3095.orderservice.dto.OrderPage;
 import ca.gbc.comp3095.orderservice.dto.OrderRequest;
+import ca.gbc.comp3095.orderservice.dto.OrderResponse;
+import ca.gbc.comp3095.orderservice.idempotency.IdempotentOrderSubmitter;
 import ca.gbc.comp3095.orderservice.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/order")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100; // matches t_orders.idempotency_key
+
     private final OrderService orderService;
+    private final IdempotentOrderSubmitter idempotentOrderSubmitter;
 
+    /**
+     * Clients may send an Idempotency-Key header; retries with the same key get the original
+     * result back (with Idempotent-Replayed: true) instead of placing a second order.
+     * A cart is one request with "lines": [{ "skuCode", "price", "quantity" }, ...] - one order number for all of them.
+     * Under order.lines.partial-availability=DROP_UNAVAILABLE, GET .../lines shows which lines made it.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public String placeOrder(@RequestBody OrderRequest orderRequest) {
-        orderService.placeOrder(orderRequest);
-        return "Successfully Placed Order";
+    public ResponseEntity<String> placeOrder(@RequestBody OrderRequest orderRequest,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            UUID orderNumber = orderService.placeOrder(orderRequest, null, null);
+            return created(orderNumber, false);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        var result = idempotentOrderSubmitter.submit(idempotencyKey, orderRequest);
+        return created(result.orderNumber(), result.replayed());
     }
 
+    private static ResponseEntity<String> created(UUID orderNumber, boolean replayed) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/api/order/" + orderNumber))
+                .header("Idempotent-Replayed", String.valueOf(replayed))
+                .body("Successfully Placed Order");
+    }
+
+    // Support / reporting lookups - these replace reading t_orders directly
+
+    @GetMapping("/{orderNumber}")
+    public ResponseEntity<OrderResponse> getOrder(@PathVariable("orderNumber") UUID orderNumber) {
+        return orderService.getOrder(orderNumber)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{orderNumber}/lines")
+    public ResponseEntity<List<OrderLineResponse>> getOrderLines(@PathVariable("orderNumber") UUID orderNumber) {
+        return orderService.getOrderLines(orderNumber)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/order?skuCode=SKU_001&from=2025-11-01T00:00:00Z&to=2025-12-01T00:00:00Z&size=50&cursor=1234
+     * Every parameter is optional; without skuCode this is the full order history, newest first.
+     */
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public OrderPage getOrders(@RequestParam(required = false) String skuCode,
+                               @RequestParam(required = false) Instant from,
+                               @RequestParam(required = false) Instant to,
+                               @RequestParam(required = false) Long cursor,
+                               @RequestParam(defaultValue = "20") int size) {
+        return orderService.getOrders(skuCode, from, to, cursor, size);
+    }
 
 
 }
@@ -0,0 +1,9 @@
+package ca.gbc.comp3095.orderservice.dto;
+
+import java.math.BigDecimal;
+
+// One line of a multi-line order - price is the unit price
+public record OrderLineRequest(
+        String skuCode,
+        BigDecimal price,
+        Integer quantity) { }
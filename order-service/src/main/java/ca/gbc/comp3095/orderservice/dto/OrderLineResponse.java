@@ -0,0 +1,9 @@
+package ca.gbc.comp3095.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record OrderLineResponse(
+        int lineNumber,
+        String skuCode,
+        BigDecimal price,
+        Integer quantity) { }
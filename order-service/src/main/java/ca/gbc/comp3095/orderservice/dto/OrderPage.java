@@ -0,0 +1,11 @@
+package ca.gbc.comp3095.orderservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated order listing.
+ * Pass nextCursor back as ?cursor= to get the following page; null means there is nothing left.
+ */
+public record OrderPage(
+        List<OrderResponse> items,
+        Long nextCursor) { }
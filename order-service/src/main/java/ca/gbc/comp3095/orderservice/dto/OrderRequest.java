@@ -1,10 +1,25 @@
 package ca.gbc.comp3095.orderservice.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+/**
+ * Either a single SKU (skuCode, price, quantity) or a whole cart in lines - with lines the
+ * single-SKU fields are ignored.
+ */
 public record OrderRequest(
         Long id,
         String orderNumber,
         String skuCode,
         BigDecimal price,
-        Integer quantity) { }
+        Integer quantity,
+        List<OrderLineRequest> lines) {
+
+    public OrderRequest(Long id, String orderNumber, String skuCode, BigDecimal price, Integer quantity) {
+        this(id, orderNumber, skuCode, price, quantity, null);
+    }
+
+    public boolean isMultiLine() {
+        return lines != null && !lines.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+package ca.gbc.comp3095.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read model for order lookups - repository queries select straight into this record
+ * so list views never load (or dirty-check) full Order entities.
+ * lineCount is set for multi-line orders (skuCode is null, price/quantity are the totals) - see GET /api/order/{orderNumber}/lines.
+ */
+public record OrderResponse(
+        Long id,
+        UUID orderNumber,
+        String skuCode,
+        BigDecimal price,
+        Integer quantity,
+        Integer lineCount,
+        Instant createdAt) { }
@@ -0,0 +1,99 @@
+package ca.gbc.comp3095.orderservice.event;
+
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process sink: the relay puts events on a bounded queue, a dispatcher thread drains it and hands each event
+ * to the application's listeners ({@code @EventListener void on(OutboxEvent event)}), one at a time, in order.
+ * Useful for a single instance and for tests - nothing leaves the JVM.
+ *
+ * The queue only absorbs bursts: while it is full the relay's batch stays in the outbox and is retried.
+ * An event is delivered at most once to the listeners after it left the outbox - a listener that throws is
+ * logged and skipped, and events still queued at shutdown are lost. Use the redis sink where that matters.
+ *
+ * Metrics: order.events.in-memory.dispatched, order.events.in-memory.failed, order.events.in-memory.queued
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.events.sink", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryOrderEventPublisher implements OrderEventPublisher {
+
+    private final BlockingQueue<OutboxEvent> queue;
+    private final ApplicationEventPublisher listeners;
+    private final Counter dispatched;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public InMemoryOrderEventPublisher(ApplicationEventPublisher listeners,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${order.events.in-memory.capacity:10000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.listeners = listeners;
+        this.dispatched = meterRegistry.counter("order.events.in-memory.dispatched");
+        this.failed = meterRegistry.counter("order.events.in-memory.failed");
+        Gauge.builder("order.events.in-memory.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name("order-event-dispatcher").daemon().start(this::dispatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            // Leave the batch in the outbox - it will be retried once the dispatcher catches up
+            throw new IllegalStateException("In-memory order event queue is full");
+        }
+        queue.addAll(events);
+        log.debug("Published {} order events to the in-memory queue", events.size());
+    }
+
+    private void dispatch() {
+        while (running) {
+            OutboxEvent event;
+            try {
+                event = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (event == null) {
+                continue;
+            }
+            try {
+                listeners.publishEvent(event);
+                dispatched.increment();
+            } catch (RuntimeException e) {
+                // One broken listener must not stop the others from getting the next events
+                failed.increment();
+                log.warn("Order event {} ({}) failed in a listener: {}", event.getId(), event.getEventType(), e.toString());
+            }
+        }
+    }
+}
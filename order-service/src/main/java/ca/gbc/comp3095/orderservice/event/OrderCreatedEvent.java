@@ -0,0 +1,24 @@
+package ca.gbc.comp3095.orderservice.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Published (through the outbox) for every order that was persisted.
+ * Downstream consumers - inventory decrement, notifications - work off this event.
+ * Multi-line orders carry their lines (skuCode is null, price/quantity are the order totals);
+ * for single-SKU orders lines is null.
+ */
+public record OrderCreatedEvent(
+        String orderNumber,
+        String skuCode,
+        BigDecimal price,
+        Integer quantity,
+        Instant createdAt,
+        List<Line> lines) {
+
+    public static final String TYPE = "order.created";
+
+    public record Line(String skuCode, BigDecimal price, Integer quantity) { }
+}
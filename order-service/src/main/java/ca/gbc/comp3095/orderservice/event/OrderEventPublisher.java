@@ -0,0 +1,16 @@
+package ca.gbc.comp3095.orderservice.event;
+
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Sink the outbox relay hands events to. Selected with order.events.sink (in-memory | redis).
+ * Implementations must either accept the whole batch or throw - on failure the relay rolls back
+ * and the same events are retried on the next run (at-least-once delivery).
+ */
+public interface OrderEventPublisher {
+
+    void publish(List<OutboxEvent> events);
+
+}
@@ -0,0 +1,65 @@
+package ca.gbc.comp3095.orderservice.event;
+
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis Streams sink (the Redis from our docker-compose setup).
+ * The whole batch is sent in one pipeline - one network round trip per relay run.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.events.sink", havingValue = "redis")
+public class RedisStreamOrderEventPublisher implements OrderEventPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final byte[] streamKey;
+    private final long maxLength;
+
+    public RedisStreamOrderEventPublisher(StringRedisTemplate redisTemplate,
+                                          @Value("${order.events.redis.stream:order-events}") String streamKey,
+                                          @Value("${order.events.redis.max-length:1000000}") long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.streamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        // Approximate trimming keeps the stream bounded without an O(n) trim on every add
+        XAddOptions options = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OutboxEvent event : events) {
+                connection.streamCommands().xAdd(MapRecord.create(streamKey, fields(event)), options);
+            }
+            return null;
+        });
+        log.debug("Published {} order events to Redis stream {}", events.size(), new String(streamKey, StandardCharsets.UTF_8));
+    }
+
+    private static Map<byte[], byte[]> fields(OutboxEvent event) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        fields.put(bytes("eventId"), bytes(String.valueOf(event.getId())));
+        fields.put(bytes("type"), bytes(event.getEventType()));
+        fields.put(bytes("aggregateId"), bytes(event.getAggregateId()));
+        fields.put(bytes("payload"), bytes(event.getPayload()));
+        return fields;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,34 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import java.util.UUID;
+
+/**
+ * What we remember about an Idempotency-Key.
+ * requestHash detects a client re-using a key for a DIFFERENT request body.
+ */
+public record IdempotencyRecord(
+        State state,
+        String requestHash,
+        UUID orderNumber) {
+
+    public enum State { IN_PROGRESS, COMPLETED }
+
+    public static IdempotencyRecord inProgress(String requestHash) {
+        return new IdempotencyRecord(State.IN_PROGRESS, requestHash, null);
+    }
+
+    public IdempotencyRecord completed(UUID orderNumber) {
+        return new IdempotencyRecord(State.COMPLETED, requestHash, orderNumber);
+    }
+
+    // Compact "STATE|hash|orderNumber" form for Redis
+    String encode() {
+        return state + "|" + requestHash + "|" + (orderNumber == null ? "" : orderNumber);
+    }
+
+    static IdempotencyRecord decode(String value) {
+        String[] parts = value.split("\\|", -1);
+        return new IdempotencyRecord(State.valueOf(parts[0]), parts[1],
+                parts[2].isEmpty() ? null : UUID.fromString(parts[2]));
+    }
+}
@@ -0,0 +1,29 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Fast dedup store in front of the order service (order.idempotency.store = in-memory | redis).
+ * Completed entries expire after order.idempotency.ttl, in-progress claims after the much shorter
+ * order.idempotency.in-progress-lease; the primary key of t_order_idempotency_keys is the backstop once they are gone.
+ */
+public interface IdempotencyStore {
+
+    Optional<IdempotencyRecord> get(String key);
+
+    /**
+     * Atomically claims the key for a first execution, for order.idempotency.in-progress-lease.
+     * @return true if the caller owns the key now, false if someone else already claimed/completed it
+     */
+    boolean claim(String key, IdempotencyRecord inProgress);
+
+    /**
+     * Replaces the claim with the result, kept for order.idempotency.ttl.
+     */
+    void complete(String key, IdempotencyRecord completed);
+
+    /**
+     * Called when the first execution failed, so a retry may run it again.
+     */
+    void release(String key);
+}
@@ -0,0 +1,178 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import ca.gbc.comp3095.orderservice.dto.OrderLineRequest;
+import ca.gbc.comp3095.orderservice.dto.OrderRequest;
+import ca.gbc.comp3095.orderservice.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sits in front of {@link OrderService#placeOrder} for requests carrying an Idempotency-Key.
+ *  1. Known + completed key -> replay the stored order number (no inventory call, no DB access)
+ *  2. Known + in progress   -> 409, the first attempt is still running
+ *  3. Unknown key           -> claim it, place the order, remember the result
+ * If the fast store has forgotten the key (TTL, restart) the unique index on
+ * t_order_idempotency_keys still stops a duplicate insert, and we replay from the database.
+ * Both paths compare the SHA-256 of the request body, so a key re-used for a different order is a 422.
+ *
+ * Metric: orders.idempotency{outcome=first|replay|in_progress|conflict} - replay rate = replay / total
+ */
+@Component
+@Slf4j
+public class IdempotentOrderSubmitter {
+
+    public record Result(UUID orderNumber, boolean replayed) { }
+
+    private final IdempotencyStore store;
+    private final OrderService orderService;
+    private final Counter first;
+    private final Counter replay;
+    private final Counter inProgress;
+    private final Counter conflict;
+
+    public IdempotentOrderSubmitter(IdempotencyStore store, OrderService orderService, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.orderService = orderService;
+        this.first = meterRegistry.counter("orders.idempotency", "outcome", "first");
+        this.replay = meterRegistry.counter("orders.idempotency", "outcome", "replay");
+        this.inProgress = meterRegistry.counter("orders.idempotency", "outcome", "in_progress");
+        this.conflict = meterRegistry.counter("orders.idempotency", "outcome", "conflict");
+    }
+
+    public Result submit(String idempotencyKey, OrderRequest orderRequest) {
+
+        String requestHash = hash(orderRequest);
+
+        Optional<IdempotencyRecord> known = store.get(idempotencyKey);
+        if (known.isPresent()) {
+            return replay(idempotencyKey, known.get(), requestHash);
+        }
+
+        if (!store.claim(idempotencyKey, IdempotencyRecord.inProgress(requestHash))) {
+            // Lost the race against a concurrent retry - look again at what the winner stored
+            return store.get(idempotencyKey)
+                    .map(record -> replay(idempotencyKey, record, requestHash))
+                    .orElseThrow(() -> inProgress(idempotencyKey));
+        }
+
+        try {
+            Result result = placeOrReplayFromDatabase(idempotencyKey, orderRequest, requestHash);
+            store.complete(idempotencyKey, IdempotencyRecord.inProgress(requestHash).completed(result.orderNumber()));
+            (result.replayed() ? replay : first).increment();
+            return result;
+        } catch (RuntimeException e) {
+            // Nothing was stored for this key - let the client retry it
+            store.release(idempotencyKey);
+            throw e;
+        }
+    }
+
+    private Result placeOrReplayFromDatabase(String idempotencyKey, OrderRequest orderRequest, String requestHash) {
+        Optional<IdempotencyRecord> existing = orderService.findIdempotencyRecord(idempotencyKey);
+        if (existing.isPresent()) {
+            return replayFromDatabase(idempotencyKey, existing.get(), requestHash);
+        }
+        try {
+            return new Result(orderService.placeOrder(orderRequest, idempotencyKey, requestHash), false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the same key between our lookup and our insert
+            return orderService.findIdempotencyRecord(idempotencyKey)
+                    .map(record -> replayFromDatabase(idempotencyKey, record, requestHash))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Result replayFromDatabase(String idempotencyKey, IdempotencyRecord record, String requestHash) {
+        // Keys stored before request_hash existed have none - nothing to compare them with
+        if (record.requestHash() != null && !record.requestHash().equals(requestHash)) {
+            throw conflict(idempotencyKey);
+        }
+        return new Result(record.orderNumber(), true);
+    }
+
+    private Result replay(String idempotencyKey, IdempotencyRecord record, String requestHash) {
+        if (!Objects.equals(record.requestHash(), requestHash)) {
+            throw conflict(idempotencyKey);
+        }
+        if (record.state() == IdempotencyRecord.State.IN_PROGRESS) {
+            throw inProgress(idempotencyKey);
+        }
+        replay.increment();
+        log.debug("Replaying order {} for Idempotency-Key {}", record.orderNumber(), idempotencyKey);
+        return new Result(record.orderNumber(), true);
+    }
+
+    private ResponseStatusException conflict(String idempotencyKey) {
+        conflict.increment();
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key " + idempotencyKey + " was already used for a different order request");
+    }
+
+    private ResponseStatusException inProgress(String idempotencyKey) {
+        inProgress.increment();
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "An order with Idempotency-Key " + idempotencyKey + " is still being processed");
+    }
+
+    /**
+     * SHA-256 (hex) of a canonical form of the fields that make the order: every value is length-prefixed, so
+     * no two different requests serialize alike, and prices are compared by value (10.50 == 10.5).
+     * With lines the single-SKU fields are ignored, as they are when the order is placed.
+     */
+    private static String hash(OrderRequest request) {
+        StringBuilder canonical = new StringBuilder();
+        if (request.isMultiLine()) {
+            canonical.append("lines");
+            field(canonical, request.lines().size());
+            for (OrderLineRequest line : request.lines()) {
+                if (line == null) {
+                    field(canonical, null);
+                } else {
+                    line(canonical, line.skuCode(), line.price(), line.quantity());
+                }
+            }
+        } else {
+            canonical.append("single");
+            line(canonical, request.skuCode(), request.price(), request.quantity());
+        }
+        return HexFormat.of().formatHex(sha256().digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void line(StringBuilder canonical, String skuCode, BigDecimal price, Integer quantity) {
+        field(canonical, skuCode);
+        field(canonical, price == null ? null : price.stripTrailingZeros().toPlainString());
+        field(canonical, quantity);
+    }
+
+    private static void field(StringBuilder canonical, Object value) {
+        if (value == null) {
+            canonical.append("|-");
+            return;
+        }
+        String text = value.toString();
+        canonical.append('|').append(text.length()).append(':').append(text);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
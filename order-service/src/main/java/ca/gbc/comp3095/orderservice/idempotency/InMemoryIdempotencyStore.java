@@ -0,0 +1,77 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance store. Good enough behind sticky routing or with a single instance;
+ * use the redis store when retries can land on a different order-service instance.
+ * A claim expires after the in-progress lease, a completed entry after the full ttl.
+ */
+@Component
+@ConditionalOnProperty(name = "order.idempotency.store", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Entry(IdempotencyRecord record, long expiresAtMillis) { }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock = Clock.systemUTC();
+    private final Duration ttl;
+    private final Duration inProgressLease;
+
+    public InMemoryIdempotencyStore(@Value("${order.idempotency.ttl:PT24H}") Duration ttl,
+                                    @Value("${order.idempotency.in-progress-lease:PT30S}") Duration inProgressLease) {
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || isExpired(entry)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.record());
+    }
+
+    @Override
+    public boolean claim(String key, IdempotencyRecord inProgress) {
+        Entry mine = new Entry(inProgress, expiry(inProgressLease));
+        // compute() is atomic per key - an expired entry may be taken over
+        Entry winner = entries.compute(key, (k, existing) -> existing == null || isExpired(existing) ? mine : existing);
+        return winner == mine;
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord completed) {
+        entries.put(key, new Entry(completed, expiry(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * TTL eviction - expired entries are already invisible to get(), this only frees the memory.
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        entries.values().removeIf(this::isExpired);
+    }
+
+    private long expiry(Duration timeToLive) {
+        return clock.millis() + timeToLive.toMillis();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.expiresAtMillis() <= clock.millis();
+    }
+}
@@ -0,0 +1,54 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Shared store - a retry is recognised whichever order-service instance it reaches.
+ * Claiming is a single SET NX PX, expiry is Redis' own TTL: the claim gets the short in-progress lease,
+ * so a crash between claim and complete does not block the key for a day; complete() sets the full ttl.
+ */
+@Component
+@ConditionalOnProperty(name = "order.idempotency.store", havingValue = "redis")
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String KEY_PREFIX = "order-idem:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate,
+                                 @Value("${order.idempotency.ttl:PT24H}") Duration ttl,
+                                 @Value("${order.idempotency.in-progress-lease:PT30S}") Duration inProgressLease) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> get(String key) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(KEY_PREFIX + key))
+                .map(IdempotencyRecord::decode);
+    }
+
+    @Override
+    public boolean claim(String key, IdempotencyRecord inProgress) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, inProgress.encode(), inProgressLease));
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord completed) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + key, completed.encode(), ttl);
+    }
+
+    @Override
+    public void release(String key) {
+        redisTemplate.delete(KEY_PREFIX + key);
+    }
+}
@@ -2,8 +2,11 @@ package ca.gbc.comp3095.orderservice.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
 
 @Entity
 @Table(name="t_orders")
@@ -22,9 +25,16 @@ public class Order {
     @GeneratedValue(strategy= GenerationType.IDENTITY)
     private Long id;
 
-    private String orderNumber;
+    private UUID orderNumber; // native uuid column (16 bytes), see V3 migration
     private String skuCode;
     private BigDecimal price;
     private Integer quantity;
+    private Integer lineCount; // multi-line orders only - the lines are in t_order_lines (see V7 migration)
+
+    private String idempotencyKey; // kept for support lookups - uniqueness lives in t_order_idempotency_keys
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
 
 }
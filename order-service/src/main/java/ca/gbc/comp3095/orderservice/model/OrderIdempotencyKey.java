@@ -0,0 +1,30 @@
+package ca.gbc.comp3095.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Global uniqueness for Idempotency-Keys. t_orders is partitioned by month, so it cannot
+ * carry a unique index on the key alone - this small table does it instead.
+ */
+@Entity
+@Table(name="t_order_idempotency_keys")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderIdempotencyKey {
+
+    @Id
+    private String idempotencyKey;
+
+    private UUID orderNumber;
+    // SHA-256 of the request body the key was first used with - null for keys stored before V8
+    private String requestHash;
+    private Instant createdAt;
+
+}
@@ -0,0 +1,12 @@
+package ca.gbc.comp3095.orderservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A row of t_order_lines. Not a JPA entity - lines are written in JDBC batches by OrderLineRepository.
+ */
+public record OrderLine(
+        int lineNumber,
+        String skuCode,
+        BigDecimal price,
+        Integer quantity) { }
@@ -0,0 +1,32 @@
+package ca.gbc.comp3095.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(name="t_order_outbox")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    private Long id;
+
+    private String aggregateId;  // order number the event belongs to
+    private String eventType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String payload;
+
+    private Instant createdAt;
+    private Instant publishedAt; // null until the relay has handed the event to the sink
+
+}
@@ -0,0 +1,15 @@
+package ca.gbc.comp3095.orderservice.ordernumber;
+
+import java.util.UUID;
+
+/**
+ * Source of order numbers. Selected with order.number.strategy:
+ *  - uuid-v7     (default) time-ordered, lock-free, carries this instance's node id
+ *  - random-uuid the original UUID.randomUUID() behaviour
+ * Both produce UUIDs so they fit the uuid order_number column.
+ */
+public interface OrderNumberGenerator {
+
+    UUID next();
+
+}
@@ -0,0 +1,20 @@
+package ca.gbc.comp3095.orderservice.ordernumber;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Original strategy: random (v4) UUIDs from the shared SecureRandom.
+ * Kept for comparison - random keys scatter inserts across the whole order_number index.
+ */
+@Component
+@ConditionalOnProperty(name = "order.number.strategy", havingValue = "random-uuid")
+public class RandomUuidOrderNumberGenerator implements OrderNumberGenerator {
+
+    @Override
+    public UUID next() {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,88 @@
+package ca.gbc.comp3095.orderservice.ordernumber;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDv7 order numbers (RFC 9562).
+ *
+ *  | 48 bit unix millis | ver=7 | 12 bit sequence | var=10 | 16 bit node id | 46 bit random |
+ *
+ * - New numbers are (almost) always appended at the right edge of the order_number index
+ * - Millis + sequence are packed in ONE AtomicLong and advanced with CAS, so threads never lock
+ *   and numbers from one instance are strictly increasing (4096 per ms, then we borrow the next ms)
+ * - The node id keeps instances apart even when their clocks and sequences collide
+ * - The random tail comes from ThreadLocalRandom - no shared SecureRandom contention
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.number.strategy", havingValue = "uuid-v7", matchIfMissing = true)
+public class UuidV7OrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final long SEQUENCE_BITS = 12;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long RANDOM_MASK = (1L << 46) - 1;
+
+    private final Clock clock;
+    private final long nodeBits;
+
+    // (unix millis << 12) | sequence of the last number handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public UuidV7OrderNumberGenerator(@Value("${order.number.node-id:-1}") int nodeId) {
+        this(Clock.systemUTC(), nodeId >= 0 ? nodeId : hostNodeId());
+    }
+
+    UuidV7OrderNumberGenerator(Clock clock, int nodeId) {
+        this.clock = clock;
+        this.nodeBits = ((long) nodeId & 0xFFFF) << 46;
+        log.info("Order numbers: UUIDv7 with node id {}", nodeId & 0xFFFF);
+    }
+
+    @Override
+    public UUID next() {
+        long packed = nextTimestampAndSequence();
+        long millis = packed >>> SEQUENCE_BITS;
+        long sequence = packed & MAX_SEQUENCE;
+
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = 0x8000000000000000L | nodeBits | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    private long nextTimestampAndSequence() {
+        while (true) {
+            long previous = state.get();
+            long now = clock.millis();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;                        // new millisecond, sequence restarts
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;                                // same millisecond (or clock went back)
+            } else {
+                next = (previousMillis + 1) << SEQUENCE_BITS;       // sequence exhausted - borrow the next ms
+            }
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static int hostNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & 0xFFFF;
+        } catch (Exception e) {
+            return ThreadLocalRandom.current().nextInt(0x10000);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ca.gbc.comp3095.orderservice.outbox;
+
+import ca.gbc.comp3095.orderservice.event.OrderCreatedEvent;
+import ca.gbc.comp3095.orderservice.model.Order;
+import ca.gbc.comp3095.orderservice.model.OrderLine;
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import ca.gbc.comp3095.orderservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes events into t_order_outbox. Must be called inside the transaction that
+ * persists the order, so the order and its event are committed (or rolled back) together.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void orderCreated(Order order) {
+        orderCreated(order, null);
+    }
+
+    // lines: null for a single-SKU order
+    public void orderCreated(Order order, List<OrderLine> lines) {
+        Instant now = Instant.now();
+        String orderNumber = order.getOrderNumber().toString();
+        var event = new OrderCreatedEvent(orderNumber, order.getSkuCode(),
+                order.getPrice(), order.getQuantity(), now,
+                lines == null ? null : lines.stream()
+                        .map(line -> new OrderCreatedEvent.Line(line.skuCode(), line.price(), line.quantity()))
+                        .toList());
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(orderNumber)
+                .eventType(OrderCreatedEvent.TYPE)
+                .payload(toJson(event))
+                .createdAt(now)
+                .build());
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event " + event, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ca.gbc.comp3095.orderservice.outbox;
+
+import ca.gbc.comp3095.orderservice.event.OrderEventPublisher;
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import ca.gbc.comp3095.orderservice.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Background relay: moves committed outbox rows to the event sink in batches.
+ * Locking the batch with SKIP LOCKED + marking it published happens in one transaction,
+ * so a crash or a failing sink simply leaves the rows for the next run.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventPublisher orderEventPublisher;
+
+    @Value("${order.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${order.outbox.retention:PT24H}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay.interval-ms:500}")
+    @Transactional
+    public void relay() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+        orderEventPublisher.publish(batch);
+        outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), Instant.now());
+        log.debug("Relayed {} outbox events", batch.size());
+    }
+
+    /**
+     * Published rows are only kept for troubleshooting - purge them so the table stays small.
+     */
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup.interval-ms:3600000}")
+    @Transactional
+    public void purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events older than {}", deleted, retention);
+        }
+    }
+}
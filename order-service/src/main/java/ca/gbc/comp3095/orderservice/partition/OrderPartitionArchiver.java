@@ -0,0 +1,112 @@
+package ca.gbc.comp3095.orderservice.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old order months out of the hot database - t_orders and t_order_lines, partitioned alike.
+ *  1. COPY the partition to a gzipped CSV in order.archive.directory (temp file + atomic rename)
+ *  2. DETACH + DROP the partition in one transaction
+ * Dropping a whole partition is a metadata operation - no DELETE, no dead tuples, no vacuum debt,
+ * and the remaining partitions (and their indexes) stay the size of the recent working set.
+ * If the export fails nothing is detached; if the drop fails the next run simply exports again.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true")
+public class OrderPartitionArchiver {
+
+    // Lines first - a month's headers are never archived while its lines are still in the database
+    private static final List<String> PARTITIONED_TABLES = List.of("t_order_lines", "t_orders");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${order.archive.directory:./archive/orders}")
+    private Path directory;
+
+    @Scheduled(cron = "${order.archive.cron:0 30 1 * * *}", zone = "UTC")
+    public void archiveExpiredPartitions() throws IOException {
+        YearMonth oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+
+        for (String table : PARTITIONED_TABLES) {
+            for (String partition : partitions(table)) {
+                YearMonth month = YearMonth.parse(partition.substring(table.length() + "_p".length()), PARTITION_MONTH);
+                if (month.isBefore(oldestKept)) {
+                    archive(table, partition);
+                }
+            }
+        }
+
+        // Keys only guard retries - once the orders themselves are archived they have nothing left to protect
+        int keys = jdbcTemplate.update("DELETE FROM t_order_idempotency_keys WHERE created_at < ?",
+                oldestKept.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        if (keys > 0) {
+            log.info("Deleted {} idempotency keys older than {}", keys, oldestKept);
+        }
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = ?::regclass
+                  AND c.relname ~ ('^' || ? || '_p[0-9]{4}_[0-9]{2}$')
+                ORDER BY c.relname
+                """, String.class, table, table);
+    }
+
+    private void archive(String table, String partition) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(partition + ".csv.gz");
+        Path temp = directory.resolve(partition + ".csv.gz.tmp");
+
+        long rows = export(partition, temp);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // table names are constants, partition names come from pg_class and match the pattern above - safe to inline
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+        log.info("Archived {} ({} rows) to {} on {}", partition, rows, target, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    private long export(String partition, Path file) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package ca.gbc.comp3095.orderservice.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps monthly t_orders (and t_order_lines) partitions created ahead of time.
+ * t_orders has no DEFAULT partition, so an insert for a month without a partition fails -
+ * we create the current month plus order.partitions.months-ahead on startup and once a day.
+ * create_order_partitions (V6, extended in V7) is idempotent and, since V9, serialised by an advisory lock,
+ * so several instances starting together can run this safely.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderPartitionManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${order.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${order.partitions.cron:0 15 0 * * *}", zone = "UTC")
+    public void ensurePartitions() {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_order_partitions((now() AT TIME ZONE 'UTC')::date, ?)", Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} order partition(s), covering {} month(s) ahead", created, monthsAhead);
+        }
+    }
+}
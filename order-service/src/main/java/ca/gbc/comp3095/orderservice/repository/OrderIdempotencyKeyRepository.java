@@ -0,0 +1,22 @@
+package ca.gbc.comp3095.orderservice.repository;
+
+import ca.gbc.comp3095.orderservice.model.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+
+    /**
+     * Plain INSERT on purpose: save() would merge() an entity with an assigned id and silently
+     * overwrite a concurrent winner instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO t_order_idempotency_keys (idempotency_key, order_number, request_hash, created_at) VALUES (:idempotencyKey, :orderNumber, :requestHash, now())",
+            nativeQuery = true)
+    void insert(@Param("idempotencyKey") String idempotencyKey, @Param("orderNumber") UUID orderNumber,
+                @Param("requestHash") String requestHash);
+}
@@ -0,0 +1,115 @@
+package ca.gbc.comp3095.orderservice.repository;
+
+import ca.gbc.comp3095.orderservice.dto.OrderLineResponse;
+import ca.gbc.comp3095.orderservice.dto.OrderResponse;
+import ca.gbc.comp3095.orderservice.model.OrderLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * t_order_lines through JdbcTemplate rather than JPA: the lines of an order go out as JDBC batches of
+ * order.lines.batch-size, which the driver rewrites into multi-row INSERTs (reWriteBatchedInserts) -
+ * one round trip for a typical cart instead of one per line.
+ * Runs in the caller's transaction (same DataSource as the JPA transaction manager).
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderLineRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${order.lines.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * @param createdAt the header's created_at - decides the partition, and is how lines are found again
+     */
+    public void insertAll(UUID orderNumber, Instant createdAt, List<OrderLine> lines) {
+        Timestamp created = Timestamp.from(createdAt);
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO t_order_lines (order_number, line_number, sku_code, price, quantity, created_at)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        """,
+                lines, batchSize, (statement, line) -> {
+                    statement.setObject(1, orderNumber);
+                    statement.setInt(2, line.lineNumber());
+                    statement.setString(3, line.skuCode());
+                    statement.setBigDecimal(4, line.price());
+                    statement.setInt(5, line.quantity());
+                    statement.setTimestamp(6, created);
+                });
+    }
+
+    /**
+     * The created_at range keeps the lookup to the order's partition (a second of slack for timestamp
+     * rounding between Hibernate and this insert); order_number leads the primary key.
+     */
+    public List<OrderLineResponse> findByOrder(UUID orderNumber, Instant createdAt) {
+        return jdbcTemplate.query("""
+                        SELECT line_number, sku_code, price, quantity
+                        FROM t_order_lines
+                        WHERE order_number = ? AND created_at >= ? AND created_at < ?
+                        ORDER BY line_number
+                        """,
+                (row, i) -> new OrderLineResponse(row.getInt(1), row.getString(2), row.getBigDecimal(3), row.getInt(4)),
+                orderNumber, Timestamp.from(createdAt.minusSeconds(1)), Timestamp.from(createdAt.plusSeconds(1)));
+    }
+
+    /**
+     * Orders of one SKU, newest first, keyset paged by id like OrderRepository's queries. Lives here because
+     * a multi-line header has sku_code NULL - its SKUs are only in t_order_lines, which JPA does not map.
+     * Two branches, each walking its own index and cut to the limit before they are merged:
+     *  - single-SKU orders through idx_orders_sku_code_id
+     *  - multi-line orders with a line of the SKU through idx_order_lines_sku_code, then idx_orders_order_number
+     *    (IN is a semi-join: a cart with the SKU on several lines is returned once)
+     * A header never has both a sku_code and lines, so the branches never return the same order.
+     */
+    public List<OrderResponse> findOrdersBySkuCode(String skuCode, Instant from, Instant to, long cursor, Limit limit) {
+        Timestamp rangeFrom = Timestamp.from(from);
+        Timestamp rangeTo = Timestamp.from(to);
+        int max = limit.max();
+        return jdbcTemplate.query("""
+                        (SELECT o.id, o.order_number, o.sku_code, o.price, o.quantity, o.line_count, o.created_at
+                         FROM t_orders o
+                         WHERE o.sku_code = ?
+                           AND o.created_at >= ? AND o.created_at < ?
+                           AND o.id < ?
+                         ORDER BY o.id DESC
+                         LIMIT ?)
+                        UNION ALL
+                        (SELECT o.id, o.order_number, o.sku_code, o.price, o.quantity, o.line_count, o.created_at
+                         FROM t_orders o
+                         WHERE o.order_number IN (SELECT l.order_number
+                                                  FROM t_order_lines l
+                                                  WHERE l.sku_code = ?
+                                                    AND l.created_at >= ? AND l.created_at < ?)
+                           AND o.created_at >= ? AND o.created_at < ?
+                           AND o.id < ?
+                         ORDER BY o.id DESC
+                         LIMIT ?)
+                        ORDER BY id DESC
+                        LIMIT ?
+                        """,
+                (row, i) -> new OrderResponse(
+                        row.getLong(1),
+                        row.getObject(2, UUID.class),
+                        row.getString(3),
+                        row.getBigDecimal(4),
+                        row.getInt(5),
+                        row.getObject(6, Integer.class),
+                        row.getTimestamp(7).toInstant()),
+                skuCode, rangeFrom, rangeTo, cursor, max,
+                // Same second of slack as findByOrder on the lines' created_at
+                skuCode, Timestamp.from(from.minusSeconds(1)), Timestamp.from(to.plusSeconds(1)),
+                rangeFrom, rangeTo, cursor, max,
+                max);
+    }
+}
@@ -1,7 +1,45 @@
 package ca.gbc.comp3095.orderservice.repository;
 
+import ca.gbc.comp3095.orderservice.dto.OrderResponse;
 import ca.gbc.comp3095.orderservice.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // All read queries project into OrderResponse and page by id (keyset):
+    // "WHERE id < :cursor ORDER BY id DESC" stays an index range scan no matter how deep you page,
+    // unlike OFFSET which has to read and throw away every skipped row.
+    // t_orders is partitioned by month on created_at - every query carries a created_at range
+    // so Postgres only visits the partitions that can match.
+    // Orders by SKU have to look into t_order_lines for multi-line orders - see OrderLineRepository.findOrdersBySkuCode.
+
+    @Query("""
+            SELECT new ca.gbc.comp3095.orderservice.dto.OrderResponse(o.id, o.orderNumber, o.skuCode, o.price, o.quantity, o.lineCount, o.createdAt)
+            FROM Order o
+            WHERE o.orderNumber = :orderNumber
+              AND o.createdAt >= :from AND o.createdAt < :to
+            """)
+    Optional<OrderResponse> findResponseByOrderNumber(@Param("orderNumber") UUID orderNumber,
+                                                      @Param("from") Instant from,
+                                                      @Param("to") Instant to);
+
+    @Query("""
+            SELECT new ca.gbc.comp3095.orderservice.dto.OrderResponse(o.id, o.orderNumber, o.skuCode, o.price, o.quantity, o.lineCount, o.createdAt)
+            FROM Order o
+            WHERE o.createdAt >= :from AND o.createdAt < :to
+              AND o.id < :cursor
+            ORDER BY o.id DESC
+            """)
+    List<OrderResponse> findHistory(@Param("from") Instant from,
+                                    @Param("to") Instant to,
+                                    @Param("cursor") long cursor,
+                                    Limit limit);
 }
@@ -1,9 +1,43 @@
 package ca.gbc.comp3095.orderservice.service;
 
+import ca.gbc.comp3095.orderservice.dto.OrderLineResponse;
+import ca.gbc.comp3095.orderservice.dto.OrderPage;
 import ca.gbc.comp3095.orderservice.dto.OrderRequest;
+import ca.gbc.comp3095.orderservice.dto.OrderResponse;
+import ca.gbc.comp3095.orderservice.idempotency.IdempotencyRecord;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 public interface OrderService {
 
-    void placeOrder(OrderRequest orderRequest);
+    /**
+     * A request with lines is placed as one multi-line order (see order.lines.partial-availability).
+     * @param idempotencyKey client supplied Idempotency-Key, stored with the order (may be null)
+     * @param requestHash hash of the request body, stored with the Idempotency-Key (null without one)
+     * @return the order number of the new order
+     */
+    UUID placeOrder(OrderRequest orderRequest, String idempotencyKey, String requestHash);
+
+    /**
+     * The completed record of an Idempotency-Key from t_order_idempotency_keys; its requestHash is null for
+     * keys stored before the hash was.
+     */
+    Optional<IdempotencyRecord> findIdempotencyRecord(String idempotencyKey);
+
+    Optional<OrderResponse> getOrder(UUID orderNumber);
+
+    /**
+     * Lines in line order; a single-SKU order has one line made from its header. Empty if there is no such order.
+     */
+    Optional<List<OrderLineResponse>> getOrderLines(UUID orderNumber);
+
+    /**
+     * Newest orders first. skuCode / from / to are optional filters, cursor is the
+     * nextCursor of the previous page (null for the first page).
+     */
+    OrderPage getOrders(String skuCode, Instant from, Instant to, Long cursor, int size);
 
 }
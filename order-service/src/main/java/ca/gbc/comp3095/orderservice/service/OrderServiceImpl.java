@@ -1,14 +1,40 @@
 package ca.gbc.comp3095.orderservice.service;
 
+import ca.gbc.comp3095.orderservice.client.InventoryAvailabilityCache;
 import ca.gbc.comp3095.orderservice.client.InventoryClient;
+import ca.gbc.comp3095.orderservice.client.StockCheck;
+import ca.gbc.comp3095.orderservice.dto.OrderLineRequest;
+import ca.gbc.comp3095.orderservice.dto.OrderLineResponse;
+import ca.gbc.comp3095.orderservice.dto.OrderPage;
 import ca.gbc.comp3095.orderservice.dto.OrderRequest;
+import ca.gbc.comp3095.orderservice.dto.OrderResponse;
+import ca.gbc.comp3095.orderservice.idempotency.IdempotencyRecord;
 import ca.gbc.comp3095.orderservice.model.Order;
+import ca.gbc.comp3095.orderservice.model.OrderLine;
+import ca.gbc.comp3095.orderservice.ordernumber.OrderNumberGenerator;
+import ca.gbc.comp3095.orderservice.outbox.OrderOutbox;
+import ca.gbc.comp3095.orderservice.repository.OrderIdempotencyKeyRepository;
+import ca.gbc.comp3095.orderservice.repository.OrderLineRepository;
 import ca.gbc.comp3095.orderservice.repository.OrderRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -17,31 +43,237 @@ import java.util.UUID;
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Instant FAR_FUTURE = Instant.parse("9999-12-31T00:00:00Z");
+    // Slack between the order number's embedded timestamp and created_at (sequence borrowing, slow inserts)
+    private static final Duration ORDER_NUMBER_TIME_WINDOW = Duration.ofHours(1);
+    // Well below inventory-service's limit of stock checks per availability call
+    static final int MAX_ORDER_LINES = 200;
+
+    /**
+     * What happens to a multi-line order when some of its SKUs are not in stock.
+     * Nothing in stock at all is always rejected.
+     */
+    enum PartialAvailability {
+        REJECT,           // the whole order fails with 409, nothing is written
+        DROP_UNAVAILABLE  // the order is placed with the lines that are in stock
+    }
+
     private final OrderRepository orderRepository;
     private final InventoryClient inventoryClient;
+    private final OrderOutbox orderOutbox;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final InventoryAvailabilityCache availabilityCache;
+
+    // false -> skip the remote stock check, the order-created event drives inventory asynchronously
+    @Value("${order.stock-check.enabled:true}")
+    private boolean stockCheckEnabled;
+
+    @Value("${order.lines.partial-availability:REJECT}")
+    private PartialAvailability partialAvailability;
 
     @Override
-    public void placeOrder(OrderRequest orderRequest) {
+    public UUID placeOrder(OrderRequest orderRequest, String idempotencyKey, String requestHash) {
+
+        if (orderRequest.isMultiLine()) {
+            return placeMultiLineOrder(orderRequest.lines(), idempotencyKey, requestHash);
+        }
 
-        var isProductInStock = inventoryClient.isInStock(orderRequest.skuCode(), orderRequest.quantity());
+        var isProductInStock = !stockCheckEnabled || isInStock(orderRequest.skuCode(), orderRequest.quantity());
 
         // No reason to create an order if we don't have stock
         if (isProductInStock) {
             Order order = Order.builder()
-                    .orderNumber(UUID.randomUUID().toString())
+                    .orderNumber(orderNumberGenerator.next())
                     .price(orderRequest.price())
                     .quantity(orderRequest.quantity())
                     .skuCode(orderRequest.skuCode())
+                    .idempotencyKey(idempotencyKey)
                     .build();
 
             //persist the order to the order-service database
             orderRepository.save(order);
 
+            // Fails with a DataIntegrityViolationException (and rolls the order back) if the key was already used
+            if (idempotencyKey != null) {
+                orderIdempotencyKeyRepository.insert(idempotencyKey, order.getOrderNumber(), requestHash);
+            }
+
+            // Same transaction as the insert above - the event is committed if and only if the order is
+            orderOutbox.orderCreated(order);
+
+            return order.getOrderNumber();
+
         } else {
 
-            throw new RuntimeException("Product with skuCode: " + orderRequest.skuCode() + " is not in stock for the requested quantity");
+            throw new OutOfStockException("Product with skuCode: " + orderRequest.skuCode() + " is not in stock for the requested quantity");
+
+        }
+    }
+
+    // A recent answer for this SKU (see InventoryAvailabilityCache) saves the remote call
+    private boolean isInStock(String skuCode, Integer quantity) {
+        Boolean cached = quantity == null ? null : availabilityCache.lookup(skuCode, quantity);
+        if (cached != null) {
+            return cached;
+        }
+        boolean inStock = inventoryClient.isInStock(skuCode, quantity);
+        return quantity == null ? inStock : availabilityCache.record(skuCode, quantity, inStock);
+    }
+
+    /**
+     * A whole cart in one order: one availability call for all lines, then the header (t_orders), the lines
+     * (t_order_lines, batched), the idempotency key and the outbox event in this one transaction.
+     */
+    private UUID placeMultiLineOrder(List<OrderLineRequest> requested, String idempotencyKey, String requestHash) {
+
+        validate(requested);
+        List<OrderLineRequest> accepted = stockCheckEnabled ? inStock(requested) : requested;
+
+        List<OrderLine> lines = new ArrayList<>(accepted.size());
+        BigDecimal total = BigDecimal.ZERO;
+        int units = 0;
+        for (OrderLineRequest line : accepted) {
+            lines.add(new OrderLine(lines.size() + 1, line.skuCode(), line.price(), line.quantity()));
+            total = total.add(line.price().multiply(BigDecimal.valueOf(line.quantity())));
+            units += line.quantity();
+        }
+
+        Order order = Order.builder()
+                .orderNumber(orderNumberGenerator.next())
+                .price(total)
+                .quantity(units)
+                .lineCount(lines.size())
+                .idempotencyKey(idempotencyKey)
+                .build();
+        orderRepository.save(order); // IDENTITY - inserted right away, createdAt is set
+
+        orderLineRepository.insertAll(order.getOrderNumber(), order.getCreatedAt(), lines);
+
+        if (idempotencyKey != null) {
+            orderIdempotencyKeyRepository.insert(idempotencyKey, order.getOrderNumber(), requestHash);
+        }
+        orderOutbox.orderCreated(order, lines);
+
+        if (lines.size() < requested.size()) {
+            log.info("Order {} placed with {} of {} lines, the rest is not in stock",
+                    order.getOrderNumber(), lines.size(), requested.size());
+        }
+        return order.getOrderNumber();
+    }
+
+    private static void validate(List<OrderLineRequest> lines) {
+        if (lines.size() > MAX_ORDER_LINES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "An order has at most " + MAX_ORDER_LINES + " lines, got " + lines.size());
+        }
+        for (OrderLineRequest line : lines) {
+            if (line == null || line.skuCode() == null || line.skuCode().isBlank()
+                    || line.quantity() == null || line.quantity() < 1
+                    || line.price() == null || line.price().signum() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Every order line needs a skuCode, a quantity of at least 1 and a price: " + line);
+            }
+        }
+    }
+
+    /**
+     * One stock check per SKU for the quantity of ALL its lines (two lines of 3 need 6 in stock),
+     * sent together as one availability call. SKUs with a recent cached answer are not asked again.
+     */
+    private List<OrderLineRequest> inStock(List<OrderLineRequest> lines) {
+        Map<String, Integer> perSku = new LinkedHashMap<>();
+        lines.forEach(line -> perSku.merge(line.skuCode(), line.quantity(), Integer::sum));
+        List<StockCheck> checks = perSku.entrySet().stream()
+                .map(sku -> new StockCheck(sku.getKey(), sku.getValue()))
+                .toList();
+
+        List<Boolean> answers = new ArrayList<>(checks.size());
+        List<Integer> unknown = new ArrayList<>();
+        for (StockCheck check : checks) {
+            Boolean cached = availabilityCache.lookup(check.skuCode(), check.quantity());
+            if (cached == null) {
+                unknown.add(answers.size());
+            }
+            answers.add(cached);
+        }
+        if (!unknown.isEmpty()) {
+            List<Boolean> remote = inventoryClient.areInStock(unknown.stream().map(checks::get).toList());
+            if (remote.size() != unknown.size()) {
+                throw new IllegalStateException("inventory-service answered " + remote.size() + " of " + unknown.size() + " stock checks");
+            }
+            for (int i = 0; i < unknown.size(); i++) {
+                StockCheck check = checks.get(unknown.get(i));
+                answers.set(unknown.get(i), availabilityCache.record(check.skuCode(), check.quantity(), Boolean.TRUE.equals(remote.get(i))));
+            }
+        }
+        Set<String> unavailable = new LinkedHashSet<>();
+        for (int i = 0; i < checks.size(); i++) {
+            if (!Boolean.TRUE.equals(answers.get(i))) {
+                unavailable.add(checks.get(i).skuCode());
+            }
+        }
+
+        if (unavailable.isEmpty()) {
+            return lines;
+        }
+        if (partialAvailability == PartialAvailability.REJECT || unavailable.size() == checks.size()) {
+            throw new OutOfStockException("Not in stock for the requested quantity: " + String.join(", ", unavailable));
+        }
+        return lines.stream()
+                .filter(line -> !unavailable.contains(line.skuCode()))
+                .toList();
+    }
+
+    @Override
+    public Optional<List<OrderLineResponse>> getOrderLines(UUID orderNumber) {
+        return getOrder(orderNumber).map(order -> order.lineCount() == null
+                // single-SKU order - the header is its only line
+                ? List.of(new OrderLineResponse(1, order.skuCode(), order.price(), order.quantity()))
+                : orderLineRepository.findByOrder(orderNumber, order.createdAt()));
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> findIdempotencyRecord(String idempotencyKey) {
+        return orderIdempotencyKeyRepository.findById(idempotencyKey)
+                .map(key -> IdempotencyRecord.inProgress(key.getRequestHash()).completed(key.getOrderNumber()));
+    }
+
+    @Override
+    public Optional<OrderResponse> getOrder(UUID orderNumber) {
+        // UUIDv7 order numbers carry their creation time - search only the partition(s) around it
+        if (orderNumber.version() == 7) {
+            Instant generatedAt = Instant.ofEpochMilli(orderNumber.getMostSignificantBits() >>> 16);
+            Optional<OrderResponse> order = orderRepository.findResponseByOrderNumber(orderNumber,
+                    generatedAt.minus(ORDER_NUMBER_TIME_WINDOW), generatedAt.plus(ORDER_NUMBER_TIME_WINDOW));
+            if (order.isPresent()) {
+                return order;
+            }
+        }
+        return orderRepository.findResponseByOrderNumber(orderNumber, Instant.EPOCH, FAR_FUTURE);
+    }
+
+    @Override
+    public OrderPage getOrders(String skuCode, Instant from, Instant to, Long cursor, int size) {
+
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        long after = cursor != null ? cursor : Long.MAX_VALUE;
+
+        // Fetch one extra row to know whether there is a next page without a COUNT(*)
+        Limit limit = Limit.of(pageSize + 1);
+        Instant rangeFrom = from != null ? from : Instant.EPOCH;
+        Instant rangeTo = to != null ? to : FAR_FUTURE;
+        List<OrderResponse> rows = (skuCode == null || skuCode.isBlank())
+                ? orderRepository.findHistory(rangeFrom, rangeTo, after, limit)
+                : orderLineRepository.findOrdersBySkuCode(skuCode, rangeFrom, rangeTo, after, limit);
 
+        if (rows.size() <= pageSize) {
+            return new OrderPage(rows, null);
         }
+        List<OrderResponse> page = rows.subList(0, pageSize);
+        return new OrderPage(List.copyOf(page), page.getLast().id());
     }
 
 }
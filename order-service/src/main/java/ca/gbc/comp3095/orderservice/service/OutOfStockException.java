@@ -0,0 +1,20 @@
+package ca.gbc.comp3095.orderservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 409 for an order that cannot be placed because its stock is not there. An expected answer, not a failure:
+ * clients retrying an out-of-stock SKU can send lots of these, so no stack trace is captured (or logged).
+ */
+public class OutOfStockException extends ResponseStatusException {
+
+    public OutOfStockException(String reason) {
+        super(HttpStatus.CONFLICT, reason);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,14 @@
+-- Transactional outbox: written in the SAME transaction as t_orders,
+-- then relayed asynchronously to the configured event sink
+CREATE TABLE t_order_outbox (
+    id BIGSERIAL NOT NULL,
+    aggregate_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    published_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+-- The relay only ever scans unpublished rows in id order - keep that index tiny
+CREATE INDEX idx_order_outbox_unpublished ON t_order_outbox (id) WHERE published_at IS NULL;
@@ -0,0 +1,6 @@
+-- Store order numbers as native uuid (16 bytes) instead of a 36 character VARCHAR(255).
+-- Existing values were produced by UUID.randomUUID().toString(), so the cast is lossless.
+ALTER TABLE t_orders ALTER COLUMN order_number TYPE uuid USING order_number::uuid;
+
+-- UUIDv7 order numbers are time ordered, so inserts append to the right edge of this index
+CREATE UNIQUE INDEX idx_orders_order_number ON t_orders (order_number);
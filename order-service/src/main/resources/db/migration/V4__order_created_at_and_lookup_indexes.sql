@@ -0,0 +1,8 @@
+-- Creation time for history / reporting queries (existing rows get the migration time)
+ALTER TABLE t_orders ADD COLUMN created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+-- Orders of one SKU, newest first - keyset pagination walks (sku_code, id) backwards
+CREATE INDEX idx_orders_sku_code_id ON t_orders (sku_code, id DESC) INCLUDE (created_at);
+
+-- Date range filters across all SKUs
+CREATE INDEX idx_orders_created_at ON t_orders (created_at);
@@ -0,0 +1,5 @@
+-- Client supplied Idempotency-Key. The partial unique index is the backstop behind the
+-- in-memory/Redis dedup store: even if that store has forgotten a key, a retry cannot insert twice.
+ALTER TABLE t_orders ADD COLUMN idempotency_key VARCHAR(100);
+
+CREATE UNIQUE INDEX idx_orders_idempotency_key ON t_orders (idempotency_key) WHERE idempotency_key IS NOT NULL;
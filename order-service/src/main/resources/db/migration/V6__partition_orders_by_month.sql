@@ -0,0 +1,84 @@
+-- ---------------------------------------------------------------------------
+-- Monthly range partitioning of t_orders on created_at.
+--  - Inserts and vacuum only touch the current month's (small) partition
+--  - Queries with a created_at range are pruned to the matching partitions
+--  - Old months can be detached + archived instead of DELETEd row by row
+-- Postgres requires the partition key in every PK/unique index, so:
+--  - PK becomes (id, created_at)          (id itself is still unique - one sequence)
+--  - order_number is indexed per partition (uniqueness comes from the UUIDv7 generator)
+--  - the global Idempotency-Key backstop moves to t_order_idempotency_keys
+-- ---------------------------------------------------------------------------
+
+-- Keep the id sequence alive when the old table is dropped
+ALTER SEQUENCE t_orders_id_seq OWNED BY NONE;
+
+ALTER TABLE t_orders RENAME TO t_orders_legacy;
+ALTER TABLE t_orders_legacy DROP CONSTRAINT t_orders_pkey;
+DROP INDEX idx_orders_order_number;
+DROP INDEX idx_orders_sku_code_id;
+DROP INDEX idx_orders_created_at;
+DROP INDEX idx_orders_idempotency_key;
+
+CREATE TABLE t_orders (
+    id BIGINT NOT NULL DEFAULT nextval('t_orders_id_seq'),
+    order_number uuid,
+    sku_code VARCHAR(255),
+    price DECIMAL (10,2),
+    quantity INT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    idempotency_key VARCHAR(100),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE t_orders_id_seq OWNED BY t_orders.id;
+
+CREATE TABLE t_order_idempotency_keys (
+    idempotency_key VARCHAR(100) NOT NULL,
+    order_number uuid NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (idempotency_key)
+);
+
+-- Creates every missing monthly partition (UTC months) from from_month up to months_ahead
+-- months after the current one. Called here and by the OrderPartitionManager job.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, months_ahead INT) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    last_month DATE := (date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => months_ahead))::date;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        partition_name := format('t_orders_p%s', to_char(month_start, 'YYYY_MM'));
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF t_orders FOR VALUES FROM (%L) TO (%L)',
+                           partition_name,
+                           month_start::timestamp AT TIME ZONE 'UTC',
+                           (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_order_partitions(
+        COALESCE((SELECT min(created_at) AT TIME ZONE 'UTC' FROM t_orders_legacy), now() AT TIME ZONE 'UTC')::date,
+        3);
+
+INSERT INTO t_orders (id, order_number, sku_code, price, quantity, created_at, idempotency_key)
+SELECT id, order_number, sku_code, price, quantity, created_at, idempotency_key
+FROM t_orders_legacy;
+
+INSERT INTO t_order_idempotency_keys (idempotency_key, order_number, created_at)
+SELECT idempotency_key, order_number, created_at
+FROM t_orders_legacy
+WHERE idempotency_key IS NOT NULL;
+
+DROP TABLE t_orders_legacy;
+
+-- Indexes on the parent are created on every (current and future) partition
+CREATE INDEX idx_orders_order_number ON t_orders (order_number);
+CREATE INDEX idx_orders_sku_code_id ON t_orders (sku_code, id DESC) INCLUDE (created_at);
+CREATE INDEX idx_orders_created_at ON t_orders (created_at);
@@ -0,0 +1,54 @@
+-- ---------------------------------------------------------------------------
+-- Multi-line orders: the order header stays in t_orders, every line gets a row in t_order_lines.
+--  - Header of a multi-line order: sku_code NULL, price = order total, quantity = total units,
+--    line_count = number of lines
+--  - Single-SKU orders (no "lines" in the request) are unchanged: one t_orders row, line_count NULL
+-- t_order_lines is partitioned by month on created_at like t_orders - a line carries its header's
+-- created_at, so a month of orders and its lines live (and are archived) side by side.
+-- ---------------------------------------------------------------------------
+
+ALTER TABLE t_orders ADD COLUMN line_count INT;
+
+CREATE TABLE t_order_lines (
+    order_number uuid NOT NULL,
+    line_number INT NOT NULL,
+    sku_code VARCHAR(255) NOT NULL,
+    price DECIMAL (10,2) NOT NULL,
+    quantity INT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (order_number, created_at, line_number)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_order_lines_sku_code ON t_order_lines (sku_code, created_at);
+
+-- Same as V6, now creating the month's t_order_lines partition next to the t_orders one
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, months_ahead INT) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    last_month DATE := (date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => months_ahead))::date;
+    parent TEXT;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        FOREACH parent IN ARRAY ARRAY['t_orders', 't_order_lines'] LOOP
+            partition_name := format('%s_p%s', parent, to_char(month_start, 'YYYY_MM'));
+            IF to_regclass(partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                               partition_name,
+                               parent,
+                               month_start::timestamp AT TIME ZONE 'UTC',
+                               (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+                created := created + 1;
+            END IF;
+        END LOOP;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Line partitions for every month that already has orders
+SELECT create_order_partitions(
+        COALESCE((SELECT min(created_at) AT TIME ZONE 'UTC' FROM t_orders), now() AT TIME ZONE 'UTC')::date,
+        3);
@@ -0,0 +1,4 @@
+-- The database backstop for Idempotency-Keys remembers the request body hash (hex SHA-256) too, so a key
+-- re-used for a different order is rejected even after the fast idempotency store has forgotten it.
+-- Keys stored before this migration keep a NULL hash and are replayed without the check.
+ALTER TABLE t_order_idempotency_keys ADD COLUMN request_hash VARCHAR(64);
@@ -0,0 +1,35 @@
+-- create_order_partitions (V7) checked to_regclass and then created the partition - two instances starting
+-- together both saw it missing, and the slower CREATE failed with duplicate_table, failing that instance's startup.
+-- Callers now take a transaction-level advisory lock, so they run one after another and the second one finds
+-- the partitions already there. A partition created outside this function in the meantime is skipped as well.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, months_ahead INT) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    last_month DATE := (date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => months_ahead))::date;
+    parent TEXT;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    -- Held until the calling transaction ends
+    PERFORM pg_advisory_xact_lock(hashtext('create_order_partitions'));
+    WHILE month_start <= last_month LOOP
+        FOREACH parent IN ARRAY ARRAY['t_orders', 't_order_lines'] LOOP
+            partition_name := format('%s_p%s', parent, to_char(month_start, 'YYYY_MM'));
+            IF to_regclass(partition_name) IS NULL THEN
+                BEGIN
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                                   partition_name,
+                                   parent,
+                                   month_start::timestamp AT TIME ZONE 'UTC',
+                                   (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+                    created := created + 1;
+                EXCEPTION WHEN duplicate_table THEN
+                    NULL;
+                END;
+            END IF;
+        END LOOP;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
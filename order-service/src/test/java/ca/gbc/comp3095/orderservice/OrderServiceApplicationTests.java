@@ -1,8 +1,10 @@
 package ca.gbc.comp3095.orderservice;
 
+import ca.gbc.comp3095.orderservice.idempotency.IdempotencyStore;
 import ca.gbc.comp3095.orderservice.stubs.InventoryClientStub;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import io.restassured.RestAssured;
+import io.restassured.response.ValidatableResponse;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,8 +13,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -36,6 +43,14 @@ class OrderServiceApplicationTests {
     @Autowired
     private WireMockServer wireMockServer; // Our connection for wiremock will be injected here
 
+    // Direct database access to verify what was written alongside the order
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The fast Idempotency-Key store, to make it forget keys
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     // Set up RestAssured with the server URL and random port
     @BeforeEach
     void setup() {
@@ -85,4 +100,307 @@ class OrderServiceApplicationTests {
         // Validate that the response is what we expect
         assertThat(responseBodyString, Matchers.is("Successfully Placed Order"));
     }
+
+    @Test
+    void placeOrderWritesOutboxEventTest() {
+        String orderJson = """
+                {
+                  "skuCode": "iphone_17",
+                  "price": 1500,
+                  "quantity": 2
+                }
+                """;
+
+        InventoryClientStub.stubInventoryCall("iphone_17", 2);
+
+        RestAssured.given()
+                .contentType("application/json")
+                .body(orderJson)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(201);
+
+        // The order-created event is committed in the same transaction as the order itself
+        Integer events = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_order_outbox WHERE event_type = 'order.created' AND payload ->> 'skuCode' = 'iphone_17'",
+                Integer.class);
+        assertThat(events, Matchers.is(1));
+    }
+
+    @Test
+    void orderHistoryIsKeysetPaginatedBySkuTest() {
+        InventoryClientStub.stubInventoryCall("history_sku", 1);
+        for (int i = 0; i < 3; i++) {
+            RestAssured.given()
+                    .contentType("application/json")
+                    .body("""
+                            { "skuCode": "history_sku", "price": 10, "quantity": 1 }
+                            """)
+                    .when()
+                    .post("/api/order")
+                    .then()
+                    .statusCode(201);
+        }
+
+        // First page: the two newest orders plus a cursor
+        var firstPage = RestAssured.given()
+                .queryParam("skuCode", "history_sku")
+                .queryParam("size", 2)
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items.size()", Matchers.is(2))
+                .body("nextCursor", Matchers.notNullValue())
+                .extract().jsonPath();
+
+        // Second page: the remaining order and no further cursor
+        RestAssured.given()
+                .queryParam("skuCode", "history_sku")
+                .queryParam("size", 2)
+                .queryParam("cursor", firstPage.getLong("nextCursor"))
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items.size()", Matchers.is(1))
+                .body("nextCursor", Matchers.nullValue());
+
+        // Lookup by order number
+        String orderNumber = firstPage.getString("items[0].orderNumber");
+        RestAssured.given()
+                .when()
+                .get("/api/order/{orderNumber}", orderNumber)
+                .then()
+                .statusCode(200)
+                .body("skuCode", Matchers.is("history_sku"));
+    }
+
+    @Test
+    void orderHistoryBySkuIncludesMultiLineOrdersTest() {
+        InventoryClientStub.stubInventoryCall("mixed_sku", 1);
+        InventoryClientStub.stubAvailabilityCall("mixed_sku", true, true);
+
+        RestAssured.given()
+                .contentType("application/json")
+                .body("""
+                        { "skuCode": "mixed_sku", "price": 10, "quantity": 1 }
+                        """)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(201);
+        // The header of a cart has no sku_code - the SKU (twice) is only on its lines
+        String location = RestAssured.given()
+                .contentType("application/json")
+                .body("""
+                        { "lines": [
+                            { "skuCode": "mixed_sku", "price": 10, "quantity": 1 },
+                            { "skuCode": "mixed_sku_other", "price": 4, "quantity": 2 },
+                            { "skuCode": "mixed_sku", "price": 10, "quantity": 1 }
+                        ] }
+                        """)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(201)
+                .extract().header("Location");
+        String cart = location.substring(location.lastIndexOf('/') + 1);
+
+        // Both orders, each once, newest first
+        RestAssured.given()
+                .queryParam("skuCode", "mixed_sku")
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items.size()", Matchers.is(2))
+                .body("items[0].lineCount", Matchers.is(3))
+                .body("items[1].skuCode", Matchers.is("mixed_sku"));
+
+        // Keyset paging runs across both kinds of order
+        var firstPage = RestAssured.given()
+                .queryParam("skuCode", "mixed_sku")
+                .queryParam("size", 1)
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items[0].orderNumber", Matchers.is(cart))
+                .body("nextCursor", Matchers.notNullValue())
+                .extract().jsonPath();
+        RestAssured.given()
+                .queryParam("skuCode", "mixed_sku")
+                .queryParam("size", 1)
+                .queryParam("cursor", firstPage.getLong("nextCursor"))
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items.size()", Matchers.is(1))
+                .body("items[0].skuCode", Matchers.is("mixed_sku"))
+                .body("nextCursor", Matchers.nullValue());
+
+        // A SKU that only appears on a line finds the cart alone
+        RestAssured.given()
+                .queryParam("skuCode", "mixed_sku_other")
+                .when()
+                .get("/api/order")
+                .then()
+                .statusCode(200)
+                .body("items.size()", Matchers.is(1))
+                .body("items[0].orderNumber", Matchers.is(cart));
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyIsReplayedTest() {
+        String orderJson = """
+                { "skuCode": "idem_sku", "price": 99, "quantity": 3 }
+                """;
+        InventoryClientStub.stubInventoryCall("idem_sku", 3);
+
+        for (String expectedReplay : new String[] {"false", "true"}) {
+            RestAssured.given()
+                    .contentType("application/json")
+                    .header("Idempotency-Key", "retry-test-key")
+                    .body(orderJson)
+                    .when()
+                    .post("/api/order")
+                    .then()
+                    .statusCode(201)
+                    .header("Idempotent-Replayed", expectedReplay);
+        }
+
+        // The retry touched neither inventory-service nor t_orders
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/inventory?skuCode=idem_sku&quantity=3")));
+        Integer orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_orders WHERE idempotency_key = 'retry-test-key'", Integer.class);
+        assertThat(orders, Matchers.is(1));
+    }
+
+    @Test
+    void reusedIdempotencyKeyIsRejectedAfterTheStoreForgotItTest() {
+        InventoryClientStub.stubInventoryCall("reuse_sku", 1);
+
+        postWithIdempotencyKey("reuse-test-key", "{ \"skuCode\": \"reuse_sku\", \"price\": 10.50, \"quantity\": 1 }")
+                .statusCode(201)
+                .header("Idempotent-Replayed", "false");
+
+        // As if the TTL had expired - only t_order_idempotency_keys remembers the key now
+        idempotencyStore.release("reuse-test-key");
+        postWithIdempotencyKey("reuse-test-key", "{ \"skuCode\": \"reuse_sku\", \"price\": 10.50, \"quantity\": 2 }")
+                .statusCode(422);
+
+        // The same body (price written differently) is still a replay
+        idempotencyStore.release("reuse-test-key");
+        postWithIdempotencyKey("reuse-test-key", "{ \"skuCode\": \"reuse_sku\", \"price\": 10.5, \"quantity\": 1 }")
+                .statusCode(201)
+                .header("Idempotent-Replayed", "true");
+
+        Integer orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_orders WHERE idempotency_key = 'reuse-test-key'", Integer.class);
+        assertThat(orders, Matchers.is(1));
+    }
+
+    private static ValidatableResponse postWithIdempotencyKey(String idempotencyKey, String orderJson) {
+        return RestAssured.given()
+                .contentType("application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .body(orderJson)
+                .when()
+                .post("/api/order")
+                .then();
+    }
+
+    @Test
+    void retriedOutOfStockOrderIsAnsweredFromTheCacheTest() {
+        InventoryClientStub.stubOutOfStockCall("sold_out_sku", 2);
+
+        // The same order retried, then a larger one - out of stock for 2 means out of stock for 5 too
+        for (int quantity : new int[] {2, 2, 2, 5}) {
+            RestAssured.given()
+                    .contentType("application/json")
+                    .body("{ \"skuCode\": \"sold_out_sku\", \"price\": 10, \"quantity\": " + quantity + " }")
+                    .when()
+                    .post("/api/order")
+                    .then()
+                    .statusCode(409);
+        }
+
+        // Only the first order reached inventory-service (order.stock-check.cache.negative-ttl)
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/inventory?skuCode=sold_out_sku&quantity=2")));
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo("/api/inventory?skuCode=sold_out_sku&quantity=5")));
+    }
+
+    @Test
+    void cartIsPlacedAsOneMultiLineOrderTest() {
+        // Two lines of the same SKU are checked as ONE stock check for their total (cart_sku_a x 3)
+        InventoryClientStub.stubAvailabilityCall("cart_sku_a", true, true);
+
+        String location = RestAssured.given()
+                .contentType("application/json")
+                .body("""
+                        { "lines": [
+                            { "skuCode": "cart_sku_a", "price": 10.50, "quantity": 1 },
+                            { "skuCode": "cart_sku_b", "price": 4, "quantity": 5 },
+                            { "skuCode": "cart_sku_a", "price": 10.50, "quantity": 2 }
+                        ] }
+                        """)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(201)
+                .extract().header("Location");
+
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/api/inventory/availability"))
+                .withRequestBody(equalToJson("""
+                        [ { "skuCode": "cart_sku_a", "quantity": 3 }, { "skuCode": "cart_sku_b", "quantity": 5 } ]
+                        """)));
+
+        // One header carrying the totals, three lines
+        RestAssured.given()
+                .when()
+                .get(location)
+                .then()
+                .statusCode(200)
+                .body("lineCount", Matchers.is(3))
+                .body("quantity", Matchers.is(8))
+                .body("price", Matchers.is(51.50f));
+        RestAssured.given()
+                .when()
+                .get(location + "/lines")
+                .then()
+                .statusCode(200)
+                .body("lineNumber", Matchers.contains(1, 2, 3))
+                .body("skuCode", Matchers.contains("cart_sku_a", "cart_sku_b", "cart_sku_a"));
+
+        Integer events = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_order_outbox WHERE event_type = 'order.created' AND jsonb_array_length(payload -> 'lines') = 3",
+                Integer.class);
+        assertThat(events, Matchers.is(1));
+    }
+
+    @Test
+    void cartWithUnavailableSkuIsRejectedTest() {
+        InventoryClientStub.stubAvailabilityCall("reject_sku_in", true, false);
+
+        RestAssured.given()
+                .contentType("application/json")
+                .body("""
+                        { "lines": [
+                            { "skuCode": "reject_sku_in", "price": 1, "quantity": 1 },
+                            { "skuCode": "reject_sku_out", "price": 1, "quantity": 1 }
+                        ] }
+                        """)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(409);
+
+        // order.lines.partial-availability=REJECT - nothing of the cart was written
+        Integer lines = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_order_lines WHERE sku_code = 'reject_sku_in'", Integer.class);
+        assertThat(lines, Matchers.is(0));
+    }
 }
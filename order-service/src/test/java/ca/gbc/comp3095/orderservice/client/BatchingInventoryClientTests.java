@@ -0,0 +1,112 @@
+package ca.gbc.comp3095.orderservice.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingInventoryClientTests {
+
+    private final RecordingInventory inventory = new RecordingInventory();
+    private BatchingInventoryClient client;
+
+    @AfterEach
+    void shutdown() {
+        inventory.release.countDown();
+        client.shutdown();
+    }
+
+    @Test
+    void identicalChecksInFlightShareOneCall() {
+        client = client(64, Duration.ofMillis(1));
+
+        // The first call blocks in "inventory-service" until released - every later identical check joins it
+        List<CompletableFuture<Boolean>> checks = IntStream.range(0, 10)
+                .mapToObj(i -> client.check(new StockCheck("SKU_A", 1)))
+                .toList();
+        checks.forEach(check -> assertSame(checks.getFirst(), check));
+
+        inventory.release.countDown();
+        checks.forEach(check -> assertTrue(check.join()));
+        assertEquals(List.of(List.of(new StockCheck("SKU_A", 1))), inventory.calls);
+    }
+
+    @Test
+    void distinctChecksWithinTheWindowBecomeOneCallAndFullBatchesDoNotWait() {
+        inventory.release.countDown();
+        client = client(3, Duration.ofSeconds(30));
+
+        // Three distinct checks fill the batch - sent at once, not after the 30s window
+        CompletableFuture<Boolean> small = client.check(new StockCheck("SKU_A", 5));
+        CompletableFuture<Boolean> large = client.check(new StockCheck("SKU_A", 50));
+        CompletableFuture<Boolean> other = client.check(new StockCheck("SKU_B", 1));
+
+        assertTrue(small.orTimeout(5, TimeUnit.SECONDS).join());
+        assertFalse(large.join());
+        assertTrue(other.join());
+        assertEquals(1, inventory.calls.size());
+        assertEquals(3, inventory.calls.getFirst().size());
+    }
+
+    @Test
+    void failedCallFailsEveryWaitingCheck() {
+        inventory.release.countDown();
+        inventory.failing = true;
+        client = client(2, Duration.ofSeconds(30));
+
+        CompletableFuture<Boolean> first = client.check(new StockCheck("SKU_A", 1));
+        CompletableFuture<Boolean> second = client.check(new StockCheck("SKU_B", 1));
+
+        CompletionException error = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    private BatchingInventoryClient client(int maxBatchSize, Duration maxWait) {
+        return new BatchingInventoryClient(inventory, new SimpleMeterRegistry(),
+                new StaticListableBeanFactory().getBeanProvider(Tracer.class), maxBatchSize, maxWait);
+    }
+
+    // Stand-in for inventory-service: 10 of every SKU, records each call
+    private static final class RecordingInventory implements InventoryClient {
+        private final List<List<StockCheck>> calls = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean failing;
+
+        @Override
+        public boolean isInStock(String skuCode, Integer quantity) {
+            return areInStock(List.of(new StockCheck(skuCode, quantity))).getFirst();
+        }
+
+        @Override
+        public List<Boolean> areInStock(List<StockCheck> checks) {
+            calls.add(checks);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing) {
+                throw new IllegalStateException("inventory-service unavailable");
+            }
+            return checks.stream().map(check -> check.quantity() <= 10).toList();
+        }
+    }
+}
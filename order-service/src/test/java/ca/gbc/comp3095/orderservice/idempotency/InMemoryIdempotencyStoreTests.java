@@ -0,0 +1,43 @@
+package ca.gbc.comp3095.orderservice.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The two lifetimes of a key: a claim only holds for the in-progress lease, a completed entry for the full ttl.
+ */
+class InMemoryIdempotencyStoreTests {
+
+    private final InMemoryIdempotencyStore store =
+            new InMemoryIdempotencyStore(Duration.ofHours(24), Duration.ofMillis(200));
+
+    @Test
+    void abandonedClaimCanBeTakenOverAfterTheLease() throws InterruptedException {
+        assertTrue(store.claim("crashed", IdempotencyRecord.inProgress("hash")));
+        assertFalse(store.claim("crashed", IdempotencyRecord.inProgress("hash")));
+
+        // The instance holding the claim never completes it
+        Thread.sleep(300);
+
+        assertTrue(store.get("crashed").isEmpty());
+        assertTrue(store.claim("crashed", IdempotencyRecord.inProgress("hash")));
+    }
+
+    @Test
+    void completedEntryOutlivesTheLease() throws InterruptedException {
+        UUID orderNumber = UUID.randomUUID();
+        assertTrue(store.claim("done", IdempotencyRecord.inProgress("hash")));
+        store.complete("done", IdempotencyRecord.inProgress("hash").completed(orderNumber));
+
+        Thread.sleep(300);
+
+        assertEquals(orderNumber, store.get("done").orElseThrow().orderNumber());
+        assertFalse(store.claim("done", IdempotencyRecord.inProgress("hash")));
+    }
+}
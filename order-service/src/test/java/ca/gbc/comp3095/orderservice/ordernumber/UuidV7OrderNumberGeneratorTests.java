@@ -0,0 +1,42 @@
+package ca.gbc.comp3095.orderservice.ordernumber;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7OrderNumberGeneratorTests {
+
+    @Test
+    void generatesVersion7UuidsCarryingTheNodeId() {
+        var generator = new UuidV7OrderNumberGenerator(Clock.systemUTC(), 0x2A);
+
+        UUID uuid = generator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant()); // RFC 4122/9562 variant
+        assertEquals(0x2A, (uuid.getLeastSignificantBits() >>> 46) & 0xFFFF);
+    }
+
+    @Test
+    void numbersAreStrictlyIncreasingEvenWithinOneMillisecond() {
+        // Frozen clock - ordering comes from the sequence, then from borrowing the next millisecond
+        Clock frozen = Clock.fixed(Instant.parse("2025-11-20T12:00:00Z"), ZoneOffset.UTC);
+        var generator = new UuidV7OrderNumberGenerator(frozen, 1);
+
+        Set<UUID> seen = new HashSet<>();
+        UUID previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = generator.next();
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            assertTrue(seen.add(next));
+            previous = next;
+        }
+    }
+}
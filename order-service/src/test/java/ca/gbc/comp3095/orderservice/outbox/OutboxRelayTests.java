@@ -0,0 +1,90 @@
+package ca.gbc.comp3095.orderservice.outbox;
+
+import ca.gbc.comp3095.orderservice.model.OutboxEvent;
+import ca.gbc.comp3095.orderservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The scheduled relay with the default in-memory sink, pushed through far more events than its queue holds.
+ * A listener slower than the relay keeps the queue full, so some relay runs find no room and leave their batch
+ * in the outbox - every event must still reach the listener, once, in order.
+ */
+@SpringBootTest(properties = {
+        "order.events.sink=in-memory",
+        "order.events.in-memory.capacity=5",
+        "order.outbox.relay.batch-size=4",
+        "order.outbox.relay.interval-ms=20"
+})
+@AutoConfigureWireMock(port = 0)
+class OutboxRelayTests {
+
+    private static final int EVENTS = 60;
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static {
+        postgreSQLContainer.start();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SlowConsumer {
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void on(OutboxEvent event) throws InterruptedException {
+            Thread.sleep(5);
+            received.add(event.getAggregateId());
+        }
+    }
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SlowConsumer consumer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void relayKeepsDrainingPastTheQueueCapacity() throws Exception {
+        List<String> orders = IntStream.range(0, EVENTS).mapToObj(i -> "relay-test-" + i).toList();
+        outboxEventRepository.saveAll(orders.stream()
+                .map(order -> OutboxEvent.builder()
+                        .aggregateId(order)
+                        .eventType("order.created")
+                        .payload("{}")
+                        .createdAt(Instant.now())
+                        .build())
+                .toList());
+
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while ((consumer.received.size() < EVENTS || unpublished() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(orders, consumer.received);
+        assertEquals(0, unpublished());
+    }
+
+    private int unpublished() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_order_outbox WHERE published_at IS NULL", Integer.class);
+    }
+}
@@ -0,0 +1,233 @@
+package ca.gbc.comp3095.orderservice.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OrderPartitionManager and OrderPartitionArchiver against a real partitioned t_orders / t_order_lines.
+ * Expired months are made by creating partitions for months long past and writing orders into them.
+ */
+@SpringBootTest(properties = {
+        "order.partitions.months-ahead=3",
+        "order.archive.enabled=true",
+        "order.archive.retention-months=12"
+})
+@AutoConfigureWireMock(port = 0)
+class OrderPartitionTests {
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static final Path ARCHIVE_DIRECTORY;
+
+    static {
+        postgreSQLContainer.start();
+        try {
+            ARCHIVE_DIRECTORY = Files.createTempDirectory("order-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("order.archive.directory", ARCHIVE_DIRECTORY::toString);
+    }
+
+    @Autowired
+    private OrderPartitionManager partitionManager;
+
+    @Autowired
+    private OrderPartitionArchiver archiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void partitionsAreCreatedAheadTest() {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        YearMonth last = now.plusMonths(3);
+
+        // Created on startup: the current month and three ahead, for headers and lines alike
+        for (YearMonth month = now; !month.isAfter(last); month = month.plusMonths(1)) {
+            assertTrue(isAttached("t_orders", month), "t_orders " + month);
+            assertTrue(isAttached("t_order_lines", month), "t_order_lines " + month);
+        }
+
+        // A missing month is filled in by the next run
+        jdbcTemplate.execute("DROP TABLE " + partition("t_order_lines", last));
+        jdbcTemplate.execute("DROP TABLE " + partition("t_orders", last));
+        partitionManager.ensurePartitions();
+
+        assertTrue(isAttached("t_orders", last));
+        assertTrue(isAttached("t_order_lines", last));
+    }
+
+    @Test
+    void instancesStartingTogetherBothCreatePartitionsTest() throws Exception {
+        YearMonth start = YearMonth.now(ZoneOffset.UTC).minusMonths(30);
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(3);
+        // Other tests may have left some of these months behind
+        int missing = 0;
+        for (YearMonth month = start; !month.isAfter(last); month = month.plusMonths(1)) {
+            missing += (isAttached("t_orders", month) ? 0 : 1) + (isAttached("t_order_lines", month) ? 0 : 1);
+        }
+
+        // Several "instances" creating the same months of partitions at once - none of them may fail
+        try (ExecutorService instances = Executors.newFixedThreadPool(4)) {
+            List<Future<Integer>> created = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                created.add(instances.submit(() -> jdbcTemplate.queryForObject(
+                        "SELECT create_order_partitions(?::date, 3)", Integer.class, start.atDay(1).toString())));
+            }
+            int total = 0;
+            for (Future<Integer> future : created) {
+                total += future.get();
+            }
+            // Every missing partition was created exactly once, by whichever call got there first
+            assertEquals(missing, total);
+        }
+        for (YearMonth month = start; !month.isAfter(last); month = month.plusMonths(1)) {
+            assertTrue(isAttached("t_orders", month), "t_orders " + month);
+            assertTrue(isAttached("t_order_lines", month), "t_order_lines " + month);
+        }
+    }
+
+    @Test
+    void expiredMonthIsExportedCompletelyThenDroppedTest() throws IOException {
+        YearMonth expired = YearMonth.now(ZoneOffset.UTC).minusMonths(14);
+        createPartitionsFrom(expired);
+        UUID single = insertOrder(expired, "archive_sku", 0);
+        UUID cart = insertOrder(expired, null, 2);
+
+        // One key older than the retention, one of today
+        insertIdempotencyKey("archive-old-key", single, expired.atDay(15).atStartOfDay().atOffset(ZoneOffset.UTC));
+        insertIdempotencyKey("archive-new-key", UUID.randomUUID(), OffsetDateTime.now(ZoneOffset.UTC));
+
+        archiver.archiveExpiredPartitions();
+
+        // The files hold every row of the month - header line plus one line per row
+        List<String> orders = readArchive(partition("t_orders", expired));
+        assertEquals(3, orders.size());
+        assertTrue(orders.stream().anyMatch(row -> row.contains(single.toString())));
+        assertTrue(orders.stream().anyMatch(row -> row.contains(cart.toString())));
+        List<String> lines = readArchive(partition("t_order_lines", expired));
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().skip(1).allMatch(row -> row.startsWith(cart.toString())));
+        assertFalse(Files.exists(ARCHIVE_DIRECTORY.resolve(partition("t_orders", expired) + ".csv.gz.tmp")));
+
+        // ... and the month is gone from the database, the current one is untouched
+        assertFalse(exists(partition("t_orders", expired)));
+        assertFalse(exists(partition("t_order_lines", expired)));
+        assertTrue(isAttached("t_orders", YearMonth.now(ZoneOffset.UTC)));
+
+        assertEquals(List.of("archive-new-key"), jdbcTemplate.queryForList(
+                "SELECT idempotency_key FROM t_order_idempotency_keys WHERE idempotency_key LIKE 'archive-%'", String.class));
+    }
+
+    @Test
+    void failedExportLeavesThePartitionAttachedTest() throws IOException {
+        YearMonth expired = YearMonth.now(ZoneOffset.UTC).minusMonths(20);
+        createPartitionsFrom(expired);
+        UUID cart = insertOrder(expired, null, 2);
+
+        // The export of the month's lines cannot create its temp file
+        Path blocker = ARCHIVE_DIRECTORY.resolve(partition("t_order_lines", expired) + ".csv.gz.tmp");
+        Files.createDirectories(blocker);
+
+        assertThrows(UncheckedIOException.class, () -> archiver.archiveExpiredPartitions());
+
+        assertTrue(isAttached("t_order_lines", expired));
+        assertTrue(isAttached("t_orders", expired));
+        assertFalse(Files.exists(ARCHIVE_DIRECTORY.resolve(partition("t_order_lines", expired) + ".csv.gz")));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_order_lines WHERE order_number = ?", Integer.class, cart));
+
+        // The next run, with the problem gone, archives the month
+        Files.delete(blocker);
+        archiver.archiveExpiredPartitions();
+
+        assertFalse(exists(partition("t_order_lines", expired)));
+        assertFalse(exists(partition("t_orders", expired)));
+        assertEquals(3, readArchive(partition("t_order_lines", expired)).size());
+    }
+
+    private void createPartitionsFrom(YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT create_order_partitions(?::date, 0)", Integer.class,
+                month.atDay(1).toString());
+    }
+
+    // lineCount 0 -> single-SKU order, otherwise a multi-line header (sku_code NULL) with that many lines
+    private UUID insertOrder(YearMonth month, String skuCode, int lineCount) {
+        UUID orderNumber = UUID.randomUUID();
+        OffsetDateTime createdAt = month.atDay(15).atTime(12, 0).atOffset(ZoneOffset.UTC);
+        jdbcTemplate.update("INSERT INTO t_orders (order_number, sku_code, price, quantity, created_at, line_count) VALUES (?, ?, ?, ?, ?, ?)",
+                orderNumber, skuCode, 10, Math.max(1, lineCount), createdAt, lineCount == 0 ? null : lineCount);
+        for (int line = 1; line <= lineCount; line++) {
+            jdbcTemplate.update("INSERT INTO t_order_lines (order_number, line_number, sku_code, price, quantity, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    orderNumber, line, "archive_line_sku_" + line, 5, 1, createdAt);
+        }
+        return orderNumber;
+    }
+
+    private void insertIdempotencyKey(String key, UUID orderNumber, OffsetDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO t_order_idempotency_keys (idempotency_key, order_number, created_at) VALUES (?, ?, ?)",
+                key, orderNumber, createdAt);
+    }
+
+    private boolean isAttached(String table, YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                               WHERE i.inhparent = ?::regclass AND c.relname = ?)
+                """, Boolean.class, table, partition(table, month)));
+    }
+
+    private boolean exists(String relation) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation);
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return table + "_p" + month.format(PARTITION_MONTH);
+    }
+
+    private static List<String> readArchive(String partition) throws IOException {
+        Path file = ARCHIVE_DIRECTORY.resolve(partition + ".csv.gz");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ca.gbc.comp3095.orderservice.stubs;
 
+import java.util.Arrays;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 
@@ -23,4 +25,30 @@ public class InventoryClientStub {
 
     }
 
+    /**
+     * Same GET, answered "false" - the SKU is not in stock for that quantity
+     */
+    public static void stubOutOfStockCall(String skuCode, Integer quantity) {
+
+        stubFor(get(urlEqualTo("/api/inventory?skuCode=" + skuCode + "&quantity=" + quantity))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("false")));
+    }
+
+    /**
+     * Stub for the batch POST /api/inventory/availability - one answer per stock check, in request order.
+     * Matched on a SKU of the batch so several tests can stub their own batches.
+     */
+    public static void stubAvailabilityCall(String anySkuCodeInBatch, Boolean... answers) {
+
+        stubFor(post(urlEqualTo("/api/inventory/availability"))
+                .withRequestBody(containing("\"" + anySkuCodeInBatch + "\""))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(Arrays.toString(answers))));
+    }
+
 }
@@ -0,0 +1,103 @@
+package ca.gbc.comp3095.orderservice.tracing;
+
+import ca.gbc.comp3095.orderservice.stubs.InventoryClientStub;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+
+/**
+ * One order, one trace: the caller's traceparent is continued by order-service, handed on to
+ * inventory-service by Feign, and the database work shows up as child spans.
+ * Spans are captured by an in-memory exporter (tests get every span, no retention rules).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWireMock(port = 0)
+@AutoConfigureObservability(metrics = false) // tracing is switched off in tests unless asked for
+class TracePropagationTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    static {
+        postgreSQLContainer.start();
+    }
+
+    @TestConfiguration
+    static class InMemoryExport {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private InMemorySpanExporter spans;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.baseURI = "http://localhost";
+        RestAssured.port = port;
+        spans.reset();
+    }
+
+    @Test
+    void traceContinuesThroughFeignAndTheDatabase() {
+        InventoryClientStub.stubInventoryCall("traced_sku", 1);
+
+        RestAssured.given()
+                .contentType("application/json")
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .body("""
+                        { "skuCode": "traced_sku", "price": 10, "quantity": 1 }
+                        """)
+                .when()
+                .post("/api/order")
+                .then()
+                .statusCode(201);
+
+        // The inventory call carries the SAME trace id (with order-service's span as parent)
+        verify(getRequestedFor(urlPathEqualTo("/api/inventory")).withHeader("traceparent", containing(TRACE_ID)));
+
+        // Spans leave through a BatchSpanProcessor - flush instead of waiting for its schedule
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<SpanData> trace = spans.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+
+        assertThat(trace.stream().map(SpanData::getKind).toList(), hasItems(SpanKind.SERVER, SpanKind.CLIENT));
+        assertThat(trace.stream().map(SpanData::getName).toList(), hasItem(containsStringIgnoringCase("query")));
+    }
+}
@@ -0,0 +1,163 @@
+package ca.gbc.comp3095.orderservice.transport;
+
+import ca.gbc.comp3095.orderservice.client.InventoryClient;
+import feign.Feign;
+import feign.Util;
+import feign.http2client.Http2Client;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The order -> inventory hop (the Feign {@link InventoryClient} on feign-java11) over HTTP/1.1 vs HTTP/2 (h2c).
+ *
+ * Each transport gets its OWN upstream (an embedded Tomcat with h2c answering like GET /api/inventory) and its
+ * OWN client, so no connection of one run is counted in the other. Connections are counted by the upstream:
+ * distinct client ports it has seen requests on. CONCURRENCY virtual threads call isInStock, the way
+ * concurrent order requests do.
+ *
+ * Not part of the normal build - run with:
+ *   ./gradlew :order-service:test --tests '*FeignTransportBenchmarkTests' -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FeignTransportBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(FeignTransportBenchmarkTests.class);
+
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 256;
+    private static final int WARMUP = 500;
+
+    @Test
+    void compareHttp11AndH2cToInventory() throws Exception {
+        Result http11 = run(HttpClient.Version.HTTP_1_1);
+        Result http2 = run(HttpClient.Version.HTTP_2);
+
+        log.info("order-service -> inventory-service {}", http11);
+        log.info("order-service -> inventory-service {}", http2);
+
+        assertEquals(0, http11.errors());
+        assertEquals(0, http2.errors());
+    }
+
+    private Result run(HttpClient.Version version) throws Exception {
+        Upstream upstream = Upstream.start();
+        try {
+            // The same pieces Spring Cloud OpenFeign assembles from spring.cloud.openfeign.http2client.* -
+            // only the response decoding is reduced to what isInStock needs
+            InventoryClient client = Feign.builder()
+                    .client(new Http2Client(HttpClient.newBuilder().version(version).build()))
+                    .contract(new SpringMvcContract())
+                    .decoder((response, type) -> Boolean.parseBoolean(
+                            Util.toString(response.body().asReader(StandardCharsets.UTF_8)).trim()))
+                    .target(InventoryClient.class, upstream.url());
+            return load(version, client, upstream);
+        } finally {
+            upstream.server().stop();
+        }
+    }
+
+    private static Result load(HttpClient.Version version, InventoryClient client, Upstream upstream) throws Exception {
+        // Warm up the JITs and, for HTTP/2, let the client finish its h2c upgrade before measuring
+        for (int i = 0; i < WARMUP; i++) {
+            client.isInStock("benchmark_sku", 1);
+        }
+
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.add(callers.submit(() -> {
+                    for (int index = next.getAndIncrement(); index < REQUESTS; index = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        try {
+                            if (!client.isInStock("benchmark_sku", 1)) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - sent;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(version, upstream.connections().size(),
+                latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[(int) (REQUESTS * 0.99)] / 1_000_000.0,
+                REQUESTS / (elapsed / 1_000_000_000.0),
+                errors.get());
+    }
+
+    /**
+     * Embedded Tomcat with h2c (prior knowledge and Upgrade) answering "true" to every request and recording
+     * the client address:port of every request - one entry per connection, however many streams.
+     */
+    private record Upstream(WebServer server, Set<String> connections) {
+
+        static Upstream start() {
+            Set<String> connections = ConcurrentHashMap.newKeySet();
+            Http2 http2 = new Http2();
+            http2.setEnabled(true);
+            TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+            factory.setHttp2(http2);
+            WebServer server = factory.getWebServer(context -> context.addServlet("inventory", new HttpServlet() {
+                @Override
+                protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    connections.add(request.getRemoteAddr() + ":" + request.getRemotePort());
+                    response.setContentType("application/json");
+                    response.setContentLength(4);
+                    response.getOutputStream().write("true".getBytes(StandardCharsets.UTF_8));
+                }
+            }).addMapping("/*"));
+            server.start();
+            return new Upstream(server, connections);
+        }
+
+        String url() {
+            return "http://localhost:" + server.getPort();
+        }
+    }
+
+    private record Result(HttpClient.Version version, int upstreamConnections, double p50Millis,
+                          double p99Millis, double requestsPerSecond, int errors) {
+        @Override
+        public String toString() {
+            return "%-8s upstream connections=%d p50=%.2fms p99=%.2fms throughput=%.0f req/s errors=%d"
+                    .formatted(version, upstreamConnections, p50Millis, p99Millis, requestsPerSecond, errors);
+        }
+    }
+}
@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("org.graalvm.buildtools.native") version "0.10.6" // Spring AOT processing + optional native image (./gradlew nativeCompile)
 }
 
 group = "ca.gbc.comp3095"
@@ -27,6 +28,8 @@ repositories {
 dependencies {
     // --- Spring Boot ---
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus scrape endpoint
+    implementation(project(":tracing-support")) // W3C trace context, spans and their export (see ca.gbc.comp3095.tracing.TracingConfig)
     implementation("org.springframework.boot:spring-boot-starter-web")
 
     // Data stores
@@ -60,3 +63,25 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Fast startup (see Dockerfile, Dockerfile.native and ../startup-comparison.sh)
+//  - processAot runs on every build and adds the AOT-generated bean definitions to the boot jar;
+//    the JVM only uses them when started with -Dspring.aot.enabled=true
+//  - AOT settles @ConditionalOnProperty/@Profile at BUILD time, so the image is processed with the
+//    profile it runs with: ./gradlew build -PaotProfiles=docker
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    (findProperty("aotProfiles") as String?)?.let { args("--spring.profiles.active=$it") }
+}
+
+// Fixed file names - the Dockerfiles and ../startup-comparison.sh copy the jar (and native image) by name
+tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
+    archiveFileName = "product-service.jar"
+}
+
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "product-service"
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package ca.gbc.comp3095.productservice;
 
+import ca.gbc.comp3095.productservice.aot.ProductServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ImportRuntimeHints(ProductServiceRuntimeHints.class) // reflection hints for the native image
 @EnableCaching
+@EnableScheduling // catalogue snapshot export and reload
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
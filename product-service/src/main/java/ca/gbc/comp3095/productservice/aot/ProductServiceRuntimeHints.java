@@ -0,0 +1,36 @@
+package ca.gbc.comp3095.productservice.aot;
+
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+import ca.gbc.comp3095.productservice.model.Product;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.ArrayList;
+
+/**
+ * What Spring AOT cannot work out from the bean definitions alone (only used by the native image):
+ *  - Product: Lombok document, Spring Data Mongo maps its fields reflectively
+ *  - RedisConfig's cache serializer writes "@class" into every value (default typing EVERYTHING) and
+ *    resolves it with Class.forName when reading back - every type that can end up in PRODUCT_CACHE
+ *    must be reachable: ProductResponse, String ids and the List implementations of getAllProducts()
+ */
+public class ProductServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(Product.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_METHODS);
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), ProductResponse.class);
+        hints.reflection().registerType(String.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(ArrayList.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // Stream.toList() returns these JDK-internal types
+        hints.reflection().registerType(TypeReference.of("java.util.ImmutableCollections$ListN"));
+        hints.reflection().registerType(TypeReference.of("java.util.ImmutableCollections$List12"));
+    }
+}
@@ -0,0 +1,243 @@
+package ca.gbc.comp3095.productservice.cache;
+
+import ca.gbc.comp3095.productservice.model.Product;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps PRODUCT_CACHE in line with the "product" collection by following its change stream, so writes
+ * that bypass ProductServiceImpl (other instances, scripts, admin tools) reach the cache within moments
+ * instead of at TTL expiry - which is why the TTL (product.cache.ttl) can be long.
+ *  - insert/update/replace/delete -> the entry under the product id is evicted, the next read loads it from
+ *                                    Mongo. Instances follow the stream at their own pace - putting the document
+ *                                    a change carried could write an older product over a newer one
+ *  - drop/rename/...              -> the whole cache is cleared
+ *  - any change                   -> ALL_PRODUCTS is evicted, and again after redelete-delay: a listing that
+ *                                    read Mongo just before the change may still write the old list back
+ *
+ * The resume token is stored in Redis next to the cache after every change. A restart resumes where the
+ * furthest instance got, so changes made while product-service was down are applied too. Lose Redis
+ * and you lose cache and token together. Every instance follows the stream; applying a change twice is harmless,
+ * and a lagging instance never moves the stored token back (scripts/product-cache-resume-token.lua).
+ * No token, or a token the oplog no longer covers -> the cache is cleared and the stream starts from now.
+ *
+ * Metric: product.cache.invalidations{operation}
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "product.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductCacheInvalidator {
+
+    static final String CACHE_NAME = "PRODUCT_CACHE";
+    static final String ALL_PRODUCTS = "ALL_PRODUCTS";
+
+    // ChangeStreamHistoryLost, ChangeStreamFatalError - resuming is impossible, start over
+    private static final Set<Integer> HISTORY_LOST = Set.of(286, 280);
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long IDLE_TOKEN_SAVE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String tokenKey;
+    private final Duration redeleteDelay;
+
+    private final ScheduledExecutorService redelete = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-cache-redelete");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean redeletePending = new AtomicBoolean();
+    private final RedisScript<Long> saveTokenScript =
+            RedisScript.of(new ClassPathResource("scripts/product-cache-resume-token.lua"), Long.class);
+    private volatile boolean running;
+    private volatile boolean following;
+    private Thread worker;
+
+    public ProductCacheInvalidator(MongoTemplate mongoTemplate,
+                                   CacheManager cacheManager,
+                                   StringRedisTemplate redisTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${product.cache.invalidation.resume-token-key:product-cache:resume-token}") String tokenKey,
+                                   @Value("${product.cache.invalidation.redelete-delay:1s}") Duration redeleteDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.tokenKey = tokenKey;
+        this.redeleteDelay = redeleteDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("product-cache-invalidator").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        redelete.shutdownNow();
+    }
+
+    private void run() {
+        long backoff = 1000;
+        while (running) {
+            try {
+                watch();
+                backoff = 1000;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                if (e instanceof MongoCommandException command && HISTORY_LOST.contains(command.getErrorCode())) {
+                    log.warn("Change stream cannot resume from the stored token - clearing {} and starting from now", CACHE_NAME);
+                    redisTemplate.delete(tokenKey);
+                    backoff = 0;
+                } else {
+                    // e.g. a standalone mongod - change streams need a replica set
+                    log.warn("Change stream on product failed, retrying in {}ms: {}", backoff, e.toString());
+                }
+                sleep(backoff);
+                backoff = Math.min(Math.max(backoff * 2, 1000), MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Follows the stream until it is invalidated (collection dropped/renamed) or fails.
+     */
+    private void watch() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .watch()
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        BsonDocument token = loadToken();
+        if (token != null) {
+            stream = stream.startAfter(token);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            if (token == null) {
+                // Nothing tells us what changed before now - entries written earlier cannot be trusted
+                cache().clear();
+            }
+            following = true;
+            log.info("Following the product change stream ({})", token == null ? "from now" : "resumed");
+            long savedAt = System.nanoTime();
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change == null) {
+                    // Nothing within maxAwaitTime. The cursor's token still moves forward - store it now and then
+                    // so that after a quiet week the stored token is still covered by the oplog
+                    if (System.nanoTime() - savedAt > IDLE_TOKEN_SAVE_NANOS) {
+                        saveToken(cursor.getResumeToken());
+                        savedAt = System.nanoTime();
+                    }
+                    continue;
+                }
+                boolean invalidated = apply(change);
+                saveToken(change.getResumeToken());
+                savedAt = System.nanoTime();
+                if (invalidated) {
+                    return; // the server closed the stream - open a new one after the invalidate event
+                }
+            }
+        } finally {
+            following = false;
+        }
+    }
+
+    // true while a change stream is open
+    boolean isFollowing() {
+        return following;
+    }
+
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        meterRegistry.counter("product.cache.invalidations", "operation", change.getOperationTypeString()).increment();
+        Cache cache = cache();
+
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> cache.evict(id(change));
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> {
+                cache.clear();
+                return change.getOperationType() == OperationType.INVALIDATE;
+            }
+            default -> {
+                return false;
+            }
+        }
+
+        cache.evict(ALL_PRODUCTS);
+        if (redeletePending.compareAndSet(false, true)) {
+            redelete.schedule(() -> {
+                redeletePending.set(false);
+                cache().evict(ALL_PRODUCTS);
+            }, redeleteDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return false;
+    }
+
+    // The cache key is the id as the application sees it - the hex string of an ObjectId
+    private static String id(ChangeStreamDocument<Document> change) {
+        BsonValue id = Objects.requireNonNull(change.getDocumentKey()).get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), CACHE_NAME + " is not configured");
+    }
+
+    private BsonDocument loadToken() {
+        String json = redisTemplate.opsForValue().get(tokenKey);
+        return json == null ? null : BsonDocument.parse(json);
+    }
+
+    // Only ever forward - see the script
+    void saveToken(BsonDocument token) {
+        if (token != null) {
+            redisTemplate.execute(saveTokenScript, List.of(tokenKey), token.toJson());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
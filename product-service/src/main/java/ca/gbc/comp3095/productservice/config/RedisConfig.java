@@ -3,6 +3,7 @@ package ca.gbc.comp3095.productservice.config;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,7 +22,8 @@ public class RedisConfig {
 
     @Bean
     // This is the bean we want spring to manage
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                          @Value("${product.cache.ttl:10m}") Duration ttl) {
 
         // ===============================================================
         // STEP 1: Build a Jackson ObjectMapper for Redis values
@@ -61,7 +63,7 @@ public class RedisConfig {
         // STEP 3: Define cache defaults (TTL, null handling, serializers)
         // ===============================================================
         RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // demo TTL; tune per domain
+                .entryTtl(ttl) // long when cache.ProductCacheInvalidator follows the change stream
                 .disableCachingNullValues()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(keySerializer)
@@ -1,5 +1,6 @@
 package ca.gbc.comp3095.productservice.controller;
 
+import ca.gbc.comp3095.productservice.dto.ProductPage;
 import ca.gbc.comp3095.productservice.dto.ProductRequest;
 import ca.gbc.comp3095.productservice.dto.ProductResponse;
 import ca.gbc.comp3095.productservice.model.Product;
@@ -33,6 +34,20 @@ public class ProductController {
         return _productService.getAllProducts();
     }
 
+    // GET /api/product?page=0&size=100
+    @GetMapping(params = "size")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductPage getProducts(@RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam("size") int size) {
+        return _productService.getProducts(page, size);
+    }
+
+    @GetMapping("/{productId}")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductResponse getProduct(@PathVariable("productId") String productId) {
+        return _productService.getProduct(productId);
+    }
+
 
     @PutMapping("/{productId}")
     public  ResponseEntity<?> updateProduct(@PathVariable("productId") String productId,
@@ -0,0 +1,6 @@
+package ca.gbc.comp3095.productservice.dto;
+
+import java.util.List;
+
+// One page of the catalogue in id order - total is the number of products in the whole catalogue
+public record ProductPage(List<ProductResponse> items, int page, int size, long total) { }
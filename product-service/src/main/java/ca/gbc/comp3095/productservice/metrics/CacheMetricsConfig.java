@@ -0,0 +1,46 @@
+package ca.gbc.comp3095.productservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes @Cacheable/@CachePut/@CacheEvict through {@link TimedCache}. Only the annotation path is wrapped;
+ * the CacheManager bean itself stays the plain RedisCacheManager (Boot's cache.gets/cache.puts meters and
+ * direct CacheManager users keep working as before).
+ * Providers are used because CachingConfigurer beans are created before the rest of the context.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class CacheMetricsConfig implements CachingConfigurer {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Cache> timedCaches = new ConcurrentHashMap<>();
+
+    @Override
+    public CacheResolver cacheResolver() {
+        return context -> context.getOperation().getCacheNames().stream()
+                .map(this::timedCache)
+                .toList();
+    }
+
+    private Cache timedCache(String name) {
+        return timedCaches.computeIfAbsent(name, key -> {
+            Cache cache = cacheManager.getObject().getCache(key);
+            if (cache == null) {
+                throw new IllegalArgumentException("Cannot find cache named '" + key + "'");
+            }
+            return new TimedCache(cache, meterRegistry.getObject());
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package ca.gbc.comp3095.productservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times every call the caching annotations make against a cache (Redis round trip + (de)serialization).
+ * Metric: cache.operation{cache, operation=get|put|evict|clear, result=hit|miss|none}
+ * All timers are created up front, so recording is a single Timer.record - no meter lookup per call.
+ */
+class TimedCache implements Cache {
+
+    private final Cache delegate;
+    private final Timer getHit;
+    private final Timer getMiss;
+    private final Timer put;
+    private final Timer evict;
+    private final Timer clear;
+
+    TimedCache(Cache delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.getHit = timer(meterRegistry, "get", "hit");
+        this.getMiss = timer(meterRegistry, "get", "miss");
+        this.put = timer(meterRegistry, "put", "none");
+        this.evict = timer(meterRegistry, "evict", "none");
+        this.clear = timer(meterRegistry, "clear", "none");
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String operation, String result) {
+        return Timer.builder("cache.operation")
+                .tag("cache", delegate.getName())
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = delegate.get(key);
+        record(value != null ? getHit : getMiss, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = delegate.get(key, type);
+        record(value != null ? getHit : getMiss, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // @Cacheable(sync = true): the loader runs inside this call, so it is timed but not split by hit/miss
+        long start = System.nanoTime();
+        try {
+            return delegate.get(key, valueLoader);
+        } finally {
+            record(getMiss, start);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.put(key, value);
+        record(put, start);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        record(put, start);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        long start = System.nanoTime();
+        delegate.evict(key);
+        record(evict, start);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        long start = System.nanoTime();
+        boolean evicted = delegate.evictIfPresent(key);
+        record(evict, start);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        long start = System.nanoTime();
+        delegate.clear();
+        record(clear, start);
+    }
+
+    @Override
+    public boolean invalidate() {
+        long start = System.nanoTime();
+        boolean invalidated = delegate.invalidate();
+        record(clear, start);
+        return invalidated;
+    }
+
+    // Async variants are only used for reactive/CompletableFuture return types - passed through untimed
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader);
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,5 +1,6 @@
 package ca.gbc.comp3095.productservice.service;
 
+import ca.gbc.comp3095.productservice.dto.ProductPage;
 import ca.gbc.comp3095.productservice.dto.ProductRequest;
 import ca.gbc.comp3095.productservice.dto.ProductResponse;
 
@@ -9,6 +10,8 @@ public interface ProductService {
 
     ProductResponse createProduct(ProductRequest productRequest);
     List<ProductResponse> getAllProducts();
+    ProductResponse getProduct(String productId);
+    ProductPage getProducts(int page, int size);
     String updateProduct(String productId, ProductRequest productRequest);
     void deleteProduct(String productId);
 
@@ -1,20 +1,29 @@
 package ca.gbc.comp3095.productservice.service;
 
+import ca.gbc.comp3095.productservice.dto.ProductPage;
 import ca.gbc.comp3095.productservice.dto.ProductRequest;
 import ca.gbc.comp3095.productservice.dto.ProductResponse;
 import ca.gbc.comp3095.productservice.model.Product;
 import ca.gbc.comp3095.productservice.repository.ProductRepository;
+import ca.gbc.comp3095.productservice.snapshot.CatalogueSnapshot;
+import ca.gbc.comp3095.productservice.snapshot.CatalogueSnapshots;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
 
 /*
 * 1. @Cacheable -> "Read from cache of exists, otherwise run method & cache result"
@@ -27,6 +36,9 @@ import java.util.List;
 *
 * 3. @CacheEvict -> "Remove entry from cache"
 *    - key: "#productId"
+*
+* 4. Catalogue snapshot (product.snapshot.enabled) -> reads are served from the memory-mapped export while it
+*    is fresh, and then ALL_PRODUCTS is not cached (condition) - Redis would only add a network hop
 *
  */
 
@@ -35,8 +47,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final ProductRepository _productRepository;
     private final MongoTemplate mongoTemplate;
+    private final CatalogueSnapshots _catalogueSnapshots;
 
     @Override
     @CachePut(value = "PRODUCT_CACHE", key="#result.id()")
@@ -69,9 +84,15 @@ public class ProductServiceImpl implements ProductService {
 
     // This is what we need to cache, the other ones he is just showing so we know how to do it for something else where a pu or delete needs to be cached
     @Override
-    @Cacheable(value = "PRODUCT_CACHE", key = "'ALL_PRODUCTS'") // The key is what we want to call it, make it legible
+    @Cacheable(value = "PRODUCT_CACHE", key = "'ALL_PRODUCTS'", // The key is what we want to call it, make it legible
+            condition = "!@catalogueSnapshots.isServing()")
     public List<ProductResponse> getAllProducts() {
 
+        Optional<CatalogueSnapshot> snapshot = _catalogueSnapshots.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().all();
+        }
+
         log.debug("Returning a list of Products");
         List<Product> products = _productRepository.findAll();
 
@@ -81,7 +102,36 @@ public class ProductServiceImpl implements ProductService {
                 .toList();
     }
 
-    private ProductResponse mapToProductResponse(Product product) {
+    @Override
+    public ProductResponse getProduct(String productId) {
+        // A product created since the last export is not in the snapshot yet - Mongo has it
+        Optional<ProductResponse> product = _catalogueSnapshots.current()
+                .flatMap(snapshot -> snapshot.find(productId))
+                .or(() -> _productRepository.findById(productId).map(this::mapToProductResponse));
+
+        return product.orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Product " + productId + " not found"));
+    }
+
+    // Pages are in id order, like the snapshot index
+    @Override
+    public ProductPage getProducts(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Optional<CatalogueSnapshot> snapshot = _catalogueSnapshots.current();
+        if (snapshot.isPresent()) {
+            return new ProductPage(snapshot.get().page(page, size), page, size, snapshot.get().size());
+        }
+
+        Page<Product> products = _productRepository.findAll(PageRequest.of(page, size, Sort.by("id")));
+        return new ProductPage(products.map(this::mapToProductResponse).getContent(), page, size, products.getTotalElements());
+    }
+
+    // package-private (not private) so the benchmarks module can measure it
+    ProductResponse mapToProductResponse(Product product) {
         return new ProductResponse(product.getId(), product.getName(),
                 product.getDescription(), product.getPrice());
     }
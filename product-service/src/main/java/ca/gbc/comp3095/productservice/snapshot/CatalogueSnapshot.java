@@ -0,0 +1,172 @@
+package ca.gbc.comp3095.productservice.snapshot;
+
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A read-only, memory-mapped export of the "product" collection. The data lives in the page cache, not on the
+ * heap, and is shared by every instance on the host; only the products a request returns are copied out.
+ *
+ * Layout (big-endian):
+ *  header  int magic "PCAT" | int format | long version (export time, epoch ms) | int count | int indexOffset
+ *  records per product: short idLen, id | int len, name | int len, description | int len, price - UTF-8, len -1 = null
+ *  index   count x int record offset, ordered by the UTF-8 bytes of the id
+ *
+ * Lookups binary-search the index and compare ids in place, without decoding them.
+ * Only absolute reads are used on the buffer, so one instance is safe to share between threads.
+ */
+public final class CatalogueSnapshot {
+
+    static final int MAGIC = 0x50434154; // "PCAT"
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 24;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final long version;
+    private final int count;
+    private final int indexOffset;
+
+    private CatalogueSnapshot(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a catalogue snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT) {
+            throw new IOException(file + " has snapshot format " + buffer.getInt(4) + ", expected " + FORMAT);
+        }
+        this.version = buffer.getLong(8);
+        this.count = buffer.getInt(16);
+        this.indexOffset = buffer.getInt(20);
+        if (count < 0 || indexOffset < HEADER_BYTES || (long) indexOffset + 4L * count != buffer.capacity()) {
+            throw new IOException(file + " is truncated or corrupt");
+        }
+    }
+
+    /**
+     * Maps the file read-only. The mapping outlives the channel and stays valid after the file is
+     * deleted or replaced; it is released when the snapshot is garbage collected.
+     */
+    public static CatalogueSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " exceeds 2 GB");
+            }
+            return new CatalogueSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Instant exportedAt() {
+        return Instant.ofEpochMilli(version);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public Optional<ProductResponse> find(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compared = compareId(recordOffset(mid), key);
+            if (compared < 0) {
+                low = mid + 1;
+            } else if (compared > 0) {
+                high = mid - 1;
+            } else {
+                return Optional.of(read(recordOffset(mid)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ProductResponse> all() {
+        return range(0, count);
+    }
+
+    // Products [page * size, page * size + size) in id order
+    public List<ProductResponse> page(int page, int size) {
+        long from = (long) page * size;
+        if (from >= count) {
+            return List.of();
+        }
+        return range((int) from, (int) Math.min(from + size, count));
+    }
+
+    private List<ProductResponse> range(int from, int to) {
+        List<ProductResponse> products = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            products.add(read(recordOffset(i)));
+        }
+        return products;
+    }
+
+    private int recordOffset(int position) {
+        return buffer.getInt(indexOffset + 4 * position);
+    }
+
+    // Unsigned byte order, the order the writer sorted the index in
+    private int compareId(int offset, byte[] key) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        int start = offset + 2;
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int compared = Byte.compareUnsigned(buffer.get(start + i), key[i]);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private ProductResponse read(int offset) {
+        int idLength = Short.toUnsignedInt(buffer.getShort(offset));
+        String id = string(offset + 2, idLength);
+        int position = offset + 2 + idLength;
+
+        int nameLength = buffer.getInt(position);
+        String name = string(position + 4, nameLength);
+        position += 4 + Math.max(nameLength, 0);
+
+        int descriptionLength = buffer.getInt(position);
+        String description = string(position + 4, descriptionLength);
+        position += 4 + Math.max(descriptionLength, 0);
+
+        String price = string(position + 4, buffer.getInt(position));
+        return new ProductResponse(id, name, description, price == null ? null : new BigDecimal(price));
+    }
+
+    private String string(int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package ca.gbc.comp3095.productservice.snapshot;
+
+import ca.gbc.comp3095.productservice.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the "product" collection to product.snapshot.dir every export-interval-ms:
+ *  1. streamed from Mongo into catalogue-&lt;version&gt;.snap.tmp (version = export time, epoch ms)
+ *  2. fsync, then renamed to catalogue-&lt;version&gt;.snap in one atomic move - readers never see a partial file
+ *  3. all but the newest keep files are deleted; instances still mapping one keep reading it until they swap
+ *
+ * Only one instance needs to export: point every instance at the same directory (shared volume) and set
+ * product.snapshot.export.enabled=true on one of them. Each instance picks the file up in CatalogueSnapshots.
+ *
+ * Metric: product.snapshot.export - duration of each export
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = {"product.snapshot.enabled", "product.snapshot.export.enabled"}, havingValue = "true")
+public class CatalogueSnapshotExporter {
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogueSnapshots snapshots;
+    private final Path dir;
+    private final int keep;
+    private final Timer exports;
+    private long lastVersion;
+
+    public CatalogueSnapshotExporter(MongoTemplate mongoTemplate,
+                                     CatalogueSnapshots snapshots,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${product.snapshot.dir:./snapshots}") Path dir,
+                                     @Value("${product.snapshot.export.keep:2}") int keep) {
+        this.mongoTemplate = mongoTemplate;
+        this.snapshots = snapshots;
+        this.dir = dir;
+        this.keep = Math.max(keep, 1);
+        this.exports = Timer.builder("product.snapshot.export").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.snapshot.export.interval-ms:60000}")
+    public void export() {
+        try {
+            Path file = exports.recordCallable(this::write);
+            cleanUp();
+            snapshots.reload();
+            log.debug("Exported catalogue snapshot {}", file);
+        } catch (Exception e) {
+            // The previous snapshot stays in place and ages out after max-age - reads then fall back to Mongo
+            log.warn("Catalogue snapshot export failed: {}", e.toString());
+        }
+    }
+
+    private Path write() throws IOException {
+        Files.createDirectories(dir);
+        // Strictly increasing even if two exports run within the same millisecond
+        long version = Math.max(System.currentTimeMillis(), lastVersion + 1);
+        Path tmp = dir.resolve("catalogue-" + version + ".snap.tmp");
+        Path file = dir.resolve("catalogue-" + version + ".snap");
+
+        try (CatalogueSnapshotWriter writer = new CatalogueSnapshotWriter(tmp, version);
+             Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+            products.forEach(product -> {
+                try {
+                    writer.add(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        lastVersion = version;
+        return file;
+    }
+
+    private void cleanUp() throws IOException {
+        List<Path> old;
+        try (Stream<Path> files = Files.list(dir)) {
+            old = files.filter(file -> CatalogueSnapshots.FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(CatalogueSnapshots::version).reversed())
+                    .skip(keep)
+                    .toList();
+        }
+        for (Path file : old) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
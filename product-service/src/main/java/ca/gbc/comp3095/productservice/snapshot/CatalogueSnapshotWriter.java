@@ -0,0 +1,97 @@
+package ca.gbc.comp3095.productservice.snapshot;
+
+import ca.gbc.comp3095.productservice.model.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes one snapshot file (layout in {@link CatalogueSnapshot}). Products are appended in whatever order
+ * they are streamed from Mongo; only the id and offset of each are kept on the heap to build the sorted index.
+ */
+class CatalogueSnapshotWriter implements AutoCloseable {
+
+    private record IndexEntry(byte[] id, int offset) { }
+
+    private final Path file;
+    private final long version;
+    private final DataOutputStream out;
+    private final List<IndexEntry> index = new ArrayList<>();
+
+    CatalogueSnapshotWriter(Path file, long version) throws IOException {
+        this.file = file;
+        this.version = version;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.write(new byte[CatalogueSnapshot.HEADER_BYTES]); // filled in by finish()
+    }
+
+    void add(Product product) throws IOException {
+        byte[] id = product.getId().getBytes(StandardCharsets.UTF_8);
+        index.add(new IndexEntry(id, out.size()));
+        out.writeShort(id.length);
+        out.write(id);
+        writeString(product.getName());
+        writeString(product.getDescription());
+        writeString(product.getPrice() == null ? null : product.getPrice().toPlainString());
+        if (out.size() < 0) {
+            // DataOutputStream counts in an int - the mapped reader is limited to 2 GB as well
+            throw new IOException("Catalogue snapshot exceeds 2 GB");
+        }
+    }
+
+    /**
+     * Writes the index (offsets ordered by id bytes), then the header, and forces everything to disk -
+     * the file is complete before the exporter renames it into place.
+     */
+    void finish() throws IOException {
+        index.sort(Comparator.comparing(IndexEntry::id, Arrays::compareUnsigned));
+        int indexOffset = out.size();
+        for (IndexEntry entry : index) {
+            out.writeInt(entry.offset());
+        }
+        out.close();
+
+        ByteBuffer header = ByteBuffer.allocate(CatalogueSnapshot.HEADER_BYTES)
+                .putInt(CatalogueSnapshot.MAGIC)
+                .putInt(CatalogueSnapshot.FORMAT)
+                .putLong(version)
+                .putInt(index.size())
+                .putInt(indexOffset)
+                .flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    int count() {
+        return index.size();
+    }
+
+    // Length-prefixed UTF-8, -1 for null
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,126 @@
+package ca.gbc.comp3095.productservice.snapshot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The catalogue snapshot this instance serves reads from (see {@link CatalogueSnapshotExporter} for where the
+ * files come from). Every reload-interval the newest catalogue-&lt;version&gt;.snap in product.snapshot.dir is
+ * mapped and swapped in atomically; requests already reading the previous one finish on it.
+ *
+ * A snapshot is only served while it is younger than max-age - a stopped exporter makes reads fall back to
+ * Mongo (and the Redis cache) instead of serving an ever older catalogue.
+ *
+ * Always registered so ProductServiceImpl can ask isServing(); with product.snapshot.enabled=false it never serves.
+ * Version and age are reported under "catalogueSnapshot" on /actuator/info.
+ * Metric: product.snapshot.age - seconds since the served snapshot was exported, NaN when there is none
+ */
+@Component
+@Slf4j
+public class CatalogueSnapshots implements InfoContributor {
+
+    static final Pattern FILE_NAME = Pattern.compile("catalogue-(\\d+)\\.snap");
+
+    private final boolean enabled;
+    private final Path dir;
+    private final Duration maxAge;
+    private final AtomicReference<CatalogueSnapshot> current = new AtomicReference<>();
+
+    public CatalogueSnapshots(MeterRegistry meterRegistry,
+                              @Value("${product.snapshot.enabled:false}") boolean enabled,
+                              @Value("${product.snapshot.dir:./snapshots}") Path dir,
+                              @Value("${product.snapshot.max-age:5m}") Duration maxAge) {
+        this.enabled = enabled;
+        this.dir = dir;
+        this.maxAge = maxAge;
+        Gauge.builder("product.snapshot.age", this, snapshots -> {
+                    CatalogueSnapshot snapshot = snapshots.current.get();
+                    return snapshot == null ? Double.NaN : snapshots.age(snapshot).toMillis() / 1000.0;
+                })
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Maps the newest snapshot in the directory if it is newer than the one being served.
+     */
+    @Scheduled(fixedDelayString = "${product.snapshot.reload-interval-ms:5000}")
+    public void reload() {
+        if (!enabled || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            Optional<Path> newest = files.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .max(Comparator.comparingLong(CatalogueSnapshots::version));
+            CatalogueSnapshot served = current.get();
+            if (newest.isEmpty() || (served != null && version(newest.get()) <= served.version())) {
+                return;
+            }
+            CatalogueSnapshot loaded = CatalogueSnapshot.open(newest.get());
+            current.set(loaded);
+            log.info("Serving catalogue snapshot {} ({} products, {} bytes)", loaded.version(), loaded.size(), loaded.sizeInBytes());
+        } catch (IOException e) {
+            // Keep serving the previous snapshot (if still young enough) - the next reload tries again
+            log.warn("Could not load a catalogue snapshot from {}: {}", dir, e.toString());
+        }
+    }
+
+    /**
+     * The snapshot to read from, or empty when reads have to go to Mongo (disabled, none yet, or too old).
+     */
+    public Optional<CatalogueSnapshot> current() {
+        CatalogueSnapshot snapshot = current.get();
+        if (!enabled || snapshot == null || age(snapshot).compareTo(maxAge) > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    public boolean isServing() {
+        return current().isPresent();
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", enabled);
+        CatalogueSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            details.put("version", snapshot.version());
+            details.put("exportedAt", snapshot.exportedAt().toString());
+            details.put("ageSeconds", age(snapshot).toSeconds());
+            details.put("products", snapshot.size());
+            details.put("bytes", snapshot.sizeInBytes());
+        }
+        details.put("serving", isServing());
+        builder.withDetail("catalogueSnapshot", details);
+    }
+
+    private Duration age(CatalogueSnapshot snapshot) {
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - snapshot.version()));
+    }
+
+    static long version(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
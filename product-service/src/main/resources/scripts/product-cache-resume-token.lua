@@ -0,0 +1,27 @@
+-- Stores a change stream resume token unless the stored one is at least as far along the stream.
+-- Every instance saves its token here, and one that lags behind must not move the shared token back.
+-- KEYS[1] = token key
+-- ARGV[1] = resume token as extended JSON, {"_data": "<hex>", ...}
+-- _data is the server's hex KeyString: cluster time first, so byte order is stream order.
+-- Returns 1 if the token was stored, 0 if the stored one is newer or the same
+local function precedes(a, b)
+    for i = 1, math.min(#a, #b) do
+        local x, y = string.byte(a, i), string.byte(b, i)
+        if x ~= y then
+            return x < y
+        end
+    end
+    return #a < #b
+end
+
+local current = redis.call('GET', KEYS[1])
+if current then
+    local ok, stored = pcall(cjson.decode, current)
+    local candidate = cjson.decode(ARGV[1])
+    if ok and type(stored._data) == 'string' and type(candidate._data) == 'string'
+            and not precedes(stored._data, candidate._data) then
+        return 0
+    end
+end
+redis.call('SET', KEYS[1], ARGV[1])
+return 1
@@ -51,7 +51,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * ============================================================================
  */
 @Testcontainers
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// The change-stream invalidator is covered by ProductCacheInvalidatorTests - here it would race the cache assertions
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "product.cache.invalidation.enabled=false")
 @AutoConfigureMockMvc
 class ProductServiceApplicationCacheTests {
 
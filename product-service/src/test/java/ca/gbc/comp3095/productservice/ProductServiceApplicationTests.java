@@ -24,7 +24,9 @@ import java.time.Duration;
 
 import ca.gbc.comp3095.productservice.repository.ProductRepository;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// The change-stream invalidator is covered by ProductCacheInvalidatorTests - here it would race the cache assertions
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "product.cache.invalidation.enabled=false")
 @Testcontainers
 class ProductServiceApplicationTests {
 
@@ -205,4 +207,23 @@ class ProductServiceApplicationTests {
                 .statusCode(HttpStatus.OK.value())
                 .body("id", Matchers.not(Matchers.hasItem(id)));
     }
+
+    @Test
+    void cacheAndRepositoryTimingsAreExposedForPrometheus() {
+        createProductAndReturnId("Pixel 9", "Google phone", 999);
+
+        // First listing misses the cache and reads Mongo, the second one is served from Redis
+        RestAssured.given().when().get("/api/product").then().statusCode(HttpStatus.OK.value());
+        RestAssured.given().when().get("/api/product").then().statusCode(HttpStatus.OK.value());
+
+        RestAssured.given()
+                .when()
+                .get("/actuator/prometheus")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(Matchers.containsString("cache_operation_seconds_bucket"))
+                .body(Matchers.containsString("result=\"hit\""))
+                .body(Matchers.containsString("result=\"miss\""))
+                .body(Matchers.containsString("spring_data_repository_invocations_seconds_bucket"));
+    }
 }
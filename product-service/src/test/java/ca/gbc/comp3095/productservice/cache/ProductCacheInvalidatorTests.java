@@ -0,0 +1,140 @@
+package ca.gbc.comp3095.productservice.cache;
+
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+import ca.gbc.comp3095.productservice.model.Product;
+import ca.gbc.comp3095.productservice.repository.ProductRepository;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Writes go straight to Mongo (as a script or admin tool would), never through ProductServiceImpl,
+ * and the cache has to follow. MongoDBContainer runs a single-node replica set, so change streams work.
+ */
+@Testcontainers
+@SpringBootTest(properties = "product.cache.invalidation.redelete-delay=100ms")
+class ProductCacheInvalidatorTests {
+
+    @Container
+    @ServiceConnection(name = "mongodb")
+    static MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:latest"))
+            .withStartupTimeout(Duration.ofSeconds(120));
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7.4.3"))
+            .withExposedPorts(6379)
+            .waitingFor(Wait.forListeningPort())
+            .withStartupTimeout(Duration.ofSeconds(120));
+
+    @Autowired private MongoTemplate mongoTemplate;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CacheManager cacheManager;
+    @Autowired private StringRedisTemplate redisTemplate;
+    @Autowired private ProductCacheInvalidator invalidator;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // The stream opens asynchronously after startup - changes before that are not replayed (no token yet)
+        await(invalidator::isFollowing);
+
+        String token = storedToken();
+        product = productRepository.save(Product.builder()
+                .name("Kettle").description("1.7l").price(BigDecimal.valueOf(40)).build());
+        // Let the invalidator apply the insert before the test primes the cache
+        await(() -> !Objects.equals(token, storedToken()));
+        Thread.sleep(300); // ...and its delayed listing eviction
+        cache().put(product.getId(), response(product));
+        cache().put(ProductCacheInvalidator.ALL_PRODUCTS, List.of(response(product)));
+    }
+
+    @Test
+    void updateBehindTheServicesBackEvictsTheEntryAndTheListing() {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(product.getId())),
+                Update.update("price", BigDecimal.valueOf(35)), Product.class);
+
+        await(() -> cache().get(product.getId()) == null);
+        await(() -> cache().get(ProductCacheInvalidator.ALL_PRODUCTS) == null);
+    }
+
+    @Test
+    void deleteBehindTheServicesBackEvictsTheEntry() {
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(product.getId())), Product.class);
+
+        await(() -> cache().get(product.getId()) == null);
+        await(() -> cache().get(ProductCacheInvalidator.ALL_PRODUCTS) == null);
+    }
+
+    @Test
+    void resumeTokenIsStoredNextToTheCache() {
+        assertNotNull(storedToken(), "the token of the last applied change must survive a restart");
+    }
+
+    @Test
+    void laggingInstanceDoesNotMoveTheResumeTokenBack() {
+        String older = storedToken();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(product.getId())),
+                Update.update("price", BigDecimal.valueOf(30)), Product.class);
+        await(() -> !Objects.equals(older, storedToken()));
+
+        // What an instance still behind on the stream would save
+        invalidator.saveToken(BsonDocument.parse(older));
+
+        assertNotEquals(older, storedToken());
+    }
+
+    private String storedToken() {
+        return redisTemplate.opsForValue().get("product-cache:resume-token");
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(ProductCacheInvalidator.CACHE_NAME);
+    }
+
+    private static ProductResponse response(Product product) {
+        return new ProductResponse(product.getId(), product.getName(), product.getDescription(), product.getPrice());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Cache did not follow the change within 10s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
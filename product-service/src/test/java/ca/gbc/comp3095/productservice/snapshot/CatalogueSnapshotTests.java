@@ -0,0 +1,121 @@
+package ca.gbc.comp3095.productservice.snapshot;
+
+import ca.gbc.comp3095.productservice.dto.ProductResponse;
+import ca.gbc.comp3095.productservice.model.Product;
+import ca.gbc.comp3095.productservice.repository.ProductRepository;
+import ca.gbc.comp3095.productservice.service.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The file format, the swap/age rules and single-product reads - no Mongo needed, the writer takes Products
+ * directly and the repository behind a snapshot miss is a mock.
+ */
+class CatalogueSnapshotTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void productsAreFoundByIdAndPagedInIdOrder() throws IOException {
+        long version = System.currentTimeMillis();
+        write(version, List.of(
+                product("c3", "Pixel", "Phone", "699.99"),
+                product("a1", "Kindle", null, "129"),
+                product("b2", "\u00c9chelle", "Ladder \u00fcnicode", null)));
+
+        CatalogueSnapshot snapshot = CatalogueSnapshot.open(dir.resolve("catalogue-" + version + ".snap"));
+
+        assertEquals(version, snapshot.version());
+        assertEquals(3, snapshot.size());
+        assertEquals(Optional.of(new ProductResponse("b2", "\u00c9chelle", "Ladder \u00fcnicode", null)), snapshot.find("b2"));
+        assertEquals(Optional.of(new ProductResponse("a1", "Kindle", null, new BigDecimal("129"))), snapshot.find("a1"));
+        assertEquals(Optional.empty(), snapshot.find("b"));
+        assertEquals(Optional.empty(), snapshot.find("d4"));
+
+        assertEquals(List.of("a1", "b2", "c3"), snapshot.all().stream().map(ProductResponse::id).toList());
+        assertEquals(List.of("c3"), snapshot.page(1, 2).stream().map(ProductResponse::id).toList());
+        assertEquals(List.of(), snapshot.page(2, 2));
+    }
+
+    @Test
+    void newestSnapshotIsServedUntilItIsTooOld() throws IOException {
+        CatalogueSnapshots snapshots = new CatalogueSnapshots(new SimpleMeterRegistry(), true, dir, Duration.ofMinutes(5));
+
+        long stale = System.currentTimeMillis() - Duration.ofMinutes(10).toMillis();
+        write(stale, List.of(product("a1", "Kindle", null, "129")));
+        snapshots.reload();
+        assertFalse(snapshots.isServing(), "a snapshot older than max-age must fall back to Mongo");
+
+        long fresh = System.currentTimeMillis();
+        write(fresh, List.of(product("a1", "Kindle", null, "129"), product("b2", "Pixel", null, "699")));
+        snapshots.reload();
+        assertTrue(snapshots.isServing());
+        assertEquals(fresh, snapshots.current().orElseThrow().version());
+        assertEquals(2, snapshots.current().orElseThrow().size());
+    }
+
+    @Test
+    void productMissingFromTheSnapshotIsLookedUpInMongo() throws IOException {
+        CatalogueSnapshots snapshots = new CatalogueSnapshots(new SimpleMeterRegistry(), true, dir, Duration.ofMinutes(5));
+        write(System.currentTimeMillis(), List.of(product("a1", "Kindle", null, "129")));
+        snapshots.reload();
+
+        ProductRepository repository = mock(ProductRepository.class);
+        // Created after the export
+        when(repository.findById("b2")).thenReturn(Optional.of(product("b2", "Pixel", null, "699")));
+        when(repository.findById("gone")).thenReturn(Optional.empty());
+        ProductServiceImpl service = new ProductServiceImpl(repository, null, snapshots);
+
+        assertEquals(new ProductResponse("b2", "Pixel", null, new BigDecimal("699")), service.getProduct("b2"));
+        assertThrows(ResponseStatusException.class, () -> service.getProduct("gone"));
+    }
+
+    @Test
+    void productInTheSnapshotIsNotLookedUpInMongo() throws IOException {
+        CatalogueSnapshots snapshots = new CatalogueSnapshots(new SimpleMeterRegistry(), true, dir, Duration.ofMinutes(5));
+        write(System.currentTimeMillis(), List.of(product("a1", "Kindle", null, "129")));
+        snapshots.reload();
+
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductServiceImpl service = new ProductServiceImpl(repository, null, snapshots);
+
+        assertEquals(new ProductResponse("a1", "Kindle", null, new BigDecimal("129")), service.getProduct("a1"));
+        verifyNoInteractions(repository);
+    }
+
+    private void write(long version, List<Product> products) throws IOException {
+        try (CatalogueSnapshotWriter writer = new CatalogueSnapshotWriter(dir.resolve("catalogue-" + version + ".snap"), version)) {
+            for (Product product : products) {
+                writer.add(product);
+            }
+            writer.finish();
+        }
+    }
+
+    private static Product product(String id, String name, String description, String price) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(price == null ? null : new BigDecimal(price))
+                .build();
+    }
+}
@@ -1,3 +1,12 @@
 rootProject.name = "microservice-parent"
 
-include("product-service", "order-service", "inventory-service", "api-gateway")
\ No newline at end of file
+include("product-service", "order-service", "inventory-service", "api-gateway")
+
+// Tracing auto-configuration shared by the services above
+include("tracing-support")
+
+// JMH micro-benchmarks for the services above (./gradlew :benchmarks:jmh)
+include("benchmarks")
+
+// End-to-end load test against all services (./gradlew :load-tests:test -Dloadtest=true)
+include("load-tests")
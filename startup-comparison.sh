@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Startup time of one service in each fast-startup mode:
+#   jar      - plain boot jar
+#   aot      - boot jar with the Spring AOT-generated bean definitions (-Dspring.aot.enabled=true)
+#   cds+aot  - extracted jar + class data sharing archive from a training run + AOT (what the Dockerfile ships)
+#   native   - GraalVM native executable, if it was built (./gradlew :<service>:nativeCompile)
+# Every run starts the application context and exits right after refresh (-Dspring.context.exit=onRefresh),
+# so no database, Redis or Mongo is needed - Flyway is skipped and Hibernate does not read JDBC metadata.
+#
+#   ./startup-comparison.sh order-service [runs]
+#
+# Prints a markdown table of the median wall time per mode and writes <service>/build/startup-comparison.json
+set -euo pipefail
+
+SERVICE=${1:?usage: $0 <service> [runs]}
+RUNS=${2:-5}
+ROOT=$(cd "$(dirname "$0")" && pwd)
+BUILD="$ROOT/$SERVICE/build"
+WORK="$BUILD/startup-comparison"
+JAR="$BUILD/libs/$SERVICE.jar"
+NATIVE="$BUILD/native/nativeCompile/$SERVICE"
+FLAGS=(-Dspring.context.exit=onRefresh
+       -Dspring.flyway.enabled=false
+       -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false
+       -Dlogging.level.root=WARN)
+
+"$ROOT/gradlew" -q -p "$ROOT" ":$SERVICE:bootJar"
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/extracted" > /dev/null
+java -XX:ArchiveClassesAtExit="$WORK/extracted/$SERVICE.jsa" -Dspring.aot.enabled=true "${FLAGS[@]}" \
+     -jar "$WORK/extracted/$SERVICE.jar" > "$WORK/training.log" 2>&1
+
+# Runs the command RUNS times and prints the median wall time in milliseconds
+median_ms() {
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        local start
+        start=$(date +%s%N)
+        "$@" > /dev/null 2>&1 || { echo "failed: $*" >&2; return 1; }
+        times+=($(( ($(date +%s%N) - start) / 1000000 )))
+    done
+    printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p"
+}
+
+declare -A RESULTS
+RESULTS[jar]=$(median_ms java "${FLAGS[@]}" -jar "$JAR")
+RESULTS[aot]=$(median_ms java -Dspring.aot.enabled=true "${FLAGS[@]}" -jar "$JAR")
+RESULTS[cds+aot]=$(median_ms java -XX:SharedArchiveFile="$WORK/extracted/$SERVICE.jsa" -Dspring.aot.enabled=true \
+                   "${FLAGS[@]}" -jar "$WORK/extracted/$SERVICE.jar")
+MODES=(jar aot cds+aot)
+if [[ -x "$NATIVE" ]]; then
+    RESULTS[native]=$(median_ms "$NATIVE" "${FLAGS[@]}")
+    MODES+=(native)
+fi
+
+echo "| $SERVICE | median startup (ms, $RUNS runs) |"
+echo "|---|---|"
+json="{\"service\": \"$SERVICE\", \"runs\": $RUNS, \"medianMillis\": {"
+separator=""
+for mode in "${MODES[@]}"; do
+    echo "| $mode | ${RESULTS[$mode]} |"
+    json+="$separator\"$mode\": ${RESULTS[$mode]}"
+    separator=", "
+done
+echo "$json}}" > "$BUILD/startup-comparison.json"
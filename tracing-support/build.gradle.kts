@@ -0,0 +1,56 @@
+// Tracing shared by all services: span retention, the file/OTLP exporters and the data-store spans.
+// Not a deployable service - the services depend on it and Spring Boot auto-configures
+// ca.gbc.comp3095.tracing.TracingConfig (META-INF/spring/...AutoConfiguration.imports).
+plugins {
+    `java-library`
+    id("io.spring.dependency-management") version "1.1.7"
+}
+
+group = "ca.gbc.comp3095"
+version = "0.0.1-SNAPSHOT"
+description = "tracing-support"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+configurations {
+    compileOnly {
+        extendsFrom(configurations.annotationProcessor.get())
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        // Same versions as the services get from the Spring Boot plugin
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.5.5")
+    }
+}
+
+dependencies {
+    api("io.micrometer:micrometer-tracing-bridge-otel") // W3C trace context + spans
+    api("io.opentelemetry:opentelemetry-exporter-otlp") // tracing.exporter=otlp
+    implementation("org.springframework.boot:spring-boot-autoconfigure")
+    implementation("org.springframework:spring-web") // ServerRequestObservationContext
+    implementation("com.fasterxml.jackson.core:jackson-databind") // tracing.exporter=file
+    implementation("org.slf4j:slf4j-api")
+    // Data-store spans are only set up where the service itself has the client on its class path
+    compileOnly("io.lettuce:lettuce-core")
+    compileOnly("org.springframework.data:spring-data-mongodb")
+    compileOnly("org.mongodb:mongodb-driver-core")
+    compileOnly("org.projectlombok:lombok")
+    annotationProcessor("org.projectlombok:lombok")
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("io.opentelemetry:opentelemetry-sdk-testing") // InMemorySpanExporter
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
@@ -0,0 +1,108 @@
+package ca.gbc.comp3095.tracing;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides per TRACE which finished spans leave this service. Spans are kept when:
+ *  1. the trace id falls in the head sample (hash of the trace id, so every service keeps the same traces), or
+ *  2. the trace failed here (any span with status ERROR), or
+ *  3. the trace was slow here (local root span took at least slow-threshold)
+ * Spans of traces outside the head sample wait until their local root (the span whose parent is remote
+ * or absent, e.g. the inbound request) finishes, then are exported or dropped together.
+ *
+ * Runs on the BatchSpanProcessor thread, never on a request thread.
+ */
+public class TraceRetentionExporter implements SpanExporter {
+
+    private final SpanExporter delegate;
+    private final long headSampleBound;
+    private final long slowNanos;
+    private final Map<String, List<SpanData>> pending;
+    private final Map<String, Boolean> decided; // for spans that finish after their local root
+
+    public TraceRetentionExporter(SpanExporter delegate, double headProbability, Duration slowThreshold, int maxPendingTraces) {
+        this.delegate = delegate;
+        this.headSampleBound = (long) (Math.min(1.0, Math.max(0.0, headProbability)) * Long.MAX_VALUE);
+        this.slowNanos = slowThreshold.toNanos();
+        // Oldest traces are dropped once the bound is hit - their local root never finished
+        this.pending = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanData>> eldest) {
+                return size() > maxPendingTraces;
+            }
+        };
+        this.decided = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxPendingTraces;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> retained = new ArrayList<>();
+
+        synchronized (this) {
+            for (SpanData span : spans) {
+                String traceId = span.getTraceId();
+                if (isHeadSampled(traceId)) {
+                    retained.add(span);
+                    continue;
+                }
+                Boolean decision = decided.get(traceId);
+                if (decision != null) {
+                    if (decision) {
+                        retained.add(span);
+                    }
+                    continue;
+                }
+                List<SpanData> trace = pending.computeIfAbsent(traceId, id -> new ArrayList<>());
+                trace.add(span);
+                if (isLocalRoot(span)) {
+                    pending.remove(traceId);
+                    boolean keep = span.getEndEpochNanos() - span.getStartEpochNanos() >= slowNanos
+                            || trace.stream().anyMatch(s -> s.getStatus().getStatusCode() == StatusCode.ERROR);
+                    decided.put(traceId, keep);
+                    if (keep) {
+                        retained.addAll(trace);
+                    }
+                }
+            }
+        }
+        return retained.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(retained);
+    }
+
+    /**
+     * Same idea as OpenTelemetry's TraceIdRatioBased sampler: the random low 64 bits of the trace id
+     * against a bound, so the decision needs no coordination between services.
+     */
+    boolean isHeadSampled(String traceId) {
+        long random = Long.parseUnsignedLong(traceId.substring(16), 16) >>> 1;
+        return random < headSampleBound;
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+}
@@ -0,0 +1,113 @@
+package ca.gbc.comp3095.tracing;
+
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tracing for every service (auto-configured wherever tracing-support is on the class path). W3C trace context
+ * comes in on every request and goes out on every outbound call (Boot's observed HTTP server and clients);
+ * this class adds the data-store spans - Redis and Mongo where the service uses them - and decides what is exported.
+ *
+ * Every span is recorded in-process (cheap), only retained traces are exported
+ * (see {@link TraceRetentionExporter}) and export runs on the BatchSpanProcessor thread.
+ * tracing.exporter=none (default) | file | otlp - Boot hands every SpanExporter bean to its span processor,
+ * tests can add their own (e.g. an InMemorySpanExporter bean).
+ */
+@AutoConfiguration
+public class TracingConfig {
+
+    // Observations that become data-store spans (JDBC, Redis, Mongo)
+    private static final List<String> DATA_STORE_OBSERVATIONS =
+            List.of("jdbc.", "lettuce.", "redis.", "spring.data.mongodb.", "mongodb.");
+
+    @Value("${tracing.retention.head-probability:0.05}")
+    private double headProbability;
+
+    @Value("${tracing.retention.slow-threshold:500ms}")
+    private Duration slowThreshold;
+
+    @Value("${tracing.retention.max-pending-traces:10000}")
+    private int maxPendingTraces;
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "file")
+    public SpanExporter fileSpanExporter(@Value("${tracing.file.path}") Path path) throws IOException {
+        return retained(new JsonFileSpanExporter(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter", havingValue = "otlp")
+    public SpanExporter otlpSpanExporter(@Value("${tracing.otlp.endpoint}") String endpoint) {
+        return retained(OtlpHttpSpanExporter.builder().setEndpoint(endpoint).build());
+    }
+
+    private SpanExporter retained(SpanExporter exporter) {
+        return new TraceRetentionExporter(exporter, headProbability, slowThreshold, maxPendingTraces);
+    }
+
+    // Every Redis command as a child span of whatever issued it
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MicrometerTracing.class)
+    static class RedisTracing {
+
+        @Bean
+        public ClientResourcesBuilderCustomizer redisTracing(ObservationRegistry observationRegistry,
+                                                             @Value("${spring.application.name}") String applicationName) {
+            return builder -> builder.tracing(new MicrometerTracing(observationRegistry, applicationName + "-redis"));
+        }
+    }
+
+    // Every Mongo command as a child span - the context provider finds the current observation on the calling thread
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MongoObservationCommandListener.class)
+    static class MongoTracing {
+
+        @Bean
+        public MongoClientSettingsBuilderCustomizer mongoTracing(ObservationRegistry observationRegistry) {
+            return builder -> builder
+                    .contextProvider(ContextProviderFactory.create(observationRegistry))
+                    .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+        }
+    }
+
+    /**
+     * Data-store spans only inside a request - background pollers would otherwise start a new
+     * single-span trace every few hundred milliseconds.
+     */
+    @Bean
+    public ObservationPredicate dataStoreSpansOnlyWithinRequests() {
+        return (name, context) -> DATA_STORE_OBSERVATIONS.stream().noneMatch(name::startsWith)
+                || insideServerRequest(context);
+    }
+
+    private static boolean insideServerRequest(Observation.ContextView context) {
+        for (ObservationView parent = context.getParentObservation(); parent != null;
+             parent = parent.getContextView().getParentObservation()) {
+            if (parent.getContextView() instanceof ServerRequestObservationContext) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package ca.gbc.comp3095.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceRetentionExporterTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final InMemorySpanExporter exported = InMemorySpanExporter.create();
+
+    // head-probability 0 -> only the tail rules decide
+    private final TraceRetentionExporter exporter =
+            new TraceRetentionExporter(exported, 0.0, Duration.ofMillis(500), 100);
+
+    @Test
+    void fastSuccessfulTracesOutsideTheHeadSampleAreDropped() {
+        exporter.export(List.of(
+                span("query", "00f067aa0ba902b8", "00f067aa0ba902b7", 5, StatusData.unset()),
+                span("POST /api/order", "00f067aa0ba902b7", null, 20, StatusData.unset())));
+
+        assertTrue(exported.getFinishedSpanItems().isEmpty());
+    }
+
+    @Test
+    void slowTracesAreKeptWithAllTheirSpans() {
+        exporter.export(List.of(span("query", "00f067aa0ba902b8", "00f067aa0ba902b7", 5, StatusData.unset())));
+        exporter.export(List.of(span("POST /api/order", "00f067aa0ba902b7", null, 800, StatusData.unset())));
+
+        assertEquals(2, exported.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void failedTracesAreKeptAndLateSpansFollowTheDecision() {
+        exporter.export(List.of(
+                span("GET /api/inventory", "00f067aa0ba902b8", "00f067aa0ba902b7", 5, StatusData.error()),
+                span("POST /api/order", "00f067aa0ba902b7", null, 20, StatusData.unset())));
+        // e.g. an async child that ended after the request
+        exporter.export(List.of(span("redis XADD", "00f067aa0ba902b9", "00f067aa0ba902b7", 1, StatusData.unset())));
+
+        assertEquals(3, exported.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void headSampledTracesAreExportedImmediately() {
+        var everything = new TraceRetentionExporter(exported, 1.0, Duration.ofMillis(500), 100);
+
+        everything.export(List.of(span("query", "00f067aa0ba902b8", "00f067aa0ba902b7", 5, StatusData.unset())));
+
+        assertEquals(1, exported.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void headDecisionDependsOnlyOnTheTraceId() {
+        var half = new TraceRetentionExporter(exported, 0.5, Duration.ofMillis(500), 100);
+
+        // Every service computes the same answer for the same trace
+        assertEquals(half.isHeadSampled(TRACE_ID), half.isHeadSampled(TRACE_ID));
+        assertTrue(half.isHeadSampled("00000000000000000000000000000001"));
+        assertFalse(half.isHeadSampled("0000000000000000ffffffffffffffff"));
+    }
+
+    private static SpanData span(String name, String spanId, String parentSpanId, long durationMillis, StatusData status) {
+        // parentSpanId == null -> local root of this service (its parent, if any, is remote)
+        SpanContext parent = parentSpanId == null
+                ? SpanContext.createFromRemoteParent(TRACE_ID, "a0f067aa0ba902b7", TraceFlags.getSampled(), TraceState.getDefault())
+                : SpanContext.create(TRACE_ID, parentSpanId, TraceFlags.getSampled(), TraceState.getDefault());
+        long start = 1_000_000_000L;
+        return TestSpanData.builder()
+                .setName(name)
+                .setKind(parentSpanId == null ? SpanKind.SERVER : SpanKind.INTERNAL)
+                .setSpanContext(SpanContext.create(TRACE_ID, spanId, TraceFlags.getSampled(), TraceState.getDefault()))
+                .setParentSpanContext(parent)
+                .setStartEpochNanos(start)
+                .setEndEpochNanos(start + Duration.ofMillis(durationMillis).toNanos())
+                .setStatus(status)
+                .setHasEnded(true)
+                .build();
+    }
+}